@@ -0,0 +1,130 @@
+package com.avangrid.gui.avangrid_backend.config;
+
+import com.avangrid.gui.avangrid_backend.infra.generic.QueryGuard;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Async request handling for {@code /search}, {@code /search/export}, {@code /search/facets},
+ * {@code /metadata} and {@code /metadata/batch}. The search endpoints return a streamed
+ * response body (which Spring runs as a {@link Callable}) whether or not {@code stream=true}
+ * is asked for; the others return a {@link org.springframework.web.context.request.async.WebAsyncTask}.
+ *
+ * <p>These requests run on their own bounded {@code asyncRequestExecutor}
+ * ({@code search.async.executor.*}) instead of the container's request threads. A request
+ * the full executor rejects gets 503.
+ *
+ * <p>Each endpoint sets its own timeout: {@code WebAsyncTask}s carry theirs, and streamed
+ * bodies declare theirs with {@link #setTimeout}. Only exports get the long budget;
+ * anything else falls back to {@code spring.mvc.async.request-timeout}.
+ *
+ * <p>Every async request gets a {@link QueryGuard}, whose running queries are cancelled
+ * when the request fails, which is how the container reports a client that went away,
+ * or times out.
+ */
+@Configuration
+public class AsyncRequestConfig {
+
+    private static final String GUARD_ATTRIBUTE = QueryGuard.class.getName();
+    private static final String TIMEOUT_ATTRIBUTE = AsyncRequestConfig.class.getName() + ".timeout";
+
+    @Bean
+    public ThreadPoolTaskExecutor asyncRequestExecutor(
+            @Value("${search.async.executor.pool-size:32}") int poolSize,
+            @Value("${search.async.executor.queue-capacity:100}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("async-request-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public WebMvcConfigurer queryCancellingConfigurer(
+            @Qualifier("asyncRequestExecutor") ThreadPoolTaskExecutor asyncRequestExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(asyncRequestExecutor);
+                configurer.registerCallableInterceptors(new QueryCancellingInterceptor());
+            }
+        };
+    }
+
+    /**
+     * Sets the timeout of the async request a handler is about to start by returning a
+     * streamed response body, which unlike a {@code WebAsyncTask} cannot carry one.
+     *
+     * @param request Current request
+     * @param timeout Time the response may take to be written
+     */
+    public static void setTimeout(NativeWebRequest request, Duration timeout) {
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeout, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private static final class QueryCancellingInterceptor implements CallableProcessingInterceptor {
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            request.setAttribute(GUARD_ATTRIBUTE, new QueryGuard(), RequestAttributes.SCOPE_REQUEST);
+
+            // Called before the async request starts, while its timeout can still be changed
+            Duration timeout = (Duration) request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (timeout != null && request instanceof AsyncWebRequest asyncRequest) {
+                asyncRequest.setTimeout(timeout.toMillis());
+            }
+        }
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            QueryGuard guard = guard(request);
+            if (guard != null) {
+                guard.attach();
+            }
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object result) {
+            QueryGuard.detach();
+        }
+
+        @Override
+        public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+            cancel(request);
+            return RESULT_NONE;
+        }
+
+        @Override
+        public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+            cancel(request);
+            return RESULT_NONE;
+        }
+
+        private static void cancel(NativeWebRequest request) {
+            QueryGuard guard = guard(request);
+            if (guard != null) {
+                guard.cancel();
+            }
+        }
+
+        private static QueryGuard guard(NativeWebRequest request) {
+            return (QueryGuard) request.getAttribute(GUARD_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
@@ -1,22 +1,27 @@
-package com.avangrid.gui.avangrid_backend.config;
-
-import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
-
-import java.util.HashMap;
-
-@Configuration
-public class JpaBuilderConfig {
-
-    @Bean
-    public EntityManagerFactoryBuilder entityManagerFactoryBuilder() {
-        return new EntityManagerFactoryBuilder(
-                new HibernateJpaVendorAdapter(),
-                new HashMap<>(),
-                null
-        );
-    }
-}
-
+package com.avangrid.gui.avangrid_backend.config;
+
+import com.avangrid.gui.avangrid_backend.infra.generic.ExplainStatementInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class JpaBuilderConfig {
+
+    @Bean
+    public EntityManagerFactoryBuilder entityManagerFactoryBuilder() {
+        Map<String, Object> jpaProperties = new HashMap<>();
+        jpaProperties.put(AvailableSettings.STATEMENT_INSPECTOR, ExplainStatementInspector.class.getName());
+
+        return new EntityManagerFactoryBuilder(
+                new HibernateJpaVendorAdapter(),
+                jpaProperties,
+                null
+        );
+    }
+}
@@ -0,0 +1,48 @@
+package com.avangrid.gui.avangrid_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors used to fan searches out to several OPCO datasources at once,
+ * and to run the time slices of wide date ranges in parallel.
+ */
+@Configuration
+public class SearchExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor searchExecutor(
+            @Value("${search.executor.pool-size:6}") int poolSize,
+            @Value("${search.executor.queue-capacity:50}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("search-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Separate from {@link #searchExecutor} so a federated search waiting on its
+     * slices never starves the pool it is running on.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor searchSliceExecutor(
+            @Value("${search.slices.executor.pool-size:6}") int poolSize,
+            @Value("${search.slices.executor.queue-capacity:100}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("search-slice-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,75 +1,163 @@
-package com.avangrid.gui.avangrid_backend.controller;
-
-import com.avangrid.gui.avangrid_backend.model.*;
-import com.avangrid.gui.avangrid_backend.service.VpiRecordingService;
-import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
-import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
-
-@RestController
-@RequestMapping("/api/v1")
-@RequiredArgsConstructor
-@Validated
-@Tag(name = "VPI Recording APIs")
-public class MainController {
-
-    private final VpiRecordingService service;
-
-    // -------------------- SEARCH --------------------
-
-    @Operation(summary = "Search VPI recordings")
-    @PostMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<VpiSearchResponse> search(
-            @Valid @RequestBody VpiSearchRequest request) {
-
-        return ResponseEntity.ok(service.getTableData(request));
-    }
-
-    // -------------------- METADATA --------------------
-
-    @Operation(summary = "Get recording metadata")
-    @GetMapping(value = "/metadata", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Map<String, Object>> getMetadata(
-            @RequestParam @NotNull UUID id,
-            @RequestParam @NotBlank String opco) {
-
-        return ResponseEntity.ok(service.getMetadata(id, opco));
-    }
-
-    // -------------------- SINGLE RECORDING --------------------
-
-    @Operation(summary = "Download single VPI recording")
-    @PostMapping(value = "/recording", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    public ResponseEntity<ByteArrayResource> getRecording(
-            @Valid @RequestBody RecordingRequest request) {
-
-        return service.getRecordingVpi(request);
-    }
-
-    // -------------------- BULK DOWNLOAD --------------------
-
-    @Operation(summary = "Download multiple VPI recordings (ZIP)")
-    @PostMapping(value = "/download", produces = "application/zip")
-    public ResponseEntity<byte[]> download(
-            @Valid @RequestBody List<RecordingRequest> requests) {
-
-        // Controller validates request shape (API responsibility)
-        if (requests == null || requests.isEmpty()) {
-            return ResponseEntity.badRequest().build();
-        }
-
-        return service.downloadVpi(requests);
-    }
-}
+package com.avangrid.gui.avangrid_backend.controller;
+
+import com.avangrid.gui.avangrid_backend.model.*;
+import com.avangrid.gui.avangrid_backend.service.VpiRecordingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import com.avangrid.gui.avangrid_backend.config.AsyncRequestConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "VPI Recording APIs")
+public class MainController {
+
+    private final VpiRecordingService service;
+
+    // How long each async endpoint may take before its request times out
+    @Value("${search.request-timeout.search:60s}")
+    private Duration searchTimeout;
+
+    @Value("${search.request-timeout.facets:60s}")
+    private Duration facetsTimeout;
+
+    @Value("${search.request-timeout.metadata:30s}")
+    private Duration metadataTimeout;
+
+    @Value("${search.request-timeout.export:30m}")
+    private Duration exportTimeout;
+
+    // -------------------- SEARCH --------------------
+
+    @Operation(summary = "Search VPI recordings")
+    @ApiResponse(responseCode = "200", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = VpiSearchResponse.class)),
+            @Content(mediaType = ResponseFormat.CBOR_VALUE,
+                    schema = @Schema(implementation = VpiSearchResponse.class)),
+            @Content(mediaType = ResponseFormat.SMILE_VALUE,
+                    schema = @Schema(implementation = VpiSearchResponse.class))})
+    @PostMapping(value = "/search", produces = {
+            MediaType.APPLICATION_JSON_VALUE, ResponseFormat.CBOR_VALUE, ResponseFormat.SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> search(
+            @Valid @RequestBody VpiSearchRequest request,
+            @RequestParam(defaultValue = "false") boolean stream,
+            @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false) String cacheControl,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            NativeWebRequest webRequest) {
+
+        // "Cache-Control: no-cache" skips cached search results
+        boolean bypassCache = cacheControl != null
+                && cacheControl.toLowerCase(Locale.ROOT).contains("no-cache");
+
+        // The body is written by hand, so the Accept header is negotiated here
+        ResponseFormat format = ResponseFormat.negotiate(accept);
+
+        // Written asynchronously, so a client that goes away cancels its running queries;
+        // with "stream=true" large pages are written row by row
+        AsyncRequestConfig.setTimeout(webRequest, searchTimeout);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(service.streamTableData(request, bypassCache, stream, format));
+    }
+
+    @Operation(summary = "Count VPI recordings per day, direction, agent, extension and duration")
+    @PostMapping(value = "/search/facets", produces = {
+            MediaType.APPLICATION_JSON_VALUE, ResponseFormat.CBOR_VALUE, ResponseFormat.SMILE_VALUE})
+    public WebAsyncTask<ResponseEntity<VpiFacetsResponse>> facets(
+            @Valid @RequestBody VpiSearchRequest request) {
+
+        return new WebAsyncTask<>(facetsTimeout.toMillis(), () -> ResponseEntity.ok(service.getFacets(request)));
+    }
+
+    @Operation(summary = "Export all matching VPI recordings as NDJSON, CSV, CBOR or Smile")
+    @PostMapping(value = "/search/export", produces = {
+            "application/x-ndjson", "text/csv", ResponseFormat.CBOR_VALUE, ResponseFormat.SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> export(
+            @Valid @RequestBody VpiSearchRequest request,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            NativeWebRequest webRequest) {
+
+        // An explicit format wins over the Accept header
+        ExportFormat exportFormat = format != null ? ExportFormat.from(format) : ExportFormat.fromAccept(accept);
+
+        // Large exports stream for a long time
+        AsyncRequestConfig.setTimeout(webRequest, exportTimeout);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"search-export." + exportFormat.getExtension() + "\"")
+                .body(service.exportSearch(request, exportFormat));
+    }
+
+    // -------------------- METADATA --------------------
+
+    @Operation(summary = "Get recording metadata")
+    @GetMapping(value = "/metadata", produces = {
+            MediaType.APPLICATION_JSON_VALUE, ResponseFormat.CBOR_VALUE, ResponseFormat.SMILE_VALUE})
+    public WebAsyncTask<ResponseEntity<Map<String, Object>>> getMetadata(
+            @RequestParam @NotNull UUID id,
+            @RequestParam @NotBlank String opco) {
+
+        return new WebAsyncTask<>(metadataTimeout.toMillis(), () -> ResponseEntity.ok(service.getMetadata(id, opco)));
+    }
+
+    @Operation(summary = "Get metadata of several recordings, keyed by id")
+    @PostMapping(value = "/metadata/batch", produces = {
+            MediaType.APPLICATION_JSON_VALUE, ResponseFormat.CBOR_VALUE, ResponseFormat.SMILE_VALUE})
+    public WebAsyncTask<ResponseEntity<VpiMetadataBatchResponse>> getMetadataBatch(
+            @RequestBody List<@Valid MetadataBatchItem> items) {
+
+        return new WebAsyncTask<>(metadataTimeout.toMillis(), () -> ResponseEntity.ok(service.getMetadataBatch(items)));
+    }
+
+    // -------------------- SINGLE RECORDING --------------------
+
+    @Operation(summary = "Download single VPI recording")
+    @PostMapping(value = "/recording", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ByteArrayResource> getRecording(
+            @Valid @RequestBody RecordingRequest request) {
+
+        return service.getRecordingVpi(request);
+    }
+
+    // -------------------- BULK DOWNLOAD --------------------
+
+    @Operation(summary = "Download multiple VPI recordings (ZIP)")
+    @PostMapping(value = "/download", produces = "application/zip")
+    public ResponseEntity<byte[]> download(
+            @Valid @RequestBody List<RecordingRequest> requests) {
+
+        // Controller validates request shape (API responsibility)
+        if (requests == null || requests.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return service.downloadVpi(requests);
+    }
+}
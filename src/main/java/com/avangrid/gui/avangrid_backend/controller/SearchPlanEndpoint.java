@@ -0,0 +1,163 @@
+package com.avangrid.gui.avangrid_backend.controller;
+
+import com.avangrid.gui.avangrid_backend.infra.generic.ExplainedStatement;
+import com.avangrid.gui.avangrid_backend.model.PlanScan;
+import com.avangrid.gui.avangrid_backend.model.SearchPlanReport;
+import com.avangrid.gui.avangrid_backend.model.VpiFiltersRequest;
+import com.avangrid.gui.avangrid_backend.service.VpiRecordingService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Actuator endpoint {@code /actuator/searchplans} showing how Postgres plans the search
+ * statement of each canonical filter shape on every enabled OPCO.
+ *
+ * <p>For each shape the page query Hibernate renders from the search specifications is
+ * run under {@code EXPLAIN (FORMAT JSON)} (planned only, never executed) over the last
+ * {@code search.plans.range}, and the plan is summarised: scan node types, whether any
+ * relation is read sequentially, the indexes used and the planner's row estimate.
+ * {@code /actuator/searchplans/{opco}} limits the report to one OPCO.
+ *
+ * <p>Each OPCO's report is kept for {@code search.plans.cache-ttl}, so repeated calls
+ * do not run the EXPLAINs again. The endpoint requires {@code security.admin-authority}.
+ */
+@Component
+@Endpoint(id = "searchplans")
+public class SearchPlanEndpoint {
+
+    private static final ObjectMapper PLAN_MAPPER = new ObjectMapper();
+
+    private final VpiRecordingService service;
+    private final Duration range;
+    private final Map<String, VpiFiltersRequest> shapes = new LinkedHashMap<>();
+    private final Cache<String, List<SearchPlanReport>> reports;
+
+    public SearchPlanEndpoint(
+            VpiRecordingService service,
+            @Value("${search.plans.range:1d}") Duration range,
+            @Value("${search.plans.cache-ttl:5m}") Duration cacheTtl) {
+
+        this.service = service;
+        this.range = range;
+        this.reports = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .build();
+
+        // Sample values only pick the plan's selectivity estimates; the statement shape is what matters
+        shapes.put("date-only", filters(f -> { }));
+        shapes.put("name", filters(f -> f.setName(List.of("smith"))));
+        shapes.put("extension", filters(f -> f.setExtensionNum(List.of("1001"))));
+        shapes.put("channel", filters(f -> f.setChannelNum(List.of("1"))));
+        shapes.put("ani", filters(f -> f.setAniAliDigits(List.of("5551234567"))));
+        shapes.put("agent", filters(f -> f.setAgentID(List.of("1001"))));
+        shapes.put("objectIds", filters(f -> f.setObjectIDs(List.of(UUID.randomUUID()))));
+    }
+
+    @ReadOperation
+    public Map<String, List<SearchPlanReport>> plans() {
+        Map<String, List<SearchPlanReport>> plans = new LinkedHashMap<>();
+        for (String opco : service.enabledOpcos()) {
+            plans.put(opco, report(opco));
+        }
+        return plans;
+    }
+
+    /**
+     * @return Reports for the OPCO, or null (404) when it is unknown or disabled
+     */
+    @ReadOperation
+    public List<SearchPlanReport> plans(@Selector String opco) {
+        String upperOpco = opco.toUpperCase(Locale.ROOT);
+        return service.enabledOpcos().contains(upperOpco) ? report(upperOpco) : null;
+    }
+
+    private List<SearchPlanReport> report(String opco) {
+        // Explained outside the cache's map, so one slow OPCO does not block the others
+        List<SearchPlanReport> cached = reports.getIfPresent(opco);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<SearchPlanReport> report = explainOpco(opco);
+        reports.put(opco, report);
+        return report;
+    }
+
+    private List<SearchPlanReport> explainOpco(String opco) {
+        OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime from = to.minus(range);
+
+        List<SearchPlanReport> reports = new ArrayList<>();
+        shapes.forEach((shape, filters) -> {
+            SearchPlanReport report = new SearchPlanReport();
+            report.setShape(shape);
+            try {
+                ExplainedStatement statement = service.explainSearch(opco, from, to, filters);
+                report.setSql(statement.getSql());
+                summarize(statement.getPlanJson(), report);
+            } catch (RuntimeException e) {
+                report.setError(e.getMessage());
+            }
+            reports.add(report);
+        });
+        return reports;
+    }
+
+    /**
+     * Reads the top node's estimates and every scan node from a JSON plan.
+     */
+    private static void summarize(String planJson, SearchPlanReport report) {
+        JsonNode plan;
+        try {
+            plan = PLAN_MAPPER.readTree(planJson).path(0).path("Plan");
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable query plan", e);
+        }
+
+        List<PlanScan> scans = new ArrayList<>();
+        collectScans(plan, scans);
+
+        report.setEstimatedRows(plan.path("Plan Rows").asLong());
+        report.setTotalCost(plan.path("Total Cost").asDouble());
+        report.setScans(scans);
+        report.setSequentialScan(scans.stream().anyMatch(scan -> "Seq Scan".equals(scan.getNodeType())));
+        report.setIndexes(scans.stream()
+                .map(PlanScan::getIndex)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+    }
+
+    private static void collectScans(JsonNode node, List<PlanScan> scans) {
+        String nodeType = node.path("Node Type").asText();
+        if (nodeType.endsWith("Scan")) {
+            scans.add(new PlanScan(nodeType,
+                    node.hasNonNull("Relation Name") ? node.get("Relation Name").asText() : null,
+                    node.hasNonNull("Index Name") ? node.get("Index Name").asText() : null,
+                    node.path("Plan Rows").asLong()));
+        }
+        // Child nodes, including sub-plans such as the user name semi-join
+        for (JsonNode child : node.path("Plans")) {
+            collectScans(child, scans);
+        }
+    }
+
+    private static VpiFiltersRequest filters(Consumer<VpiFiltersRequest> shape) {
+        VpiFiltersRequest filters = new VpiFiltersRequest();
+        shape.accept(filters);
+        return filters;
+    }
+}
@@ -0,0 +1,35 @@
+package com.avangrid.gui.avangrid_backend.controller;
+
+import com.avangrid.gui.avangrid_backend.model.SlowQuerySample;
+import com.avangrid.gui.avangrid_backend.service.SlowQuerySampler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint {@code /actuator/slowqueries} listing the most recent slow searches
+ * and user name lookups kept by {@link SlowQuerySampler}, newest first.
+ * {@code DELETE} empties the list. Samples carry other users' filter values, so the
+ * endpoint requires {@code security.admin-authority}.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQuerySampler sampler;
+
+    @ReadOperation
+    public List<SlowQuerySample> samples() {
+        return sampler.samples();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        sampler.clear();
+    }
+}
@@ -1,50 +1,101 @@
-package com.avangrid.gui.avangrid_backend.exception;
-
-import com.avangrid.gui.avangrid_backend.model.ErrorResponse;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.ControllerAdvice;
-import org.springframework.web.bind.annotation.ExceptionHandler;
-
-import java.time.LocalDateTime;
-
-@ControllerAdvice
-public class GlobalExceptionHandler {
-
-    @ExceptionHandler(InvalidRequestException.class)
-    public ResponseEntity<ErrorResponse> handleInvalidRequest(InvalidRequestException ex) {
-        return buildErrorResponse(ex.getMessage(),  HttpStatus.BAD_REQUEST);
-    }
-
-    @ExceptionHandler(RecordingNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleNotFound(RecordingNotFoundException ex) {
-        return buildErrorResponse(ex.getMessage(),  HttpStatus.NOT_FOUND);
-    }
-
-    @ExceptionHandler(DuplicateRecordingException.class)
-    public ResponseEntity<ErrorResponse> handleDuplicate(DuplicateRecordingException ex) {
-        return buildErrorResponse(ex.getMessage(),  HttpStatus.CONFLICT);
-    }
-
-    @ExceptionHandler(RecordingProcessingException.class)
-    public ResponseEntity<ErrorResponse> handleRecordingAccessFailure(RecordingProcessingException ex) {
-        return buildErrorResponse(ex.getMessage(),  HttpStatus.INTERNAL_SERVER_ERROR);
-    }
-
-    @ExceptionHandler(Exception.class) // fallback
-    public ResponseEntity<ErrorResponse> handleGeneral(Exception ex) {
-        return buildErrorResponse("Unexpected error: " + ex.getMessage(),
-                 HttpStatus.INTERNAL_SERVER_ERROR);
-    }
-
-    private ResponseEntity<ErrorResponse> buildErrorResponse(String message,
-                                                                   HttpStatus status) {
-        ErrorResponse errorResponse = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(status.value())
-                .error(status.getReasonPhrase())
-                .message(message)
-                .build();
-        return new ResponseEntity<>(errorResponse, status);
-    }
-}
+package com.avangrid.gui.avangrid_backend.exception;
+
+import com.avangrid.gui.avangrid_backend.model.ErrorResponse;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+@ControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequest(InvalidRequestException ex) {
+        return buildErrorResponse(ex.getMessage(),  HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolation(ConstraintViolationException ex) {
+        String message = ex.getConstraintViolations().stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return buildErrorResponse(message, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleMethodValidation(HandlerMethodValidationException ex) {
+        String message = ex.getAllErrors().stream()
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+        return buildErrorResponse(message, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(RecordingNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(RecordingNotFoundException ex) {
+        return buildErrorResponse(ex.getMessage(),  HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(DuplicateRecordingException.class)
+    public ResponseEntity<ErrorResponse> handleDuplicate(DuplicateRecordingException ex) {
+        return buildErrorResponse(ex.getMessage(),  HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RecordingProcessingException.class)
+    public ResponseEntity<ErrorResponse> handleRecordingAccessFailure(RecordingProcessingException ex) {
+        return buildErrorResponse(ex.getMessage(),  HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(OpcoOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloaded(OpcoOverloadedException ex) {
+        ResponseEntity<ErrorResponse> response = buildErrorResponse(ex.getMessage(), ex.getStatus());
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(response.getBody());
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleQueryTimeout(QueryTimeoutException ex) {
+        return buildErrorResponse("Search took too long, narrow the date range or filters",
+                HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleRequestTimeout(AsyncRequestTimeoutException ex) {
+        return buildErrorResponse("Request took too long, narrow the date range or filters",
+                HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleExecutorFull(RejectedExecutionException ex) {
+        return buildErrorResponse("Too many requests in progress, retry later",
+                HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(Exception.class) // fallback
+    public ResponseEntity<ErrorResponse> handleGeneral(Exception ex) {
+        return buildErrorResponse("Unexpected error: " + ex.getMessage(),
+                 HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private ResponseEntity<ErrorResponse> buildErrorResponse(String message,
+                                                                   HttpStatus status) {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .build();
+        return new ResponseEntity<>(errorResponse, status);
+    }
+}
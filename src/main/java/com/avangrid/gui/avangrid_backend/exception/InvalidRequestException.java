@@ -1,9 +1,9 @@
-package com.avangrid.gui.avangrid_backend.exception;
-
-public class InvalidRequestException extends RuntimeException {
-    public InvalidRequestException(String message) {
-        super(message);
-    }
-
-    public InvalidRequestException(String message, Throwable cause) {super( message, cause );}
+package com.avangrid.gui.avangrid_backend.exception;
+
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {super( message, cause );}
 }
\ No newline at end of file
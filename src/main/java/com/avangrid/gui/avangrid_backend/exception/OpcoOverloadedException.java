@@ -0,0 +1,25 @@
+package com.avangrid.gui.avangrid_backend.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an OPCO's datasource is saturated and a query is turned away
+ * instead of waiting on the connection pool.
+ */
+@Getter
+public class OpcoOverloadedException extends RuntimeException {
+
+    private final String opco;
+    private final HttpStatus status;
+    private final Duration retryAfter;
+
+    public OpcoOverloadedException(String opco, HttpStatus status, Duration retryAfter, String message) {
+        super(message);
+        this.opco = opco;
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -1,16 +1,16 @@
-package com.avangrid.gui.avangrid_backend.infra.cmp.entity;
-
-import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Table;
-
-import org.hibernate.annotations.Immutable;
-
-
-@Entity
-@Table(name = "vpUsers", schema = "vpicore")
-@Immutable
-public class VpiUsersCmp extends VpiUsersBase {
-
-}
-
+package com.avangrid.gui.avangrid_backend.infra.cmp.entity;
+
+import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+
+
+@Entity
+@Table(name = "vpUsers", schema = "vpicore")
+@Immutable
+public class VpiUsersCmp extends VpiUsersBase {
+
+}
+
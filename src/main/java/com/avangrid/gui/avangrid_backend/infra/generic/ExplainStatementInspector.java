@@ -0,0 +1,126 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Hibernate statement inspector that prefixes the SQL generated on the current
+ * thread with an EXPLAIN clause while {@link #explain(String, Supplier)} runs.
+ * Lets criteria queries built from specifications be explained as Hibernate renders them.
+ * {@link #record(Supplier, List)} only collects the rendered SQL, leaving it unchanged, and
+ * {@link #rewrite(UnaryOperator, Supplier)} completes it with SQL the criteria API cannot
+ * express, such as {@code GROUP BY GROUPING SETS}.
+ *
+ * <p>Installed as the statement inspector of every OPCO persistence unit
+ * ({@code JpaBuilderConfig}), so Hibernate calls it for every statement. Contract:
+ * <ul>
+ *   <li>Only statements issued on the calling thread while the action runs are affected.
+ *       Work the action hands to another thread (an executor, an async request) is neither
+ *       explained nor recorded.</li>
+ *   <li>Calls nest; the innermost applies and the outer one is restored afterwards.
+ *       A rewrite passes the SQL it produces on to an enclosing explain or record.</li>
+ *   <li>The {@code rendered} list is only written from the calling thread.</li>
+ *   <li>While no thread is explaining, recording or rewriting, {@link #inspect} returns the SQL
+ *       as is after reading one counter, without touching the thread-local.</li>
+ * </ul>
+ */
+public class ExplainStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<Explain> CURRENT = new ThreadLocal<>();
+    // Threads inside explain(), record() or rewrite(); lets inspect() skip the thread-local otherwise
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+    /**
+     * Runs the action with every statement it issues prefixed by the given EXPLAIN clause.
+     *
+     * @param explainClause e.g. {@code explain (format json)}
+     * @param action Query to run
+     * @param <R> Result type
+     * @return Result of the action
+     */
+    public static <R> R explain(String explainClause, Supplier<R> action) {
+        return explain(explainClause, action, new ArrayList<>());
+    }
+
+    /**
+     * Runs the action with every statement it issues prefixed by the given EXPLAIN clause,
+     * collecting the SQL Hibernate rendered for each statement, without the prefix.
+     *
+     * @param explainClause e.g. {@code explain (format json)}
+     * @param action Query to run
+     * @param rendered Receives the rendered SQL of every statement, in order
+     * @param <R> Result type
+     * @return Result of the action
+     */
+    public static <R> R explain(String explainClause, Supplier<R> action, List<String> rendered) {
+        return apply(sql -> explainClause + " " + sql, action, rendered);
+    }
+
+    /**
+     * Runs the action unchanged, collecting the SQL Hibernate renders for the statements
+     * it issues on the current thread.
+     *
+     * @param action Queries to run
+     * @param rendered Receives the rendered SQL of every statement, in order
+     * @param <R> Result type
+     * @return Result of the action
+     */
+    public static <R> R record(Supplier<R> action, List<String> rendered) {
+        return apply(null, action, rendered);
+    }
+
+    /**
+     * Runs the action with the SQL of every statement it issues replaced by the rewrite.
+     *
+     * @param rewrite Maps the SQL Hibernate rendered to the SQL to run
+     * @param action Query to run
+     * @param <R> Result type
+     * @return Result of the action
+     */
+    public static <R> R rewrite(UnaryOperator<String> rewrite, Supplier<R> action) {
+        Explain outer = CURRENT.get();
+        UnaryOperator<String> applied = outer == null ? rewrite : sql -> outer.inspect(rewrite.apply(sql));
+        return apply(applied, action, new ArrayList<>());
+    }
+
+    private static <R> R apply(UnaryOperator<String> rewrite, Supplier<R> action, List<String> rendered) {
+        Explain previous = CURRENT.get();
+        CURRENT.set(new Explain(rewrite, rendered));
+        ACTIVE.incrementAndGet();
+        try {
+            return action.get();
+        } finally {
+            ACTIVE.decrementAndGet();
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (ACTIVE.get() == 0) {
+            return sql;
+        }
+        Explain explain = CURRENT.get();
+        return explain == null ? sql : explain.inspect(sql);
+    }
+
+    @lombok.Value
+    private static class Explain {
+        UnaryOperator<String> rewrite;      // null while only recording
+        List<String> rendered;
+
+        String inspect(String sql) {
+            rendered.add(sql);
+            return rewrite == null ? sql : rewrite.apply(sql);
+        }
+    }
+}
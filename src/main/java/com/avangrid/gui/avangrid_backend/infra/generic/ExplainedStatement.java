@@ -0,0 +1,13 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import lombok.Value;
+
+/**
+ * A statement as Hibernate rendered it, with its {@code EXPLAIN (FORMAT JSON)} plan.
+ */
+@Value
+public class ExplainedStatement {
+
+    String sql;         // with ? placeholders; bind values are not included
+    String planJson;
+}
@@ -0,0 +1,158 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.QueryTimeoutException;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Time budget and cancellation handle for the queries of one request.
+ *
+ * <p>While a guard is bound to the current thread every query built by
+ * {@link VpiRepositoryBase} gets the remaining budget as its statement timeout, and the
+ * Hibernate session running it is remembered so {@link #cancel()} can call
+ * {@code Statement.cancel} on the in-flight statement from another thread. Both end
+ * in a {@link QueryTimeoutException}; {@link #isCancelled()} tells them apart.
+ *
+ * <p>A {@link #child()} guard covers one part of the request's work, such as one OPCO
+ * of a federated search: it shares the deadline and is cancelled with its parent, but
+ * can also be cancelled on its own without touching the rest of the request.
+ */
+public final class QueryGuard {
+
+    private static final ThreadLocal<QueryGuard> CURRENT = new ThreadLocal<>();
+
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private final Set<QueryGuard> children = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+    private volatile long deadline;
+
+    /**
+     * Creates a guard for part of this guard's work, with the same deadline.
+     * It is cancelled when this guard is.
+     *
+     * @return Child guard
+     */
+    public QueryGuard child() {
+        QueryGuard child = new QueryGuard();
+        child.deadline = deadline;
+        children.add(child);
+        if (cancelled) {
+            child.cancelled = true;
+        }
+        return child;
+    }
+
+    /**
+     * @return The guard bound to the current thread, or null
+     */
+    public static QueryGuard current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action with the guard bound to the current thread, e.g. on an executor
+     * thread working for the request. A null guard runs the action unguarded.
+     */
+    public static <R> R bind(QueryGuard guard, Supplier<R> action) {
+        QueryGuard previous = CURRENT.get();
+        CURRENT.set(guard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs the action with its queries limited to the given time in total. Uses the
+     * guard bound to the thread, or a new one; an earlier deadline is kept.
+     *
+     * @param timeout Time budget for all queries of the action
+     * @param action Database work
+     * @param <R> Result type
+     * @return Result of the action
+     */
+    public static <R> R within(Duration timeout, Supplier<R> action) {
+        QueryGuard guard = CURRENT.get() != null ? CURRENT.get() : new QueryGuard();
+        long previous = guard.deadline;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (previous == 0 || deadline - previous < 0) {
+            guard.deadline = deadline;
+        }
+        try {
+            return bind(guard, action);
+        } finally {
+            guard.deadline = previous;
+        }
+    }
+
+    /**
+     * Binds the guard to the current thread until {@link #detach()}.
+     */
+    public void attach() {
+        CURRENT.set(this);
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Cancels the statements running for this guard and its children and refuses further queries.
+     */
+    public void cancel() {
+        cancelled = true;
+        children.forEach(QueryGuard::cancel);
+        for (Session session : sessions) {
+            try {
+                session.cancelQuery();
+            } catch (RuntimeException e) {
+                // Session already closed: nothing is running on it
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Applies the guard bound to the current thread, if any, to a query about to run.
+     *
+     * @throws QueryTimeoutException if the guard was cancelled or its budget is spent
+     */
+    static <Q extends Query> Q apply(Q query, EntityManager entityManager) {
+        QueryGuard guard = CURRENT.get();
+        if (guard == null) {
+            return query;
+        }
+
+        if (guard.deadline != 0) {
+            long remaining = guard.deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new QueryTimeoutException("Query time budget exhausted");
+            }
+            // Statement timeouts have second granularity; round up so short budgets still apply
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+            query.setHint(HibernateHints.HINT_TIMEOUT, (int) seconds);
+        }
+
+        guard.sessions.add(entityManager.unwrap(Session.class));
+        if (guard.cancelled) {
+            throw new QueryTimeoutException("Query cancelled");
+        }
+        return query;
+    }
+}
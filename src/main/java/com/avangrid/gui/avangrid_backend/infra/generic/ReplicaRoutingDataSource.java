@@ -0,0 +1,62 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Data source that sends the reads marked by {@link #read(boolean, Supplier)} to a
+ * streaming replica and everything else to the primary.
+ *
+ * <p>Routing is decided when a connection is borrowed, which for JPA is when the
+ * transaction or the first statement starts on the current thread. Reads fall back
+ * to the primary when no replica qualifies (see {@link ReplicaSet}).
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<Boolean> READ = new ThreadLocal<>();
+
+    private final ReplicaSet replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicas) {
+        super(primary);
+        this.replicas = replicas;
+    }
+
+    /**
+     * Runs the action with the connections it borrows taken from a replica when possible.
+     *
+     * @param live Whether the read covers the live window, so replica lag matters
+     * @param action Read-only database work
+     * @param <R> Result type
+     * @return Result of the action
+     */
+    public static <R> R read(boolean live, Supplier<R> action) {
+        Boolean previous = READ.get();
+        READ.set(previous != null && previous || live);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                READ.remove();
+            } else {
+                READ.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Boolean live = READ.get();
+        if (live != null) {
+            Connection replica = replicas.connection(live);
+            if (replica != null) {
+                return replica;
+            }
+        }
+        return super.getConnection();
+    }
+}
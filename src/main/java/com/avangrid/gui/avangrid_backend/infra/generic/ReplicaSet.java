@@ -0,0 +1,177 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming replicas of one OPCO database, used round-robin for reads.
+ *
+ * <p>A replica that refuses a connection is skipped for {@code retryAfter}. Reads that
+ * cover the live window only use replicas whose replay lag is within {@code maxLag};
+ * the lag is read on a borrowed connection at most once per {@code lagCheckInterval}.
+ * A server that is not in recovery reports no lag. When no replica qualifies
+ * {@link #connection(boolean)} returns null and the caller uses the primary.
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSet.class);
+
+    private static final String LAG_QUERY =
+            "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+                    + " else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    private final String name;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration lagCheckInterval;
+    private final Duration retryAfter;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates one pool per replica URL with the primary's pool settings and credentials.
+     *
+     * @param name OPCO name, used for pool names and logs
+     * @param primary Primary pool, already bound to {@code datasource.<opco>.*}
+     * @param urls Replica JDBC URLs (may be empty)
+     * @param maxLag Largest replay lag accepted for live-window reads
+     * @param lagCheckInterval How long a lag reading is trusted
+     * @param retryAfter How long a failed replica is skipped
+     * @return Replica set, empty when no URLs are configured
+     */
+    public static ReplicaSet of(String name, HikariDataSource primary, List<String> urls,
+                                Duration maxLag, Duration lagCheckInterval, Duration retryAfter) {
+        List<DataSource> pools = new ArrayList<>();
+        for (String url : urls) {
+            if (url == null || url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setJdbcUrl(url.trim());
+            replica.setPoolName(name + "-replica-" + (pools.size() + 1));
+            replica.setReadOnly(true);
+            pools.add(replica);
+        }
+        return new ReplicaSet(name, pools, maxLag, lagCheckInterval, retryAfter);
+    }
+
+    ReplicaSet(String name, List<DataSource> pools,
+               Duration maxLag, Duration lagCheckInterval, Duration retryAfter) {
+        this.name = name;
+        this.replicas = pools.stream().map(Replica::new).toList();
+        this.maxLag = maxLag;
+        this.lagCheckInterval = lagCheckInterval;
+        this.retryAfter = retryAfter;
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * Borrows a connection from the next healthy replica.
+     *
+     * @param live Whether the read covers the live window and must respect the lag guard
+     * @return Replica connection, or null when no replica qualifies
+     */
+    public Connection connection(boolean live) {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isDown()) {
+                continue;
+            }
+
+            Connection connection;
+            try {
+                connection = replica.pool.getConnection();
+            } catch (SQLException e) {
+                replica.markDown(e);
+                continue;
+            }
+
+            if (!live || replica.withinLag(connection)) {
+                return connection;
+            }
+            closeQuietly(connection);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.pool instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.debug("Closing {} replica pool failed", name, e);
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Returning replica connection failed", e);
+        }
+    }
+
+    /**
+     * One replica pool with its health and last lag reading.
+     */
+    private final class Replica {
+
+        private final DataSource pool;
+        private volatile long downUntil;
+        private volatile double lagSeconds;
+        private volatile long lagCheckedAt;
+
+        Replica(DataSource pool) {
+            this.pool = pool;
+        }
+
+        boolean isDown() {
+            return System.nanoTime() - downUntil < 0;
+        }
+
+        void markDown(Exception cause) {
+            downUntil = System.nanoTime() + retryAfter.toNanos();
+            logger.warn("{} replica unavailable, using other replicas or the primary for {}: {}",
+                    name, retryAfter, cause.getMessage());
+        }
+
+        boolean withinLag(Connection connection) {
+            long now = System.nanoTime();
+            if (lagCheckedAt == 0 || now - lagCheckedAt > lagCheckInterval.toNanos()) {
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    lagSeconds = rs.next() ? rs.getDouble(1) : 0;
+                    lagCheckedAt = now;
+                } catch (SQLException e) {
+                    markDown(e);
+                    return false;
+                }
+            }
+            return lagSeconds * 1000 <= maxLag.toMillis();
+        }
+    }
+}
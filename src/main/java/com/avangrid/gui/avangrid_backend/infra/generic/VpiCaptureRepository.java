@@ -1,30 +1,95 @@
-package com.avangrid.gui.avangrid_backend.infra.generic;
-
-import com.avangrid.gui.avangrid_backend.model.VpiCaptureBase;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.data.repository.NoRepositoryBean;
-
-import java.util.List;
-import java.util.UUID;
-import org.springframework.data.domain.*;
-
-/**
- * Generic repository for VPI Capture entities across multiple databases
- * @param <T> Entity type extending VpiCaptureBase
- */
-@NoRepositoryBean
-public interface VpiCaptureRepository<T extends VpiCaptureBase>
-        extends JpaRepository<T, UUID>, JpaSpecificationExecutor<T> {
-
-    /**
-     * Find all captures with specification and pagination
-     */
-    Page<T> findAll(Specification<T> spec, Pageable pageable);
-
-    /**
-     * Find captures by object ID
-     */
-    List<T> findByObjectId(UUID objectId);
-}
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import com.avangrid.gui.avangrid_backend.model.VpiCaptureBase;
+import com.avangrid.gui.avangrid_backend.model.VpiCaptureSummaryRow;
+import com.avangrid.gui.avangrid_backend.model.VpiFacetRow;
+import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.springframework.data.domain.*;
+
+/**
+ * Generic repository for VPI Capture entities across multiple databases
+ * @param <T> Entity type extending VpiCaptureBase
+ */
+@NoRepositoryBean
+public interface VpiCaptureRepository<T extends VpiCaptureBase>
+        extends JpaRepository<T, UUID>, JpaSpecificationExecutor<T> {
+
+    /**
+     * Find all captures with specification and pagination
+     */
+    Page<T> findAll(Specification<T> spec, Pageable pageable);
+
+    /**
+     * Find one slice of captures without the count query
+     * (implemented by {@link VpiRepositoryBase})
+     */
+    Slice<T> findSlice(Specification<T> spec, Pageable pageable);
+
+    /**
+     * Find one slice of search result columns only, without the count query.
+     * When a user entity is given, each row's fullName is looked up in the same statement
+     */
+    Slice<VpiCaptureSummaryRow> findSummarySlice(Specification<T> spec, Pageable pageable,
+                                                 Class<? extends VpiUsersBase> userEntity);
+
+    /**
+     * Stream search result columns through a server-side cursor.
+     * Must be consumed and closed inside a transaction
+     */
+    Stream<VpiCaptureSummaryRow> streamSummaries(Specification<T> spec, Sort sort, int fetchSize);
+
+    /**
+     * Count captures per UTC day, direction, agent, extension and duration bucket,
+     * one grouping set per dimension plus the total
+     */
+    List<VpiFacetRow> findFacetRows(Specification<T> spec, List<Integer> durationEdges);
+
+    /**
+     * Count captures grouped by UTC day
+     */
+    Map<LocalDate, Long> countByDay(Specification<T> spec);
+
+    /**
+     * Count captures, stopping after cap + 1 rows
+     */
+    long countUpTo(Specification<T> spec, int cap);
+
+    /**
+     * Planner row estimate for the specification
+     */
+    long estimateCount(Specification<T> spec);
+
+    /**
+     * EXPLAIN (FORMAT JSON) of the select Hibernate generates for the specification
+     */
+    String explainJson(Specification<T> spec);
+
+    /**
+     * SQL and EXPLAIN (FORMAT JSON) of the page query Hibernate generates for the specification
+     */
+    ExplainedStatement explainPage(Specification<T> spec, Pageable pageable);
+
+    /**
+     * SQL and EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) of the page query; runs the query
+     */
+    ExplainedStatement analyzePage(Specification<T> spec, Pageable pageable);
+
+    /**
+     * Find captures by object ID, loaded read-only
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<T> findByObjectId(UUID objectId);
+}
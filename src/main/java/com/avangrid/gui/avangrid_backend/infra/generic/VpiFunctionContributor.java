@@ -0,0 +1,52 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the SQL functions used by capture specifications with Hibernate.
+ * Discovered through {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class VpiFunctionContributor implements FunctionContributor {
+
+    /**
+     * {@code uuid_eq_any(column, ids)} renders {@code column = any(cast(? as uuid[]))}:
+     * a UUID list bound as one array parameter, so the SQL text does not depend on the list size.
+     */
+    public static final String UUID_EQ_ANY = "uuid_eq_any";
+
+    /**
+     * {@code utc_day(timestamp)} renders {@code cast((? at time zone 'UTC') as date)}:
+     * the UTC calendar day of a timestamp, independent of the session time zone.
+     */
+    public static final String UTC_DAY = "utc_day";
+
+    /**
+     * {@code facet_grouping(a, b, c, d, e)} renders {@code grouping(a, b, c, d, e)}: the bit mask
+     * of the arguments not grouped in the current grouping set, {@code a} being the highest bit.
+     */
+    public static final String FACET_GROUPING = "facet_grouping";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(
+                UUID_EQ_ANY,
+                "(?1 = any(cast(?2 as uuid[])))",
+                functionContributions.getTypeConfiguration()
+                        .getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(
+                UTC_DAY,
+                "cast((?1 at time zone 'UTC') as date)",
+                functionContributions.getTypeConfiguration()
+                        .getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.LOCAL_DATE));
+        functionContributions.getFunctionRegistry().registerPattern(
+                FACET_GROUPING,
+                "grouping(?1, ?2, ?3, ?4, ?5)",
+                functionContributions.getTypeConfiguration()
+                        .getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.INTEGER));
+    }
+}
@@ -0,0 +1,387 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import com.avangrid.gui.avangrid_backend.model.VpiCaptureSummaryRow;
+import com.avangrid.gui.avangrid_backend.model.VpiFacetRow;
+import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaExpression;
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Repository base class shared by every OPCO persistence unit.
+ * Adds read paths that {@link SimpleJpaRepository} does not offer out of the box
+ * @param <T> Entity type
+ * @param <ID> Identifier type
+ */
+public class VpiRepositoryBase<T, ID> extends SimpleJpaRepository<T, ID> {
+
+    private static final String EXPLAIN_JSON = "explain (format json)";
+    private static final String EXPLAIN_ANALYZE_JSON = "explain (analyze, buffers, format json)";
+    private static final ObjectMapper PLAN_MAPPER = new ObjectMapper();
+    // Select items 1-5 of findFacetRows, each on its own, and the grand total
+    private static final String FACET_GROUPING_SETS = " group by grouping sets ((1), (2), (3), (4), (5), ())";
+
+    private final EntityManager entityManager;
+
+    public VpiRepositoryBase(JpaEntityInformation<T, ?> entityInformation,
+                             EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Applies the current {@link QueryGuard} to the queries behind {@code findAll(spec, ...)}.
+     * Entities are loaded read-only: no snapshot is kept for dirty checking and the
+     * session is never flushed for them, even inside a read-write transaction.
+     */
+    @Override
+    protected <S extends T> TypedQuery<S> getQuery(Specification<S> spec, Class<S> domainClass, Sort sort) {
+        return QueryGuard.apply(super.getQuery(spec, domainClass, sort), entityManager)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    /**
+     * Applies the current {@link QueryGuard} to the queries behind {@code count(spec)}.
+     */
+    @Override
+    protected <S extends T> TypedQuery<Long> getCountQuery(Specification<S> spec, Class<S> domainClass) {
+        return QueryGuard.apply(super.getCountQuery(spec, domainClass), entityManager);
+    }
+
+    /**
+     * Reads one slice of rows without issuing a count query.
+     * One extra row is fetched to decide whether a following slice exists.
+     */
+    public Slice<T> findSlice(Specification<T> spec, Pageable pageable) {
+        return readSlice(getQuery(spec, pageable.getSort()), pageable);
+    }
+
+    /**
+     * Reads one slice of search result columns. Only the columns listed in
+     * {@link VpiCaptureSummaryRow#ATTRIBUTES} are selected, no entity is hydrated.
+     * With a user entity, the user's fullName comes from a correlated scalar
+     * subquery on the primary key, so no second round trip is needed.
+     */
+    public Slice<VpiCaptureSummaryRow> findSummarySlice(Specification<T> spec, Pageable pageable,
+                                                        Class<? extends VpiUsersBase> userEntity) {
+        return findProjectedSlice(spec, pageable, VpiCaptureSummaryRow.class,
+                (root, query, cb) -> summarySelections(root, query, cb, userEntity));
+    }
+
+    /**
+     * Streams search result columns in the given order through a forward-only cursor,
+     * {@code fetchSize} rows per round trip. Rows are DTOs, not managed entities, so
+     * memory stays flat however many rows are read. Postgres only honours the fetch
+     * size inside a transaction; the caller must consume and close the stream in one.
+     */
+    public Stream<VpiCaptureSummaryRow> streamSummaries(Specification<T> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<VpiCaptureSummaryRow> query = cb.createQuery(VpiCaptureSummaryRow.class);
+        Root<T> root = applySpecification(spec, query, cb);
+
+        query.select(cb.construct(VpiCaptureSummaryRow.class,
+                summarySelections(root, query, cb, null).toArray(new Selection<?>[0])));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return QueryGuard.apply(entityManager.createQuery(query), entityManager)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Reads one slice of a constructor projection.
+     *
+     * @param projection DTO class with a constructor matching the selections
+     * @param selections Builds the constructor arguments, in order
+     */
+    protected <P> Slice<P> findProjectedSlice(Specification<T> spec, Pageable pageable,
+                                             Class<P> projection, ProjectionSelections<T> selections) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<P> query = cb.createQuery(projection);
+        Root<T> root = applySpecification(spec, query, cb);
+
+        query.select(cb.construct(projection,
+                selections.build(root, query, cb).toArray(new Selection<?>[0])));
+
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        return readSlice(QueryGuard.apply(entityManager.createQuery(query), entityManager), pageable);
+    }
+
+    private List<Selection<?>> summarySelections(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                                 Class<? extends VpiUsersBase> userEntity) {
+        List<Selection<?>> selections = new ArrayList<>();
+        VpiCaptureSummaryRow.ATTRIBUTES.forEach(attribute -> selections.add(root.get(attribute)));
+        selections.add(userEntity == null
+                ? cb.nullLiteral(String.class)
+                : userNameOf(root, query, cb, userEntity));
+        return selections;
+    }
+
+    private Subquery<String> userNameOf(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                        Class<? extends VpiUsersBase> userEntity) {
+        Subquery<String> name = query.subquery(String.class);
+        Root<? extends VpiUsersBase> user = name.from(userEntity);
+        return name.select(user.<String>get("fullName"))
+                .where(cb.equal(user.get("userId"), root.get("userId")));
+    }
+
+    private <R> Slice<R> readSlice(TypedQuery<R> query, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+
+        query.setFirstResult(Math.toIntExact(pageable.getOffset()));
+        query.setMaxResults(pageable.getPageSize() + 1);
+
+        List<R> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<R> content = hasNext
+                ? new ArrayList<>(rows.subList(0, pageable.getPageSize()))
+                : rows;
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * Counts matching captures per UTC day, direction, agent, extension and duration
+     * bucket in one statement. Each dimension is its own grouping set, plus the empty set
+     * for the total, so the rows are the per-dimension counts rather than every
+     * combination of the five. The criteria API has no grouping sets: the select and
+     * filter are rendered from the specification and
+     * {@code group by grouping sets ((1), (2), (3), (4), (5), ())} is appended to the SQL.
+     *
+     * @param durationEdges Ascending bucket upper bounds; bucket {@code i} holds durations
+     *                      below {@code durationEdges[i]}, the last bucket everything above
+     * @return One row per value of each dimension and one total row, see {@link VpiFacetRow}
+     */
+    public List<VpiFacetRow> findFacetRows(Specification<T> spec, List<Integer> durationEdges) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<VpiFacetRow> query = cb.createQuery(VpiFacetRow.class);
+        Root<T> root = applySpecification(spec, query, cb);
+
+        Expression<LocalDate> day = cb.function(VpiFunctionContributor.UTC_DAY, LocalDate.class, root.get("dateAdded"));
+        Path<Boolean> direction = root.get("direction");
+        Path<String> agentId = root.get("agentId");
+        Path<String> extensionNum = root.get("extensionNum");
+        Expression<Integer> durationBucket = durationBucket(root.get("duration"), durationEdges, cb);
+        Expression<Integer> grouping = cb.function(VpiFunctionContributor.FACET_GROUPING, Integer.class,
+                day, direction, agentId, extensionNum, durationBucket);
+
+        query.select(cb.construct(VpiFacetRow.class,
+                day, direction, agentId, extensionNum, durationBucket, grouping, cb.count(root)));
+
+        return ExplainStatementInspector.rewrite(sql -> sql + FACET_GROUPING_SETS,
+                () -> QueryGuard.apply(entityManager.createQuery(query), entityManager).getResultList());
+    }
+
+    private Expression<Integer> durationBucket(Path<Integer> duration, List<Integer> edges, CriteriaBuilder cb) {
+        // Literals, not parameters, so the select and grouping() expressions render identically
+        CriteriaBuilder.Case<Integer> bucket = cb.<Integer>selectCase()
+                .when(cb.isNull(duration), cb.literal(-1));
+        for (int i = 0; i < edges.size(); i++) {
+            bucket = bucket.when(cb.lessThan(duration, cb.literal(edges.get(i))), cb.literal(i));
+        }
+        return bucket.otherwise(cb.literal(edges.size()));
+    }
+
+    /**
+     * Counts matching rows per UTC day in one grouped query.
+     *
+     * @return Count by day; days without matching rows are absent
+     */
+    public Map<LocalDate, Long> countByDay(Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = applySpecification(spec, query, cb);
+
+        Expression<LocalDate> day = cb.function(VpiFunctionContributor.UTC_DAY, LocalDate.class, root.get("dateAdded"));
+        query.multiselect(day, cb.count(root)).groupBy(day);
+
+        Map<LocalDate, Long> counts = new HashMap<>();
+        for (Object[] row : QueryGuard.apply(entityManager.createQuery(query), entityManager).getResultList()) {
+            counts.put((LocalDate) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Counts matching rows but stops scanning after {@code cap + 1} rows. The rows are
+     * counted in the database, {@code select count(*) from (select 1 ... fetch first cap + 1 rows)},
+     * so only the count crosses the wire.
+     *
+     * @return Exact count when it is at most {@code cap}, otherwise {@code cap + 1}
+     */
+    public long countUpTo(Specification<T> spec, int cap) {
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        JpaCriteriaQuery<Long> query = cb.createQuery(Long.class);
+
+        JpaSubQuery<Integer> limited = query.subquery(Integer.class);
+        Root<T> root = limited.from(getDomainClass());
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            limited.where(predicate);
+        }
+        // Columns of a derived table need an alias
+        JpaExpression<Integer> one = cb.literal(1);
+        one.alias("one");
+        limited.select(one).fetch(cap + 1);
+
+        query.from(limited);
+        query.select(cb.count());
+
+        return QueryGuard.apply(entityManager.createQuery(query), entityManager).getSingleResult();
+    }
+
+    /**
+     * Returns the planner's row estimate for the specification without running it.
+     * The select is explained as Hibernate renders it and the top node's
+     * {@code Plan Rows} is read from the JSON plan.
+     */
+    public long estimateCount(Specification<T> spec) {
+        String plan = explainJson(spec);
+        try {
+            JsonNode root = PLAN_MAPPER.readTree(plan);
+            return root.path(0).path("Plan").path("Plan Rows").asLong(0);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable query plan", e);
+        }
+    }
+
+    /**
+     * Runs {@code EXPLAIN (FORMAT JSON)} for the specification's select.
+     *
+     * @return Plan JSON as returned by Postgres
+     */
+    public String explainJson(Specification<T> spec) {
+        return explain(EXPLAIN_JSON, spec);
+    }
+
+    /**
+     * Runs {@code EXPLAIN (FORMAT JSON)} for the page query of a search: the
+     * specification's filter with the page's sort and limit, so the plan shows whether
+     * an index serves both the predicate and the order. The selected columns differ
+     * from the real page query, which does not affect index choice.
+     *
+     * @return Rendered SQL and plan JSON
+     */
+    public ExplainedStatement explainPage(Specification<T> spec, Pageable pageable) {
+        return explainPage(EXPLAIN_JSON, spec, pageable);
+    }
+
+    /**
+     * Runs {@code EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON)} for the page query of a search.
+     * The query is executed; its rows are discarded by Postgres.
+     *
+     * @return Rendered SQL and plan JSON with actual times and buffer counts
+     */
+    public ExplainedStatement analyzePage(Specification<T> spec, Pageable pageable) {
+        return explainPage(EXPLAIN_ANALYZE_JSON, spec, pageable);
+    }
+
+    /**
+     * Runs {@code EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON)} for a native statement as
+     * Hibernate rendered it, binding its {@code ?} placeholders in order.
+     *
+     * @param sql Rendered SQL, e.g. collected by {@link ExplainStatementInspector#record}
+     * @param parameters Values of the placeholders, in order
+     * @return Plan JSON with actual times and buffer counts
+     */
+    public String analyzeNative(String sql, List<?> parameters) {
+        Query query = entityManager.createNativeQuery(EXPLAIN_ANALYZE_JSON + " " + sql);
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+
+        List<?> rows = QueryGuard.apply(query, entityManager).getResultList();
+        return rows.stream().map(String::valueOf).collect(Collectors.joining("\n"));
+    }
+
+    private ExplainedStatement explainPage(String explainClause, Specification<T> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        Root<T> root = applySpecification(spec, query, cb);
+        query.select(cb.literal("plan"));
+
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        List<String> rendered = new ArrayList<>();
+        List<String> rows = ExplainStatementInspector.explain(explainClause,
+                () -> QueryGuard.apply(entityManager.createQuery(query), entityManager)
+                        .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                        .setMaxResults(pageable.getPageSize() + 1)
+                        .getResultList(),
+                rendered);
+
+        return new ExplainedStatement(rendered.isEmpty() ? null : rendered.getLast(), String.join("\n", rows));
+    }
+
+    /**
+     * Runs the specification's select prefixed by the given EXPLAIN clause.
+     * The single selected string column receives the plan text.
+     */
+    protected String explain(String explainClause, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        applySpecification(spec, query, cb);
+        query.select(cb.literal("plan"));
+
+        List<String> rows = ExplainStatementInspector.explain(explainClause,
+                () -> QueryGuard.apply(entityManager.createQuery(query), entityManager).getResultList());
+
+        return String.join("\n", rows);
+    }
+
+    /**
+     * Builds the selections of a projection query.
+     */
+    @FunctionalInterface
+    protected interface ProjectionSelections<T> {
+        List<Selection<?>> build(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb);
+    }
+
+    private Root<T> applySpecification(Specification<T> spec, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        Root<T> root = query.from(getDomainClass());
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return root;
+    }
+}
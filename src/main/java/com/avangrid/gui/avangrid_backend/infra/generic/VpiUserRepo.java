@@ -1,40 +1,50 @@
-package com.avangrid.gui.avangrid_backend.infra.generic;
-
-
-import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.NoRepositoryBean;
-import org.springframework.data.repository.query.Param;
-
-import java.util.Collection;
-import java.util.List;
-import java.util.UUID;
-
-/**
- * Generic repository for VPI Users entities across multiple databases
- * @param <U> User entity type extending VpiUsersBase
- */
-@NoRepositoryBean
-public interface VpiUserRepo<U extends VpiUsersBase>
-        extends JpaRepository<U, UUID> {
-
-    /**
-     * Batch fetch users by IDs
-     * Used for enriching capture records
-     */
-    List<U> findByUserIdIn(Collection<UUID> userIds);
-
-    @Query(
-            value = """
-            select distinct u.userid
-            from :#{#entityName.replace('VpiUsers', 'vpi')}.vpusers u
-            where lower(u.fullname) like any (
-                select concat('%', lower(n), '%')
-                from unnest(cast(:names as text[])) as n
-            )
-        """,
-            nativeQuery = true
-    )
-    List<UUID> findUserIdsByFullNameContainsAny(@Param("names") String[] names);
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+
+import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Generic repository for VPI Users entities across multiple databases
+ * @param <U> User entity type extending VpiUsersBase
+ */
+@NoRepositoryBean
+public interface VpiUserRepo<U extends VpiUsersBase>
+        extends JpaRepository<U, UUID> {
+
+    /**
+     * Batch fetch users by IDs, loaded read-only
+     * Used for enriching capture records
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<U> findByUserIdIn(Collection<UUID> userIds);
+
+    @Query(
+            value = """
+            select distinct u.userid
+            from :#{#entityName.replace('VpiUsers', 'vpi')}.vpusers u
+            where lower(u.fullname) like any (
+                select concat('%', lower(n), '%')
+                from unnest(cast(:names as text[])) as n
+            )
+        """,
+            nativeQuery = true
+    )
+    List<UUID> findUserIdsByFullNameContainsAny(@Param("names") String[] names);
+
+    /**
+     * EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) of a rendered native statement
+     * (implemented by {@link VpiRepositoryBase}); runs the statement
+     */
+    String analyzeNative(String sql, List<?> parameters);
 }
\ No newline at end of file
@@ -1,12 +1,12 @@
-package com.avangrid.gui.avangrid_backend.infra.nyseg.entity;
-
-import com.avangrid.gui.avangrid_backend.model.VpiCaptureBase;
-import jakarta.persistence.*;
-import org.hibernate.annotations.Immutable;
-
-@Entity
-@Table(name = "vpvoiceobjects", schema = "vpicapturevoice")
-@Immutable
-public class VpiCaptureNyseg extends VpiCaptureBase {
-
-}
+package com.avangrid.gui.avangrid_backend.infra.nyseg.entity;
+
+import com.avangrid.gui.avangrid_backend.model.VpiCaptureBase;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+@Entity
+@Table(name = "vpvoiceobjects", schema = "vpicapturevoice")
+@Immutable
+public class VpiCaptureNyseg extends VpiCaptureBase {
+
+}
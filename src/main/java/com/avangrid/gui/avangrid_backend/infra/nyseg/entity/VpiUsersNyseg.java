@@ -1,15 +1,15 @@
-package com.avangrid.gui.avangrid_backend.infra.nyseg.entity;
-
-import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
-
-import jakarta.persistence.Entity;
-import jakarta.persistence.Table;
-import org.hibernate.annotations.Immutable;
-
-
-@Entity
-@Table(name = "vpUsers", schema = "vpicore")
-@Immutable
-public class VpiUsersNyseg extends VpiUsersBase {
-
+package com.avangrid.gui.avangrid_backend.infra.nyseg.entity;
+
+import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+
+@Entity
+@Table(name = "vpUsers", schema = "vpicore")
+@Immutable
+public class VpiUsersNyseg extends VpiUsersBase {
+
 }
\ No newline at end of file
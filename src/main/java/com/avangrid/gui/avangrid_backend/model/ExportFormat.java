@@ -0,0 +1,59 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import com.avangrid.gui.avangrid_backend.exception.InvalidRequestException;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Output format of a search export. CBOR and Smile write one indefinite-length array
+ * of the NDJSON row objects.
+ */
+@Getter
+public enum ExportFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv"), "csv"),
+    CBOR(ResponseFormat.CBOR.getMediaType(), "cbor"),
+    SMILE(ResponseFormat.SMILE.getMediaType(), "sml");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Parses a format name, ignoring case.
+     *
+     * @throws InvalidRequestException if the format is unknown
+     */
+    public static ExportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(
+                    "Invalid export format '" + value + "'. Allowed values: ndjson, csv, cbor, smile");
+        }
+    }
+
+    /**
+     * Picks the format from an Accept header when no format is named; a wildcard
+     * means NDJSON.
+     *
+     * @param accept Accept header (nullable)
+     * @return Negotiated format, NDJSON when none is acceptable
+     */
+    public static ExportFormat fromAccept(String accept) {
+        for (MediaType type : ResponseFormat.acceptedTypes(accept)) {
+            for (ExportFormat format : values()) {
+                if (type.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return NDJSON;
+    }
+}
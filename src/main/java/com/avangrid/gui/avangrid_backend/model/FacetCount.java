@@ -0,0 +1,13 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCount {
+    private String value;
+    private long count;
+}
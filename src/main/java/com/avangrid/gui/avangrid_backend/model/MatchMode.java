@@ -0,0 +1,15 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+/**
+ * How a search filter value is matched against its column.
+ *
+ * <p>EXACT and PREFIX compile to index-friendly predicates ({@code =}/{@code IN},
+ * {@code LIKE 'v%'}, numeric equality or ranges for channelNum) and are case sensitive.
+ * PREFIX on text columns needs a {@code text_pattern_ops} index (or C collation) to use
+ * the index. CONTAINS is the case-insensitive {@code LIKE '%v%'} scan and must be asked for.
+ */
+public enum MatchMode {
+    EXACT,
+    PREFIX,
+    CONTAINS
+}
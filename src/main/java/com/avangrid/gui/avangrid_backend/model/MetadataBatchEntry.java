@@ -0,0 +1,16 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetadataBatchEntry {
+    private String opco;
+    private boolean found;
+    private Map<String, Object> metadata;   // null when not found
+}
@@ -0,0 +1,15 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class MetadataBatchItem {
+    @NotNull
+    private UUID id;
+    @NotBlank
+    private String opco;
+}
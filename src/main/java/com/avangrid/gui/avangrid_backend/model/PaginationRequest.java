@@ -1,13 +1,18 @@
-package com.avangrid.gui.avangrid_backend.model;
-
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Data;
-
-@JsonIgnoreProperties(ignoreUnknown = false)
-@Data
-public class PaginationRequest {
-    @JsonProperty(required = true)
-    private int pageNumber;
-    private int pageSize;
-}
+package com.avangrid.gui.avangrid_backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+
+@JsonIgnoreProperties(ignoreUnknown = false)
+@Data
+public class PaginationRequest {
+    @JsonProperty(required = true)
+    private int pageNumber;
+    private int pageSize;
+    private String cursor;   // opaque keyset position returned as nextCursor by the previous page
+    private TotalType totalMode;   // defaults to EXACT, or NONE when paging by cursor
+    private SortField sortBy;   // dateAdded, startTime or duration; defaults to dateAdded
+    private Sort.Direction sortDirection;   // ASC or DESC; defaults to DESC
+}
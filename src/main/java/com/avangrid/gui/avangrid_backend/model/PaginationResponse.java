@@ -1,11 +1,14 @@
-package com.avangrid.gui.avangrid_backend.model;
-
-import lombok.Data;
-
-@Data
-public class PaginationResponse {
-    private int pageNumber;
-    private int pageSize;
-    private long totalRecords;
-    private int totalPages;
-}
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.Data;
+
+@Data
+public class PaginationResponse {
+    private int pageNumber;
+    private int pageSize;
+    private Long totalRecords;   // null when totalType is NONE
+    private Integer totalPages;
+    private TotalType totalType;
+    private boolean hasNext;
+    private String nextCursor;   // null on the last page
+}
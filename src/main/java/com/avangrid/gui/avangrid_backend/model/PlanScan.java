@@ -0,0 +1,18 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One scan node of a query plan.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanScan {
+    private String nodeType;        // e.g. Seq Scan, Index Scan, Bitmap Heap Scan
+    private String relation;
+    private String index;           // null for scans that use no index
+    private long estimatedRows;
+}
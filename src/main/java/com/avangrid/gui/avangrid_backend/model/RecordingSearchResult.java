@@ -1,10 +1,10 @@
-package com.avangrid.gui.avangrid_backend.model;
-
-import lombok.Data;
-
-@Data
-public class RecordingSearchResult {
-    private String blobName;
-    private boolean multipleFound;
-}
-
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.Data;
+
+@Data
+public class RecordingSearchResult {
+    private String blobName;
+    private boolean multipleFound;
+}
+
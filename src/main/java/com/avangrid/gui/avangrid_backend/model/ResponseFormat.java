@@ -0,0 +1,66 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.Getter;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encoding of a response body. CBOR and Smile carry the same DTOs as JSON; UUIDs
+ * are written as 16-byte binary values instead of 36-character strings.
+ */
+@Getter
+public enum ResponseFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.parseMediaType("application/cbor")),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"));
+
+    public static final String CBOR_VALUE = "application/cbor";
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private final MediaType mediaType;
+
+    ResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Picks the format from an Accept header: the acceptable type with the highest
+     * quality wins, JSON when a wildcard matches several.
+     *
+     * @param accept Accept header (nullable)
+     * @return Negotiated format, JSON when nothing else is asked for
+     */
+    public static ResponseFormat negotiate(String accept) {
+        for (MediaType type : acceptedTypes(accept)) {
+            for (ResponseFormat format : values()) {
+                if (type.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Parses an Accept header into its acceptable types, highest quality first.
+     *
+     * @param accept Accept header (nullable)
+     * @return Acceptable types; empty when the header is missing or malformed
+     */
+    static List<MediaType> acceptedTypes(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return List.of();
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .filter(type -> type.getQualityValue() > 0)
+                    .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                    .toList();
+        } catch (InvalidMediaTypeException e) {
+            return List.of();
+        }
+    }
+}
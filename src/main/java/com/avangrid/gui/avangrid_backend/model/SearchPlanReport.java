@@ -0,0 +1,20 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Planner view of the search statement for one canonical filter shape on one OPCO.
+ */
+@Data
+public class SearchPlanReport {
+    private String shape;                   // date-only, name, extension, channel, ani, agent, objectIds
+    private String sql;                     // as rendered by Hibernate, with ? placeholders
+    private Long estimatedRows;             // top plan node
+    private Double totalCost;               // top plan node
+    private boolean sequentialScan;         // some relation is read by Seq Scan
+    private List<String> indexes;           // distinct indexes used, in plan order
+    private List<PlanScan> scans;
+    private String error;                   // set instead of the plan when EXPLAIN failed
+}
@@ -0,0 +1,24 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A search or user name lookup that took longer than {@code search.slow-queries.threshold}.
+ */
+@Data
+public class SlowQuerySample {
+    private Instant capturedAt;
+    private String kind;                // search, user-ids-by-name, user-names-by-id
+    private String opco;
+    private long elapsedMs;             // including the wait for a bulkhead slot
+    private Object shape;               // canonical filter shape, carrying the bound values
+    private List<String> statements;    // SQL rendered on the calling thread, with ? placeholders
+    private String error;               // set when the call failed, e.g. on its statement timeout
+    private String planStatus;          // pending, done, rate-limited, unavailable, failed
+    private String planSql;             // statement the plan belongs to
+    private JsonNode plan;              // EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON)
+}
@@ -0,0 +1,51 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+/**
+ * Columns a search can be ordered by. {@code objectId} always breaks ties, in the same
+ * direction, so keyset cursors stay stable. NULLs sort as Postgres sorts them by default:
+ * last ascending, first descending.
+ *
+ * <p>Each order is meant to be served by a btree on the column plus {@code objectid},
+ * scanned forwards or backwards; without it Postgres sorts every matching row to find
+ * the first page:
+ * <ul>
+ *   <li>DATE_ADDED: {@code create index on vpicapturevoice.vpvoiceobjects (dateadded, objectid)}</li>
+ *   <li>START_TIME: {@code create index on vpicapturevoice.vpvoiceobjects (starttime, objectid)}</li>
+ *   <li>DURATION: {@code create index on vpicapturevoice.vpvoiceobjects (duration, objectid)};
+ *       also serves the {@code durationMin}/{@code durationMax} range</li>
+ * </ul>
+ * With a narrow date range the planner may still prefer the dateadded index and a
+ * top-N sort, which is cheap there; {@code /actuator/searchplans} shows what it picks.
+ */
+@Getter
+public enum SortField {
+    @JsonProperty("dateAdded")
+    DATE_ADDED("dateAdded"),
+    @JsonProperty("startTime")
+    START_TIME("startTime"),
+    @JsonProperty("duration")
+    DURATION("duration");
+
+    private final String property;
+
+    SortField(String property) {
+        this.property = property;
+    }
+
+    /**
+     * Finds the field sorting by the given entity property.
+     *
+     * @throws IllegalArgumentException if the property is not a sort field
+     */
+    public static SortField ofProperty(String property) {
+        for (SortField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Not a sort field: " + property);
+    }
+}
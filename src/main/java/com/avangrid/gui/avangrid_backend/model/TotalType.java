@@ -0,0 +1,11 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+/**
+ * How the total of a search is computed (request) or how it was computed (response).
+ */
+public enum TotalType {
+    EXACT,      // full COUNT(*)
+    CAPPED,     // counted up to the configured cap; totalRecords is a lower bound
+    ESTIMATED,  // planner row estimate
+    NONE        // no total, hasNext only
+}
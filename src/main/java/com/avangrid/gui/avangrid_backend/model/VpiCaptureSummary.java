@@ -0,0 +1,24 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Columns of a capture shown in search results ({@link VpiMetadata}).
+ */
+public interface VpiCaptureSummary {
+
+    UUID getObjectId();
+    OffsetDateTime getDateAdded();
+    OffsetDateTime getStartTime();
+    Integer getDuration();
+    String getTags();
+    String getChannelName();
+    String getCallId();
+    UUID getUserId();
+    String getAgentId();
+    String getExtensionNum();
+    Short getChannelNum();
+    String getAnialidigits();
+    Boolean getDirection();
+}
@@ -0,0 +1,37 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Constructor projection of {@link VpiCaptureBase} holding only the search result columns.
+ * Constructor argument order follows {@link #ATTRIBUTES}, followed by the user's full name
+ * looked up in the same statement (null when not joined).
+ */
+@Getter
+@AllArgsConstructor
+public class VpiCaptureSummaryRow implements VpiCaptureSummary {
+
+    public static final List<String> ATTRIBUTES = List.of(
+            "objectId", "dateAdded", "startTime", "duration", "tags", "channelName", "callId",
+            "userId", "agentId", "extensionNum", "channelNum", "anialidigits", "direction");
+
+    private final UUID objectId;
+    private final OffsetDateTime dateAdded;
+    private final OffsetDateTime startTime;
+    private final Integer duration;
+    private final String tags;
+    private final String channelName;
+    private final String callId;
+    private final UUID userId;
+    private final String agentId;
+    private final String extensionNum;
+    private final Short channelNum;
+    private final String anialidigits;
+    private final Boolean direction;
+    private final String userName;
+}
@@ -0,0 +1,34 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * One grouping set row of the facet query: the count of recordings sharing one value
+ * of a single dimension, or, when it is grouped by no dimension, the total. Columns of
+ * the other dimensions are null; {@link #isGroupedBy} tells those apart from a null value.
+ */
+@Getter
+@AllArgsConstructor
+public class VpiFacetRow {
+
+    /**
+     * Facet dimensions, in the order of the {@code grouping()} arguments.
+     */
+    public enum Dimension { DAY, DIRECTION, AGENT_ID, EXTENSION_NUM, DURATION_BUCKET }
+
+    private final LocalDate day;
+    private final Boolean direction;
+    private final String agentId;
+    private final String extensionNum;
+    private final Integer durationBucket;   // index into the configured duration edges, -1 when unknown
+    private final Integer grouping;         // grouping() mask, a set bit per dimension not grouped by
+    private final Long count;
+
+    public boolean isGroupedBy(Dimension dimension) {
+        int bit = 1 << (Dimension.values().length - 1 - dimension.ordinal());
+        return (grouping & bit) == 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class VpiFacetsResponse {
+    private long total;
+    private List<FacetCount> day;            // yyyy-MM-dd, ascending
+    private List<FacetCount> direction;
+    private List<FacetCount> agentId;        // most frequent first, top values only
+    private List<FacetCount> extensionNum;   // most frequent first, top values only
+    private List<FacetCount> duration;       // histogram buckets in seconds, e.g. "30-60", "3600+"
+    private String status;
+    private String message;
+}
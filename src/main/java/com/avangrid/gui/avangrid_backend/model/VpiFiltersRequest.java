@@ -1,29 +1,61 @@
-package com.avangrid.gui.avangrid_backend.model;
-
-import java.util.List;
-import java.util.UUID;
-
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Data;
-
-@JsonIgnoreProperties(ignoreUnknown = false)
-@Data
-public class VpiFiltersRequest {
-
-    @JsonProperty(value = "extensionNum",required = true)
-    private List<String> extensionNum;
-    @JsonProperty(value = "channelNum",required = true)
-    private List<String> channelNum;
-    @JsonProperty(value = "aniAliDigits",required = true)
-    private List<String> aniAliDigits;
-    @JsonProperty(value = "name",required = true)
-    private List<String> name;
-    @JsonProperty(value = "objectIDs",required = true)
-    private List<UUID> objectIDs;
-    @JsonProperty(value = "direction",required = true)
-    private Boolean direction;
-    @JsonProperty(value = "agentID",required = true)
-    private List<String> agentID;
-
-}
+package com.avangrid.gui.avangrid_backend.model;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+@JsonIgnoreProperties(ignoreUnknown = false)
+@Data
+public class VpiFiltersRequest {
+
+    @JsonProperty(value = "extensionNum",required = true)
+    private List<String> extensionNum;
+    @JsonProperty(value = "channelNum",required = true)
+    private List<String> channelNum;
+    @JsonProperty(value = "aniAliDigits",required = true)
+    private List<String> aniAliDigits;
+    @JsonProperty(value = "name",required = true)
+    private List<String> name;
+    @JsonProperty(value = "objectIDs",required = true)
+    private List<UUID> objectIDs;
+    @JsonProperty(value = "direction",required = true)
+    private Boolean direction;
+    @JsonProperty(value = "agentID",required = true)
+    private List<String> agentID;
+
+    // Optional duration range in seconds, both ends inclusive
+    @JsonProperty("durationMin")
+    private Integer durationMin;
+    @JsonProperty("durationMax")
+    private Integer durationMax;
+
+    // Optional match modes; EXACT when absent
+    @JsonProperty("extensionNumMatch")
+    private MatchMode extensionNumMatch;
+    @JsonProperty("channelNumMatch")
+    private MatchMode channelNumMatch;
+    @JsonProperty("aniAliDigitsMatch")
+    private MatchMode aniAliDigitsMatch;
+    @JsonProperty("agentIDMatch")
+    private MatchMode agentIDMatch;
+
+    public MatchMode extensionNumMode() {
+        return extensionNumMatch != null ? extensionNumMatch : MatchMode.EXACT;
+    }
+
+    public MatchMode channelNumMode() {
+        return channelNumMatch != null ? channelNumMatch : MatchMode.EXACT;
+    }
+
+    public MatchMode aniAliDigitsMode() {
+        return aniAliDigitsMatch != null ? aniAliDigitsMatch : MatchMode.EXACT;
+    }
+
+    public MatchMode agentIDMode() {
+        return agentIDMatch != null ? agentIDMatch : MatchMode.EXACT;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.avangrid.gui.avangrid_backend.model;
+
+import lombok.Data;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+public class VpiMetadataBatchResponse {
+    private Map<UUID, MetadataBatchEntry> results;   // keyed by id, in request order
+    private String status;
+    private String message;
+}
@@ -1,203 +1,475 @@
-package com.avangrid.gui.avangrid_backend.service;
-
-import com.avangrid.gui.avangrid_backend.model.VpiFiltersRequest;
-import org.springframework.data.jpa.domain.Specification;
-
-import jakarta.persistence.criteria.*;
-import java.time.OffsetDateTime;
-import java.util.*;
-
-public final class CaptureSpecifications {
-
-    private CaptureSpecifications() {}
-
-    /* ===========================================================
-       DATE RANGE (OffsetDateTime)
-    =========================================================== */
-
-    public static <T> Specification<T> dateBetween(
-            String field,
-            OffsetDateTime from,
-            OffsetDateTime to
-    ) {
-        return (root, query, cb) -> {
-            if (from == null && to == null) {
-                return cb.conjunction();
-            }
-
-            Path<OffsetDateTime> path = root.get(field);
-
-            if (from != null && to != null) {
-                return cb.between(path, from, to);
-            }
-            if (from != null) {
-                return cb.greaterThanOrEqualTo(path, from);
-            }
-            return cb.lessThanOrEqualTo(path, to);
-        };
-    }
-
-    /* ===========================================================
-       OBJECT ID (UUID IN)
-    =========================================================== */
-
-    public static <T> Specification<T> objectIdsExactAny(
-            String field,
-            List<UUID> objectIds
-    ) {
-        return (root, query, cb) -> {
-            List<UUID> cleaned = cleanUuidList(objectIds);
-            if (cleaned.isEmpty()) {
-                return cb.conjunction();
-            }
-
-            CriteriaBuilder.In<UUID> in = cb.in(root.get(field));
-            cleaned.forEach(in::value);
-            return in;
-        };
-    }
-
-    /* ===========================================================
-       DIRECTION (BOOLEAN)
-    =========================================================== */
-
-    public static <T> Specification<T> directionExact(
-            String field,
-            Boolean direction
-    ) {
-        return (root, query, cb) -> {
-            if (direction == null) {
-                return cb.conjunction();
-            }
-            return cb.equal(root.get(field), direction);
-        };
-    }
-
-    /* ===========================================================
-       STRING CONTAINS (LIKE)
-    =========================================================== */
-
-    public static <T> Specification<T> containsAny(
-            String field,
-            List<String> values
-    ) {
-        return (root, query, cb) -> {
-            List<String> cleaned = cleanStringList(values);
-            if (cleaned.isEmpty()) {
-                return cb.conjunction();
-            }
-
-            Expression<String> column = cb.lower(root.get(field));
-
-            List<Predicate> predicates = new ArrayList<>();
-            for (String value : cleaned) {
-                predicates.add(cb.like(column, "%" + value + "%"));
-            }
-
-            return cb.and(
-                    cb.isNotNull(root.get(field)), // ⭐ IMPORTANT
-                    cb.or(predicates.toArray(new Predicate[0]))
-            );
-        };
-    }
-
-
-    /* ===========================================================
-       INTEGER CONTAINS (channelNum)
-    =========================================================== */
-
-    public static <T> Specification<T> channelNumContainsAny(
-            String field,
-            List<String> values
-    ) {
-        return (root, query, cb) -> {
-            List<String> cleaned = cleanStringList(values);
-            if (cleaned.isEmpty()) {
-                return cb.conjunction();
-            }
-
-            Expression<String> column = root.get(field).as(String.class);
-            List<Predicate> predicates = new ArrayList<>();
-
-            for (String value : cleaned) {
-                predicates.add(cb.like(column, "%" + value + "%"));
-            }
-
-            return cb.or(predicates.toArray(new Predicate[0]));
-        };
-    }
-
-    public static <T> Specification<T> userIdsIn(
-            String field,
-            Set<UUID> userIds) {
-
-        return (root, query, cb) -> {
-            if (userIds == null || userIds.isEmpty()) {
-                return cb.conjunction();
-            }
-            CriteriaBuilder.In<UUID> in = cb.in(root.get(field));
-            userIds.forEach(in::value);
-            return in;
-        };
-    }
-
-
-    /* ===========================================================
-       BUILDER (NO JOINS)
-    =========================================================== */
-
-    public static <T> Specification<T> build(
-            OffsetDateTime from,
-            OffsetDateTime to,
-            VpiFiltersRequest filters,
-            Set<UUID> matchedUserIds
-
-    ) {
-        Specification<T> spec =
-                Specification.where(dateBetween("dateAdded", from, to));
-
-        if (filters == null) {
-            return spec;
-        }
-
-        if (matchedUserIds != null && !matchedUserIds.isEmpty()) {
-            spec = spec.and(userIdsIn("userId", matchedUserIds));
-        }
-
-        return spec
-                .and(objectIdsExactAny("objectId", filters.getObjectIDs()))
-                .and(directionExact("direction", filters.getDirection()))
-                .and(containsAny("extensionNum", filters.getExtensionNum()))
-                .and(channelNumContainsAny("channelNum", filters.getChannelNum()))
-                .and(containsAny("anialidigits", filters.getAniAliDigits()))
-                .and(containsAny("agentId", filters.getAgentID()));
-
-
-    }
-
-    /* ===========================================================
-       CLEANERS
-    =========================================================== */
-
-    private static List<String> cleanStringList(List<String> input) {
-        if (input == null) return Collections.emptyList();
-
-        List<String> cleaned = new ArrayList<>();
-        for (String value : input) {
-            if (value != null && !value.trim().isEmpty()) {
-                cleaned.add(value.trim().toLowerCase());
-            }
-        }
-        return cleaned;
-    }
-
-    private static List<UUID> cleanUuidList(List<UUID> input) {
-        if (input == null) return Collections.emptyList();
-
-        List<UUID> cleaned = new ArrayList<>();
-        for (UUID value : input) {
-            if (value != null) cleaned.add(value);
-        }
-        return cleaned;
-    }
-}
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.infra.generic.VpiFunctionContributor;
+import com.avangrid.gui.avangrid_backend.model.MatchMode;
+import com.avangrid.gui.avangrid_backend.model.VpiFiltersRequest;
+import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.*;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+public final class CaptureSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private CaptureSpecifications() {}
+
+    /* ===========================================================
+       DATE RANGE (OffsetDateTime)
+    =========================================================== */
+
+    public static <T> Specification<T> dateBetween(
+            String field,
+            OffsetDateTime from,
+            OffsetDateTime to
+    ) {
+        return (root, query, cb) -> {
+            if (from == null && to == null) {
+                return cb.conjunction();
+            }
+
+            Path<OffsetDateTime> path = root.get(field);
+
+            if (from != null && to != null) {
+                return cb.between(path, from, to);
+            }
+            if (from != null) {
+                return cb.greaterThanOrEqualTo(path, from);
+            }
+            return cb.lessThanOrEqualTo(path, to);
+        };
+    }
+
+    /* ===========================================================
+       OBJECT ID (UUID = ANY ARRAY)
+    =========================================================== */
+
+    public static <T> Specification<T> objectIdsExactAny(
+            String field,
+            List<UUID> objectIds
+    ) {
+        return (root, query, cb) -> {
+            List<UUID> cleaned = cleanUuidList(objectIds);
+            if (cleaned.isEmpty()) {
+                return cb.conjunction();
+            }
+
+            return uuidEqualsAny(root, cb, field, cleaned);
+        };
+    }
+
+    /* ===========================================================
+       DIRECTION (BOOLEAN)
+    =========================================================== */
+
+    public static <T> Specification<T> directionExact(
+            String field,
+            Boolean direction
+    ) {
+        return (root, query, cb) -> {
+            if (direction == null) {
+                return cb.conjunction();
+            }
+            return cb.equal(root.get(field), direction);
+        };
+    }
+
+    /* ===========================================================
+       STRING MATCH (EXACT / PREFIX / CONTAINS)
+    =========================================================== */
+
+    public static <T> Specification<T> matchAny(
+            String field,
+            List<String> values,
+            MatchMode mode
+    ) {
+        return switch (mode) {
+            case EXACT -> equalsAny(field, values);
+            case PREFIX -> startsWithAny(field, values);
+            case CONTAINS -> containsAny(field, values);
+        };
+    }
+
+    public static <T> Specification<T> equalsAny(
+            String field,
+            List<String> values
+    ) {
+        return (root, query, cb) -> {
+            List<String> cleaned = trimList(values);
+            if (cleaned.isEmpty()) {
+                return cb.conjunction();
+            }
+            if (cleaned.size() == 1) {
+                return cb.equal(root.get(field), cleaned.getFirst());
+            }
+
+            CriteriaBuilder.In<String> in = cb.in(root.get(field));
+            cleaned.forEach(in::value);
+            return in;
+        };
+    }
+
+    public static <T> Specification<T> startsWithAny(
+            String field,
+            List<String> values
+    ) {
+        return (root, query, cb) -> {
+            List<String> cleaned = trimList(values);
+            if (cleaned.isEmpty()) {
+                return cb.conjunction();
+            }
+
+            Path<String> column = root.get(field);
+
+            List<Predicate> predicates = new ArrayList<>();
+            for (String value : cleaned) {
+                predicates.add(cb.like(column, escapeLike(value) + "%", LIKE_ESCAPE));
+            }
+
+            return cb.or(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static <T> Specification<T> containsAny(
+            String field,
+            List<String> values
+    ) {
+        return (root, query, cb) -> {
+            List<String> cleaned = cleanStringList(values);
+            if (cleaned.isEmpty()) {
+                return cb.conjunction();
+            }
+
+            Expression<String> column = cb.lower(root.get(field));
+
+            List<Predicate> predicates = new ArrayList<>();
+            for (String value : cleaned) {
+                predicates.add(cb.like(column, "%" + value + "%"));
+            }
+
+            return cb.and(
+                    cb.isNotNull(root.get(field)), // ⭐ IMPORTANT
+                    cb.or(predicates.toArray(new Predicate[0]))
+            );
+        };
+    }
+
+
+    /* ===========================================================
+       INTEGER MATCH (channelNum)
+    =========================================================== */
+
+    public static <T> Specification<T> channelNumMatchAny(
+            String field,
+            List<String> values,
+            MatchMode mode
+    ) {
+        return switch (mode) {
+            case EXACT -> channelNumEqualsAny(field, values);
+            case PREFIX -> channelNumStartsWithAny(field, values);
+            case CONTAINS -> channelNumContainsAny(field, values);
+        };
+    }
+
+    public static <T> Specification<T> channelNumEqualsAny(
+            String field,
+            List<String> values
+    ) {
+        return (root, query, cb) -> {
+            List<String> cleaned = trimList(values);
+            if (cleaned.isEmpty()) {
+                return cb.conjunction();
+            }
+
+            List<Short> numbers = new ArrayList<>();
+            for (String value : cleaned) {
+                if (isChannelNum(value)) {
+                    numbers.add(Short.valueOf(value));
+                }
+            }
+            if (numbers.isEmpty()) {
+                return cb.disjunction();
+            }
+
+            CriteriaBuilder.In<Short> in = cb.in(root.get(field));
+            numbers.forEach(in::value);
+            return in;
+        };
+    }
+
+    /**
+     * Numeric prefix match as ranges: "12" matches 12, 120..129, 1200..1299, ...
+     */
+    public static <T> Specification<T> channelNumStartsWithAny(
+            String field,
+            List<String> values
+    ) {
+        return (root, query, cb) -> {
+            List<String> cleaned = trimList(values);
+            if (cleaned.isEmpty()) {
+                return cb.conjunction();
+            }
+
+            Path<Short> column = root.get(field);
+
+            List<Predicate> predicates = new ArrayList<>();
+            for (String value : cleaned) {
+                if (!value.matches("\\d+") || (value.length() > 1 && value.startsWith("0"))) {
+                    continue;   // numbers have no leading zeros
+                }
+                long prefix = Long.parseLong(value.length() > 5 ? value.substring(0, 6) : value);
+                if (prefix == 0) {
+                    predicates.add(cb.equal(column, (short) 0));
+                    continue;
+                }
+                for (long scale = 1; prefix * scale <= Short.MAX_VALUE; scale *= 10) {
+                    short low = (short) (prefix * scale);
+                    short high = (short) Math.min(prefix * scale + scale - 1, Short.MAX_VALUE);
+                    predicates.add(low == high ? cb.equal(column, low) : cb.between(column, low, high));
+                }
+            }
+
+            return predicates.isEmpty()
+                    ? cb.disjunction()
+                    : cb.or(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static <T> Specification<T> channelNumContainsAny(
+            String field,
+            List<String> values
+    ) {
+        return (root, query, cb) -> {
+            List<String> cleaned = cleanStringList(values);
+            if (cleaned.isEmpty()) {
+                return cb.conjunction();
+            }
+
+            Expression<String> column = root.get(field).as(String.class);
+            List<Predicate> predicates = new ArrayList<>();
+
+            for (String value : cleaned) {
+                predicates.add(cb.like(column, "%" + value + "%"));
+            }
+
+            return cb.or(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static <T> Specification<T> userIdsIn(
+            String field,
+            Set<UUID> userIds) {
+
+        return (root, query, cb) -> {
+            if (userIds == null || userIds.isEmpty()) {
+                return cb.conjunction();
+            }
+            return uuidEqualsAny(root, cb, field, userIds);
+        };
+    }
+
+    /**
+     * {@code field = any(cast(? as uuid[]))} with the values bound as one array,
+     * so the SQL text (and its cached plans) is the same whatever the list size.
+     * Falls back to an IN list for non-Hibernate criteria builders.
+     */
+    private static <T> Predicate uuidEqualsAny(
+            Root<T> root,
+            CriteriaBuilder cb,
+            String field,
+            Collection<UUID> values
+    ) {
+        if (cb instanceof HibernateCriteriaBuilder hcb) {
+            Expression<UUID[]> ids = hcb.value(values.toArray(new UUID[0]));
+            return cb.isTrue(cb.function(
+                    VpiFunctionContributor.UUID_EQ_ANY, Boolean.class, root.get(field), ids));
+        }
+
+        CriteriaBuilder.In<UUID> in = cb.in(root.get(field));
+        values.forEach(in::value);
+        return in;
+    }
+
+    /* ===========================================================
+       USER NAME CONTAINS (SEMI-JOIN)
+    =========================================================== */
+
+    public static <T> Specification<T> userNameContainsAny(
+            String field,
+            Class<? extends VpiUsersBase> userEntity,
+            List<String> names
+    ) {
+        return (root, query, cb) -> {
+            List<String> cleaned = cleanStringList(names);
+            if (cleaned.isEmpty()) {
+                return cb.conjunction();
+            }
+
+            Subquery<Integer> users = query.subquery(Integer.class);
+            Root<? extends VpiUsersBase> user = users.from(userEntity);
+            Expression<String> fullName = cb.lower(user.get("fullName"));
+
+            List<Predicate> predicates = new ArrayList<>();
+            for (String name : cleaned) {
+                predicates.add(cb.like(fullName, "%" + name + "%"));
+            }
+
+            users.select(cb.literal(1)).where(
+                    cb.equal(user.get("userId"), root.get(field)),
+                    cb.or(predicates.toArray(new Predicate[0]))
+            );
+            return cb.exists(users);
+        };
+    }
+
+    /* ===========================================================
+       KEYSET SEEK (sort field, objectId; same direction)
+    =========================================================== */
+
+    /**
+     * Rows after the cursor in its order. NULL sort values are ordered as Postgres
+     * does by default: after every value ascending, before every value descending.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Specification<T> seekAfter(
+            String idField,
+            SearchCursor cursor
+    ) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+
+            Path<Comparable> column = root.get(cursor.getSort().getField().getProperty());
+            Path<UUID> id = root.get(idField);
+            Comparable value = cursor.getValue();
+            boolean ascending = cursor.getSort().getDirection().isAscending();
+
+            Predicate idAfter = ascending
+                    ? cb.greaterThan(id, cursor.getObjectId())
+                    : cb.lessThan(id, cursor.getObjectId());
+
+            if (value == null) {
+                Predicate sameNull = cb.and(cb.isNull(column), idAfter);
+                return ascending ? sameNull : cb.or(sameNull, cb.isNotNull(column));
+            }
+
+            Predicate valueAfter = ascending ? cb.greaterThan(column, value) : cb.lessThan(column, value);
+            Predicate seek = cb.or(valueAfter, cb.and(cb.equal(column, value), idAfter));
+            return ascending ? cb.or(seek, cb.isNull(column)) : seek;
+        };
+    }
+
+    /* ===========================================================
+       DURATION RANGE (seconds, inclusive)
+    =========================================================== */
+
+    public static <T> Specification<T> durationBetween(
+            String field,
+            Integer min,
+            Integer max
+    ) {
+        return (root, query, cb) -> {
+            Path<Integer> duration = root.get(field);
+
+            if (min != null && max != null) {
+                return cb.between(duration, min, max);
+            }
+            if (min != null) {
+                return cb.greaterThanOrEqualTo(duration, min);
+            }
+            if (max != null) {
+                return cb.lessThanOrEqualTo(duration, max);
+            }
+            return cb.conjunction();
+        };
+    }
+
+    /* ===========================================================
+       BUILDER (NO JOINS)
+    =========================================================== */
+
+    public static <T> Specification<T> build(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> matchedUserIds
+
+    ) {
+        Specification<T> spec =
+                Specification.where(dateBetween("dateAdded", from, to));
+
+        if (filters == null) {
+            return spec;
+        }
+
+        if (matchedUserIds != null && !matchedUserIds.isEmpty()) {
+            spec = spec.and(userIdsIn("userId", matchedUserIds));
+        }
+
+        return spec
+                .and(objectIdsExactAny("objectId", filters.getObjectIDs()))
+                .and(directionExact("direction", filters.getDirection()))
+                .and(durationBetween("duration", filters.getDurationMin(), filters.getDurationMax()))
+                .and(matchAny("extensionNum", filters.getExtensionNum(), filters.extensionNumMode()))
+                .and(channelNumMatchAny("channelNum", filters.getChannelNum(), filters.channelNumMode()))
+                .and(matchAny("anialidigits", filters.getAniAliDigits(), filters.aniAliDigitsMode()))
+                .and(matchAny("agentId", filters.getAgentID(), filters.agentIDMode()));
+
+
+    }
+
+    /* ===========================================================
+       CLEANERS
+    =========================================================== */
+
+    private static List<String> cleanStringList(List<String> input) {
+        if (input == null) return Collections.emptyList();
+
+        List<String> cleaned = new ArrayList<>();
+        for (String value : input) {
+            if (value != null && !value.trim().isEmpty()) {
+                cleaned.add(value.trim().toLowerCase());
+            }
+        }
+        return cleaned;
+    }
+
+    private static List<String> trimList(List<String> input) {
+        if (input == null) return Collections.emptyList();
+
+        List<String> cleaned = new ArrayList<>();
+        for (String value : input) {
+            if (value != null && !value.trim().isEmpty()) {
+                cleaned.add(value.trim());
+            }
+        }
+        return cleaned;
+    }
+
+    /**
+     * Whether the value is a channel number (digits within the Short range).
+     */
+    public static boolean isChannelNum(String value) {
+        return value.matches("\\d{1,5}") && Integer.parseInt(value) <= Short.MAX_VALUE;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static List<UUID> cleanUuidList(List<UUID> input) {
+        if (input == null) return Collections.emptyList();
+
+        List<UUID> cleaned = new ArrayList<>();
+        for (UUID value : input) {
+            if (value != null) cleaned.add(value);
+        }
+        return cleaned;
+    }
+}
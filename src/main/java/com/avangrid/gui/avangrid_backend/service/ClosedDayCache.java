@@ -0,0 +1,179 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.VpiFacetRow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Long-lived cache for the part of a search that lies in closed days.
+ *
+ * <p>Captures are immutable once written, so everything added before the current
+ * UTC day can no longer change. Counts of single closed days, and result pages and
+ * facet counts that lie entirely before the closed-day boundary, are kept for
+ * {@code search.closed-days.ttl}; only the live window (today) goes to the database.
+ * The boundary lags midnight by {@code search.closed-days.grace} so late writes for
+ * the previous day are still counted live.
+ *
+ * <p>Queries run outside the caches' maps, so a slow count or page never blocks other
+ * entries; concurrent misses on the same key may each run the query. The missing days
+ * of a range are counted together, so a cold range costs one grouped query.
+ *
+ * <p>Hits and misses are published as {@code cache.gets{cache=search.closed.count}},
+ * {@code cache.gets{cache=search.closed.page}} and {@code cache.gets{cache=search.closed.facets}}.
+ */
+@Component
+public class ClosedDayCache {
+
+    private final Cache<SearchShape, Long> counts;
+    private final Cache<PageKey, SearchPage> pages;
+    private final Cache<SearchShape, List<VpiFacetRow>> facets;
+    private final boolean enabled;
+    private final Duration grace;
+
+    public ClosedDayCache(
+            @Value("${search.closed-days.enabled:true}") boolean enabled,
+            @Value("${search.closed-days.grace:1h}") Duration grace,
+            @Value("${search.closed-days.ttl:24h}") Duration ttl,
+            @Value("${search.closed-days.count-max-size:100000}") long countMaxSize,
+            @Value("${search.closed-days.page-max-weight:200000}") long pageMaxWeight,
+            @Value("${search.closed-days.facet-max-weight:200000}") long facetMaxWeight,
+            MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+        this.grace = grace;
+
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(countMaxSize)
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(pageMaxWeight)
+                .weigher((PageKey key, SearchPage page) -> page.getResults().getNumberOfElements() + 1)
+                .recordStats()
+                .build();
+        this.facets = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(facetMaxWeight)
+                .weigher((SearchShape key, List<VpiFacetRow> rows) -> rows.size() + 1)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "search.closed.count");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "search.closed.page");
+        CaffeineCacheMetrics.monitor(meterRegistry, facets, "search.closed.facets");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start of the live window: captures added before it no longer change.
+     *
+     * @return Start of the current UTC day, shifted back by the grace period
+     */
+    public OffsetDateTime boundary() {
+        return OffsetDateTime.now(ZoneOffset.UTC).minus(grace).truncatedTo(ChronoUnit.DAYS);
+    }
+
+    /**
+     * Whether everything up to the given time lies in closed days.
+     *
+     * @param time Latest timestamp a query can return
+     * @return true when caching is enabled and the time is before the boundary
+     */
+    public boolean isClosed(OffsetDateTime time) {
+        return enabled && time.isBefore(boundary());
+    }
+
+    /**
+     * Returns the total of several closed day slices, counting the missing ones in one call.
+     *
+     * @param dayShapes Filter shapes, each with a range within one closed day
+     * @param counter Counts the given (missing) slices; slices it leaves out are cached as zero
+     * @return Sum of the slice counts
+     */
+    public long count(Collection<SearchShape> dayShapes, Function<List<SearchShape>, Map<SearchShape, Long>> counter) {
+        Map<SearchShape, Long> cached = counts.getAllPresent(dayShapes);
+        long total = cached.values().stream().mapToLong(Long::longValue).sum();
+
+        List<SearchShape> missing = dayShapes.stream()
+                .filter(shape -> !cached.containsKey(shape))
+                .toList();
+        if (!missing.isEmpty()) {
+            Map<SearchShape, Long> loaded = counter.apply(missing);
+            for (SearchShape shape : missing) {
+                long count = loaded.getOrDefault(shape, 0L);
+                counts.put(shape, count);
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns a page that lies entirely in closed days, reading it on a miss.
+     * Pages are cached without a total, since the total may include the live window.
+     *
+     * @param shape Filter shape of the search
+     * @param pageable Requested page
+     * @param cursor Keyset position (nullable)
+     * @param reader Reads the page
+     * @return Page of results
+     */
+    public SearchPage page(SearchShape shape, Pageable pageable, SearchCursor cursor, Supplier<SearchPage> reader) {
+        PageKey key = new PageKey(shape, pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort(), cursor != null ? cursor.encode() : null);
+        return load(pages, key, reader);
+    }
+
+    /**
+     * Returns the facet groups of a search that lies entirely in closed days,
+     * reading them on a miss.
+     *
+     * @param shape Filter shape of the search
+     * @param reader Runs the facet query
+     * @return Facet groups
+     */
+    public List<VpiFacetRow> facets(SearchShape shape, Supplier<List<VpiFacetRow>> reader) {
+        return load(facets, shape, reader);
+    }
+
+    private static <K, V> V load(Cache<K, V> cache, K key, Supplier<V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        V value = loader.get();
+        cache.put(key, value);
+        return value;
+    }
+
+    @lombok.Value
+    private static class PageKey {
+        SearchShape shape;
+        int pageNumber;
+        int pageSize;
+        Sort sort;
+        String cursor;
+    }
+}
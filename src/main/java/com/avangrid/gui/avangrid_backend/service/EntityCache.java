@@ -0,0 +1,157 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.VpiCaptureBase;
+import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded per-OPCO cache of capture and user entities.
+ *
+ * <p>Both entity families are {@code @Immutable} and never written by this service,
+ * so a row read once can be served from memory until it ages out. Captures are
+ * cached by object ID (the rows {@code findByObjectId} returns), users by user ID.
+ * Lookups that find nothing are not cached, so a recording that is written later
+ * is still found. Entries expire after {@code search.entity-cache.ttl}.
+ *
+ * <p>Each OPCO has its own regions, published as {@code cache.gets{cache=entity.capture.<opco>}}
+ * and {@code cache.gets{cache=entity.user.<opco>}}.
+ */
+@Component
+public class EntityCache {
+
+    private final Map<String, Cache<UUID, List<VpiCaptureBase>>> captures = new ConcurrentHashMap<>();
+    private final Map<String, Cache<UUID, VpiUsersBase>> users = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration ttl;
+    private final long captureMaxSize;
+    private final long userMaxSize;
+    private final MeterRegistry meterRegistry;
+
+    public EntityCache(
+            @Value("${search.entity-cache.enabled:true}") boolean enabled,
+            @Value("${search.entity-cache.ttl:1h}") Duration ttl,
+            @Value("${search.entity-cache.capture-max-size:20000}") long captureMaxSize,
+            @Value("${search.entity-cache.user-max-size:20000}") long userMaxSize,
+            MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.captureMaxSize = captureMaxSize;
+        this.userMaxSize = userMaxSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the captures with the given object ID, loading them on a miss.
+     *
+     * @param opco OPCO code
+     * @param objectId Object ID
+     * @param loader Reads the captures from the database
+     * @param <T> Capture entity type of the OPCO
+     * @return Captures with the object ID
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends VpiCaptureBase> List<T> captures(String opco, UUID objectId, Supplier<List<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Cache<UUID, List<VpiCaptureBase>> region = captureRegion(opco);
+        List<VpiCaptureBase> cached = region.getIfPresent(objectId);
+        if (cached != null) {
+            return (List<T>) cached;
+        }
+
+        List<T> loaded = loader.get();
+        if (!loaded.isEmpty()) {
+            region.put(objectId, List.copyOf(loaded));
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the captures of several object IDs, loading the missing ones in one call.
+     *
+     * @param opco OPCO code
+     * @param objectIds Object IDs
+     * @param loader Reads the captures of the given (missing) object IDs
+     * @param <T> Capture entity type of the OPCO
+     * @return Captures grouped by object ID; IDs without captures are absent
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends VpiCaptureBase> Map<UUID, List<T>> captures(String opco, Collection<UUID> objectIds,
+                                                                  Function<Set<UUID>, List<T>> loader) {
+        Map<UUID, List<T>> result = new HashMap<>();
+        Set<UUID> missing = new LinkedHashSet<>(objectIds);
+
+        Cache<UUID, List<VpiCaptureBase>> region = enabled ? captureRegion(opco) : null;
+        if (region != null) {
+            region.getAllPresent(objectIds).forEach((id, rows) -> result.put(id, (List<T>) rows));
+            missing.removeAll(result.keySet());
+        }
+
+        if (!missing.isEmpty()) {
+            for (T capture : loader.apply(missing)) {
+                result.computeIfAbsent(capture.getObjectId(), id -> new ArrayList<>()).add(capture);
+            }
+            if (region != null) {
+                missing.stream()
+                        .filter(result::containsKey)
+                        .forEach(id -> region.put(id, List.copyOf(result.get(id))));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the users with the given IDs, loading the missing ones in one call.
+     *
+     * @param opco OPCO code
+     * @param userIds User IDs
+     * @param loader Reads the users with the given (missing) IDs
+     * @param <U> User entity type of the OPCO
+     * @return Users found; unknown IDs are absent
+     */
+    @SuppressWarnings("unchecked")
+    public <U extends VpiUsersBase> List<U> users(String opco, Collection<UUID> userIds,
+                                                  Function<Set<UUID>, List<U>> loader) {
+        if (!enabled) {
+            return loader.apply(new LinkedHashSet<>(userIds));
+        }
+
+        Cache<UUID, VpiUsersBase> region = users.computeIfAbsent(opco.toUpperCase(),
+                key -> region("entity.user." + key.toLowerCase(Locale.ROOT), userMaxSize));
+
+        return (List<U>) List.copyOf(region.getAll(userIds, missing -> {
+            Map<UUID, VpiUsersBase> loaded = new HashMap<>();
+            loader.apply(new LinkedHashSet<>(missing)).forEach(user -> loaded.put(user.getUserId(), user));
+            return loaded;
+        }).values());
+    }
+
+    private Cache<UUID, List<VpiCaptureBase>> captureRegion(String opco) {
+        return captures.computeIfAbsent(opco.toUpperCase(),
+                key -> region("entity.capture." + key.toLowerCase(Locale.ROOT), captureMaxSize));
+    }
+
+    private <V> Cache<UUID, V> region(String name, long maxSize) {
+        Cache<UUID, V> cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+}
@@ -0,0 +1,242 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.exception.OpcoOverloadedException;
+import com.avangrid.gui.avangrid_backend.exception.RecordingProcessingException;
+import com.avangrid.gui.avangrid_backend.infra.generic.QueryGuard;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of each OPCO datasource.
+ *
+ * <p>Every OPCO pool only has a couple of connections. Without a limit a burst of
+ * searches queues inside Hikari until {@code connection-timeout} and then fails with
+ * a generic 500. Here each OPCO gets its own permit count
+ * ({@code search.bulkhead.max-concurrent}) and a short wait queue
+ * ({@code search.bulkhead.max-waiting}, {@code search.bulkhead.max-wait}). A caller
+ * that finds the queue full is turned away with 429; one that waited without getting
+ * a permit gets 503. Both carry {@code Retry-After}. Because the limits are per OPCO,
+ * a slow NYSEG database only backs up NYSEG queries.
+ *
+ * <p>Exports hold their server-side cursor, and with it a connection, for the whole
+ * download. They take one of the OPCO's slots like any other call, but at most
+ * {@code search.bulkhead.export.max-concurrent} exports per OPCO may hold one, so
+ * searches always keep a slot. An export beyond that waits in its own queue
+ * ({@code search.bulkhead.export.max-waiting}, empty by default) or gets 429.
+ *
+ * <p>Published metrics, tagged by {@code opco}: {@code search.bulkhead.active},
+ * {@code search.bulkhead.waiting}, {@code search.bulkhead.export.active},
+ * {@code search.bulkhead.export.waiting} and {@code search.bulkhead.rejected} (tagged with
+ * {@code reason}: {@code queue-full}, {@code timeout}, {@code export-limit} or {@code executor-full}).
+ * Admitted queries that hit their statement timeout or are cancelled because the
+ * client went away (see {@link QueryGuard}) are counted as {@code search.query.aborted},
+ * tagged with {@code reason} {@code timeout} or {@code cancelled}.
+ */
+@Component
+public class OpcoBulkhead {
+
+    private final Map<String, Compartment> compartments = new ConcurrentHashMap<>();
+    private final Map<String, Compartment> exportCompartments = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final int exportMaxConcurrent;
+    private final int exportMaxWaiting;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+    private final MeterRegistry meterRegistry;
+
+    public OpcoBulkhead(
+            @Value("${search.bulkhead.enabled:true}") boolean enabled,
+            @Value("${search.bulkhead.max-concurrent:2}") int maxConcurrent,
+            @Value("${search.bulkhead.max-waiting:4}") int maxWaiting,
+            @Value("${search.bulkhead.export.max-concurrent:1}") int exportMaxConcurrent,
+            @Value("${search.bulkhead.export.max-waiting:0}") int exportMaxWaiting,
+            @Value("${search.bulkhead.max-wait:500ms}") Duration maxWait,
+            @Value("${search.bulkhead.retry-after:2s}") Duration retryAfter,
+            MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.exportMaxConcurrent = exportMaxConcurrent;
+        this.exportMaxWaiting = exportMaxWaiting;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs a database call once the OPCO has a free slot.
+     *
+     * @param opco OPCO code
+     * @param call Work that uses the OPCO's datasource
+     * @param <T> Result type
+     * @return Result of the call
+     * @throws OpcoOverloadedException if the OPCO is saturated
+     */
+    public <T> T call(String opco, Supplier<T> call) {
+        if (!enabled) {
+            return countAborted(opco, call);
+        }
+
+        Compartment compartment = compartments.computeIfAbsent(opco.toUpperCase(), this::compartment);
+        compartment.acquire();
+        try {
+            return countAborted(opco, call);
+        } finally {
+            compartment.permits.release();
+        }
+    }
+
+    /**
+     * Runs an export once the OPCO has a free export permit and a free slot.
+     * Both are held until the export has been read to the end.
+     *
+     * @param opco OPCO code
+     * @param call Export that reads from the OPCO's datasource
+     * @param <T> Result type
+     * @return Result of the call
+     * @throws OpcoOverloadedException if the OPCO already runs its exports or is saturated
+     */
+    public <T> T callExport(String opco, Supplier<T> call) {
+        if (!enabled) {
+            return countAborted(opco, call);
+        }
+
+        Compartment exports = exportCompartments.computeIfAbsent(opco.toUpperCase(), this::exportCompartment);
+        exports.acquire();
+        try {
+            return call(opco, call);
+        } finally {
+            exports.permits.release();
+        }
+    }
+
+    /**
+     * Turns away a parallel part of a search that the search executors had no room
+     * for, with 503 and {@code Retry-After} like an OPCO that stayed busy.
+     *
+     * @param opco OPCO code the part would have read
+     * @param what Description of the part
+     * @return Exception to throw or report
+     */
+    public OpcoOverloadedException executorFull(String opco, String what) {
+        rejected(opco.toUpperCase(), "executor-full").increment();
+        return new OpcoOverloadedException(opco, HttpStatus.SERVICE_UNAVAILABLE, retryAfter,
+                what + " for " + opco + " rejected, the search executor is full; retry later");
+    }
+
+    private <T> T countAborted(String opco, Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (QueryTimeoutException | jakarta.persistence.QueryTimeoutException e) {
+            QueryGuard guard = QueryGuard.current();
+            Counter.builder("search.query.aborted")
+                    .description("Queries stopped by their statement timeout or cancelled for a departed client")
+                    .tag("opco", opco.toUpperCase())
+                    .tag("reason", guard != null && guard.isCancelled() ? "cancelled" : "timeout")
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        }
+    }
+
+    private Compartment compartment(String opco) {
+        Compartment compartment = new Compartment(opco, maxConcurrent, maxWaiting, false);
+
+        Gauge.builder("search.bulkhead.active", compartment, c -> maxConcurrent - c.permits.availablePermits())
+                .description("Queries holding one of the OPCO's slots")
+                .tag("opco", opco)
+                .register(meterRegistry);
+        Gauge.builder("search.bulkhead.waiting", compartment, c -> c.waiting.get())
+                .description("Queries waiting for one of the OPCO's slots")
+                .tag("opco", opco)
+                .register(meterRegistry);
+
+        return compartment;
+    }
+
+    private Compartment exportCompartment(String opco) {
+        Compartment compartment = new Compartment(opco, exportMaxConcurrent, exportMaxWaiting, true);
+
+        Gauge.builder("search.bulkhead.export.active", compartment,
+                        c -> exportMaxConcurrent - c.permits.availablePermits())
+                .description("Exports holding one of the OPCO's export permits")
+                .tag("opco", opco)
+                .register(meterRegistry);
+        Gauge.builder("search.bulkhead.export.waiting", compartment, c -> c.waiting.get())
+                .description("Exports waiting for one of the OPCO's export permits")
+                .tag("opco", opco)
+                .register(meterRegistry);
+
+        return compartment;
+    }
+
+    private Counter rejected(String opco, String reason) {
+        return Counter.builder("search.bulkhead.rejected")
+                .description("Queries turned away because the OPCO was saturated")
+                .tag("opco", opco)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Permits and wait queue of one OPCO, for all its calls or for its exports.
+     */
+    private final class Compartment {
+
+        private final String opco;
+        private final Semaphore permits;
+        private final int maxWaiting;
+        private final boolean exports;
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        Compartment(String opco, int maxConcurrent, int maxWaiting, boolean exports) {
+            this.opco = opco;
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.maxWaiting = maxWaiting;
+            this.exports = exports;
+        }
+
+        void acquire() {
+            if (permits.tryAcquire()) {
+                return;
+            }
+
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                rejected(opco, exports ? "export-limit" : "queue-full").increment();
+                throw new OpcoOverloadedException(opco, HttpStatus.TOO_MANY_REQUESTS, retryAfter,
+                        "Too many concurrent " + (exports ? "exports" : "searches") + " for " + opco
+                                + ", retry later");
+            }
+
+            try {
+                if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    rejected(opco, exports ? "export-limit" : "timeout").increment();
+                    throw new OpcoOverloadedException(opco, HttpStatus.SERVICE_UNAVAILABLE, retryAfter,
+                            opco + " database is busy, retry later");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RecordingProcessingException("Interrupted waiting for " + opco + " database", e);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.ResponseFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ObjectMappers Spring MVC writes responses with: Boot's JSON ObjectMapper and the
+ * CBOR and Smile mappers of {@link com.avangrid.gui.avangrid_backend.config.BinaryFormatConfig}.
+ * Responses written straight to the output stream use them too, so they honour
+ * {@code spring.jackson.*} exactly like the message converters do.
+ */
+@Component
+public class ResponseMappers {
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+    private final ObjectMapper smile;
+
+    public ResponseMappers(ObjectMapper objectMapper,
+                           MappingJackson2CborHttpMessageConverter cborConverter,
+                           MappingJackson2SmileHttpMessageConverter smileConverter) {
+        this.json = objectMapper;
+        this.cbor = cborConverter.getObjectMapper();
+        this.smile = smileConverter.getObjectMapper();
+    }
+
+    public ObjectMapper json() {
+        return json;
+    }
+
+    public ObjectMapper cbor() {
+        return cbor;
+    }
+
+    public ObjectMapper smile() {
+        return smile;
+    }
+
+    /**
+     * @param format Response format
+     * @return Mapper that writes the format
+     */
+    public ObjectMapper forFormat(ResponseFormat format) {
+        return switch (format) {
+            case JSON -> json;
+            case CBOR -> cbor;
+            case SMILE -> smile;
+        };
+    }
+}
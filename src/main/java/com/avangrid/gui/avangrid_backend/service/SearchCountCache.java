@@ -0,0 +1,69 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.TotalType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived memo of search totals keyed by {@link SearchShape}.
+ *
+ * <p>Paging through the same filter set reuses the total computed for the
+ * first page instead of re-running the same COUNT query for every page.
+ * Counts run outside the cache's map, so a slow count never blocks other
+ * entries; concurrent misses on the same shape may each run it.
+ * Hits and misses are published as {@code cache.gets{cache=search.count}}.
+ */
+@Component
+public class SearchCountCache {
+
+    private static final String CACHE_NAME = "search.count";
+
+    private final Cache<CountKey, Long> totals;
+
+    public SearchCountCache(
+            @Value("${search.count-cache.ttl:2m}") Duration ttl,
+            @Value("${search.count-cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry) {
+
+        this.totals = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, totals, CACHE_NAME);
+    }
+
+    /**
+     * Returns the memoized total for the shape, computing it on a miss.
+     *
+     * @param shape Canonical filter shape
+     * @param totalType Kind of total (EXACT and CAPPED totals are kept apart)
+     * @param counter Count query to run on a miss
+     * @return Total for the shape
+     */
+    public long get(SearchShape shape, TotalType totalType, LongSupplier counter) {
+        CountKey key = new CountKey(shape, totalType);
+        Long cached = totals.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long total = counter.getAsLong();
+        totals.put(key, total);
+        return total;
+    }
+
+    @lombok.Value
+    private static class CountKey {
+        SearchShape shape;
+        TotalType totalType;
+    }
+}
@@ -0,0 +1,133 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.exception.InvalidRequestException;
+import com.avangrid.gui.avangrid_backend.model.SortField;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position for search pagination.
+ *
+ * <p>Holds the sort key of the last row of a page (the {@link SearchSort} field's value
+ * plus {@code objectId} as tie breaker) so the next page can be read with a seek
+ * predicate instead of an OFFSET. The cursor remembers its order; it is only valid
+ * for a request with the same sort. Newest-first cursors keep their original
+ * {@code dateAdded|objectId} encoding.
+ */
+public final class SearchCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final SearchSort sort;
+    private final Comparable<?> value;
+    private final UUID objectId;
+
+    private SearchCursor(SearchSort sort, Comparable<?> value, UUID objectId) {
+        this.sort = sort;
+        this.value = value;
+        this.objectId = objectId;
+    }
+
+    /**
+     * @param sort Order of the page
+     * @param value Sort value of the row, as read by {@link SearchSort#valueOf}; null only
+     *              for startTime and duration
+     * @param objectId Row id
+     */
+    public static SearchCursor of(SearchSort sort, Comparable<?> value, UUID objectId) {
+        if (objectId == null || (value == null && sort.getField() == SortField.DATE_ADDED)) {
+            throw new IllegalArgumentException("Cursor requires a sort value and objectId");
+        }
+        Comparable<?> normalized = value instanceof OffsetDateTime time ? time.withOffsetSameInstant(ZoneOffset.UTC) : value;
+        return new SearchCursor(sort, normalized, objectId);
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param token Base64url encoded cursor
+     * @return Decoded cursor
+     * @throws InvalidRequestException if the token is malformed
+     */
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+
+            if (parts.length == 2) {
+                return new SearchCursor(SearchSort.NEWEST_FIRST,
+                        Instant.parse(parts[0]).atOffset(ZoneOffset.UTC), UUID.fromString(parts[1]));
+            }
+            if (parts.length != 3) {
+                throw new InvalidRequestException("Invalid pagination cursor");
+            }
+
+            int split = parts[0].indexOf(',');
+            SearchSort sort = new SearchSort(
+                    SortField.valueOf(parts[0].substring(0, split)),
+                    Sort.Direction.valueOf(parts[0].substring(split + 1)));
+            return of(sort, decodeValue(sort.getField(), parts[1]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid pagination cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = sort.isNewestFirst()
+                ? encodeValue() + SEPARATOR + objectId
+                : sort.getField() + "," + sort.getDirection() + SEPARATOR + encodeValue() + SEPARATOR + objectId;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String encodeValue() {
+        if (value == null) {
+            return "";
+        }
+        return value instanceof OffsetDateTime time ? time.toInstant().toString() : value.toString();
+    }
+
+    private static Comparable<?> decodeValue(SortField field, String encoded) {
+        if (encoded.isEmpty()) {
+            return null;
+        }
+        return switch (field) {
+            case DATE_ADDED, START_TIME -> Instant.parse(encoded).atOffset(ZoneOffset.UTC);
+            case DURATION -> Integer.valueOf(encoded);
+        };
+    }
+
+    public SearchSort getSort() {
+        return sort;
+    }
+
+    /**
+     * @return Sort value of the row; null when the row has no startTime or duration
+     */
+    public Comparable<?> getValue() {
+        return value;
+    }
+
+    /**
+     * @return dateAdded of the row
+     * @throws IllegalStateException if the cursor does not sort by dateAdded
+     */
+    public OffsetDateTime getDateAdded() {
+        if (sort.getField() != SortField.DATE_ADDED) {
+            throw new IllegalStateException("Cursor sorts by " + sort.getField());
+        }
+        return (OffsetDateTime) value;
+    }
+
+    public UUID getObjectId() {
+        return objectId;
+    }
+}
@@ -0,0 +1,180 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.ExportFormat;
+import com.avangrid.gui.avangrid_backend.model.VpiMetadata;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes exported search rows to a response stream one at a time.
+ * Nothing is buffered beyond the underlying writer, so memory stays flat.
+ */
+public abstract class SearchExportWriter implements Closeable {
+
+    /**
+     * Creates a writer for the format, serializing rows with the application's mappers.
+     * Closing the writer does not close {@code out}.
+     */
+    public static SearchExportWriter of(ExportFormat format, ResponseMappers mappers, OutputStream out)
+            throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter(mappers.json(), out);
+            case CSV -> new CsvWriter(out);
+            case CBOR -> new ArrayWriter(mappers.cbor(), out);
+            case SMILE -> new ArrayWriter(mappers.smile(), out);
+        };
+    }
+
+    public abstract void write(VpiMetadata row) throws IOException;
+
+    public abstract void flush() throws IOException;
+
+    /**
+     * One JSON object per line.
+     */
+    private static final class NdjsonWriter extends SearchExportWriter {
+
+        private final OutputStream out;
+        private final SequenceWriter sequence;
+        private boolean written;
+
+        NdjsonWriter(ObjectMapper mapper, OutputStream out) throws IOException {
+            this.out = out;
+            this.sequence = mapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(new NonClosingOutputStream(out));
+        }
+
+        @Override
+        public void write(VpiMetadata row) throws IOException {
+            sequence.write(row);
+            written = true;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sequence.flush();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            sequence.close();
+            if (written) {
+                out.write('\n');
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * One array of row objects in a binary format. Binary generators leave the array
+     * length open, so rows are still written as they arrive.
+     */
+    private static final class ArrayWriter extends SearchExportWriter {
+
+        private final OutputStream out;
+        private final SequenceWriter sequence;
+
+        ArrayWriter(ObjectMapper mapper, OutputStream out) throws IOException {
+            this.out = out;
+            this.sequence = mapper.writer().writeValuesAsArray(new NonClosingOutputStream(out));
+        }
+
+        @Override
+        public void write(VpiMetadata row) throws IOException {
+            sequence.write(row);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sequence.flush();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            sequence.close();
+            out.flush();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row.
+     */
+    private static final class CsvWriter extends SearchExportWriter {
+
+        private static final String[] HEADER = {
+                "opco", "objectId", "dateAdded", "startTime", "duration", "userId", "username",
+                "agentId", "extensionNum", "channelNum", "channelName", "aniAliDigits",
+                "direction", "callId", "tags"
+        };
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(new NonClosingOutputStream(out), StandardCharsets.UTF_8));
+            writeLine((Object[]) HEADER);
+        }
+
+        @Override
+        public void write(VpiMetadata row) throws IOException {
+            writeLine(row.getOpco(), row.getObjectId(), row.getDateAdded(), row.getStartTime(),
+                    row.getDuration(), row.getUserId(), row.getUsername(), row.getAgentId(),
+                    row.getExtensionNum(), row.getChannelNum(), row.getChannelName(),
+                    row.getAniAliDigits(), row.isDirection(), row.getCallId(), row.getTags());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        private void writeLine(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i] == null ? "" : Objects.toString(values[i])));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    /**
+     * Leaves the response stream open for the servlet container to finish.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
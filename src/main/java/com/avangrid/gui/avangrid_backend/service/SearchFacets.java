@@ -0,0 +1,94 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.FacetCount;
+import com.avangrid.gui.avangrid_backend.model.VpiFacetRow;
+import com.avangrid.gui.avangrid_backend.model.VpiFacetRow.Dimension;
+import com.avangrid.gui.avangrid_backend.model.VpiFacetsResponse;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Folds the facet rows of one or more OPCOs into per-dimension counts.
+ */
+class SearchFacets {
+
+    private static final String UNKNOWN = "unknown";
+
+    private final List<Integer> durationEdges;
+    private final Map<LocalDate, Long> days = new TreeMap<>();
+    private final Map<String, Long> directions = new TreeMap<>();
+    private final Map<String, Long> agents = new HashMap<>();
+    private final Map<String, Long> extensions = new HashMap<>();
+    private final Map<Integer, Long> durations = new TreeMap<>();
+    private long total;
+
+    SearchFacets(List<Integer> durationEdges) {
+        this.durationEdges = durationEdges;
+    }
+
+    void add(List<VpiFacetRow> rows) {
+        for (VpiFacetRow row : rows) {
+            long count = row.getCount();
+            if (row.isGroupedBy(Dimension.DAY)) {
+                if (row.getDay() != null) {
+                    days.merge(row.getDay(), count, Long::sum);
+                }
+            } else if (row.isGroupedBy(Dimension.DIRECTION)) {
+                directions.merge(row.getDirection() == null ? UNKNOWN : row.getDirection().toString(), count, Long::sum);
+            } else if (row.isGroupedBy(Dimension.AGENT_ID)) {
+                agents.merge(row.getAgentId() == null ? UNKNOWN : row.getAgentId(), count, Long::sum);
+            } else if (row.isGroupedBy(Dimension.EXTENSION_NUM)) {
+                extensions.merge(row.getExtensionNum() == null ? UNKNOWN : row.getExtensionNum(), count, Long::sum);
+            } else if (row.isGroupedBy(Dimension.DURATION_BUCKET)) {
+                durations.merge(row.getDurationBucket(), count, Long::sum);
+            } else {
+                total += count;
+            }
+        }
+    }
+
+    /**
+     * @param topValues How many agent and extension values to keep, most frequent first
+     */
+    VpiFacetsResponse toResponse(int topValues) {
+        VpiFacetsResponse response = new VpiFacetsResponse();
+        response.setTotal(total);
+        response.setDay(days.entrySet().stream()
+                .map(e -> new FacetCount(e.getKey().toString(), e.getValue()))
+                .toList());
+        response.setDirection(counts(directions));
+        response.setAgentId(top(agents, topValues));
+        response.setExtensionNum(top(extensions, topValues));
+        response.setDuration(durations.entrySet().stream()
+                .map(e -> new FacetCount(bucketLabel(e.getKey()), e.getValue()))
+                .toList());
+        return response;
+    }
+
+    private static List<FacetCount> counts(Map<String, Long> values) {
+        return values.entrySet().stream()
+                .map(e -> new FacetCount(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    private static List<FacetCount> top(Map<String, Long> values, int limit) {
+        return values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(e -> new FacetCount(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    private String bucketLabel(int bucket) {
+        if (bucket < 0) {
+            return UNKNOWN;
+        }
+        if (bucket >= durationEdges.size()) {
+            return durationEdges.isEmpty() ? "0+" : durationEdges.getLast() + "+";
+        }
+        int low = bucket == 0 ? 0 : durationEdges.get(bucket - 1);
+        return low + "-" + durationEdges.get(bucket);
+    }
+}
@@ -0,0 +1,37 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.TotalType;
+import com.avangrid.gui.avangrid_backend.model.VpiMetadata;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of search results plus the keyset cursor of the following page.
+ * The slice is a {@link Page} whenever a total was computed; {@code totalType}
+ * tells how that total was obtained.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchPage {
+
+    private final Slice<VpiMetadata> results;
+    private final List<SearchCursor> rowKeys;        // sort key of each row, in result order
+    private final String nextCursor;
+    private final TotalType totalType;
+    private final List<String> incompleteOpcos;      // OPCOs left out of a federated search
+
+    public SearchPage(Slice<VpiMetadata> results, List<SearchCursor> rowKeys,
+                      String nextCursor, TotalType totalType) {
+        this(results, rowKeys, nextCursor, totalType, Collections.emptyList());
+    }
+
+    public static SearchPage empty(Pageable pageable) {
+        return new SearchPage(Page.empty(pageable), Collections.emptyList(), null, TotalType.EXACT);
+    }
+}
@@ -0,0 +1,128 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.VpiCaptureSummary;
+import com.avangrid.gui.avangrid_backend.model.VpiSearchResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Writes a {@link VpiSearchResponse} to a response stream through a Jackson
+ * {@link JsonGenerator}, either in one go or row by row, as JSON, CBOR or Smile.
+ *
+ * <p>A streamed response is written as {@link #startData()}, one {@link #writeRow} per
+ * row of result columns, then {@link #endData(VpiSearchResponse)} with the
+ * pagination. Fields come out in the same
+ * order and with the same names as Jackson serializes {@code VpiSearchResponse} and
+ * {@code VpiMetadata}, so both paths produce the same document; UUIDs go out as
+ * binary in CBOR and Smile, as Jackson writes them there. A streamed CBOR
+ * {@code data} array has indefinite length.
+ *
+ * <p>Open arrays and objects are not closed automatically: a response that fails half
+ * way stays truncated instead of looking complete. The response stream is left open
+ * when the writer finishes.
+ */
+public final class SearchResponseWriter {
+
+    private final JsonGenerator generator;
+    // Reused for every binary UUID; the generator copies the bytes out
+    private final byte[] uuidBytes = new byte[16];
+
+    private SearchResponseWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Creates a writer whose generator comes from the given mapper.
+     *
+     * @param mapper Mapper of the response format, see {@link ResponseMappers#forFormat}
+     * @param out Response stream
+     */
+    public static SearchResponseWriter of(ObjectMapper mapper, OutputStream out) throws IOException {
+        JsonGenerator generator = mapper.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        return new SearchResponseWriter(generator);
+    }
+
+    /**
+     * Writes a complete response.
+     */
+    public void write(VpiSearchResponse response) throws IOException {
+        generator.writeObject(response);
+        generator.close();
+    }
+
+    /**
+     * Opens the response object and its {@code data} array.
+     */
+    public void startData() throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("data");
+    }
+
+    /**
+     * Writes one row of {@code data} straight from the query result.
+     *
+     * @param row Search result columns
+     * @param opco OPCO code
+     * @param username Full name of the row's user (nullable)
+     */
+    public void writeRow(VpiCaptureSummary row, String opco, String username) throws IOException {
+        generator.writeStartObject();
+        writeUuid("objectId", row.getObjectId());
+        generator.writeStringField("dateAdded", VpiRecordingService.toXmlStartTime(row.getDateAdded()));
+        writeUuid("userId", row.getUserId());
+        generator.writeStringField("startTime", VpiRecordingService.toXmlStartTime(row.getStartTime()));
+        if (row.getDuration() == null) {
+            generator.writeNullField("duration");
+        } else {
+            generator.writeNumberField("duration", row.getDuration());
+        }
+        generator.writeStringField("tags", row.getTags());
+        generator.writeStringField("channelName", row.getChannelName());
+        generator.writeNumberField("channelNum", row.getChannelNum() == null ? 0 : row.getChannelNum());
+        generator.writeStringField("callId", row.getCallId());
+        generator.writeStringField("username", username);
+        generator.writeStringField("aniAliDigits", row.getAnialidigits());
+        generator.writeStringField("extensionNum", row.getExtensionNum());
+        generator.writeBooleanField("direction", Boolean.TRUE.equals(row.getDirection()));
+        generator.writeStringField("agentId", row.getAgentId());
+        generator.writeStringField("opco", opco);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Closes {@code data} and writes the remaining fields of the response;
+     * its {@code data} is ignored.
+     *
+     * @param response Pagination, status and message of the streamed page
+     */
+    public void endData(VpiSearchResponse response) throws IOException {
+        generator.writeEndArray();
+        generator.writeObjectField("pagination", response.getPagination());
+        generator.writeStringField("status", response.getStatus());
+        generator.writeStringField("message", response.getMessage());
+        generator.writeObjectField("incompleteOpcos", response.getIncompleteOpcos());
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    private void writeUuid(String field, UUID value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else if (generator.canWriteBinaryNatively()) {
+            generator.writeFieldName(field);
+            ByteBuffer.wrap(uuidBytes)
+                    .putLong(value.getMostSignificantBits())
+                    .putLong(value.getLeastSignificantBits());
+            generator.writeBinary(uuidBytes);
+        } else {
+            generator.writeStringField(field, value.toString());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.TotalType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of whole search pages keyed by {@link SearchShape} and page position.
+ *
+ * <p>Supervisors often run the same search (same OPCO, same day, no filters) within
+ * minutes of each other; those are answered from memory instead of Postgres. The
+ * cache is bounded by the number of result rows it holds. Partial federated results
+ * are never stored. Hits and misses are published as {@code cache.gets{cache=search.result}}.
+ */
+@Component
+public class SearchResultCache {
+
+    private static final String CACHE_NAME = "search.result";
+
+    private final Cache<ResultKey, SearchPage> pages;
+    private final boolean enabled;
+
+    public SearchResultCache(
+            @Value("${search.result-cache.enabled:true}") boolean enabled,
+            @Value("${search.result-cache.ttl:60s}") Duration ttl,
+            @Value("${search.result-cache.max-weight:50000}") long maxWeight,
+            MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+        this.pages = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxWeight)
+                .weigher((ResultKey key, SearchPage page) -> page.getResults().getNumberOfElements() + 1)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached page for the search, running it on a miss.
+     *
+     * @param shape Canonical filter shape
+     * @param pageable Requested page
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @param bypass Skip the lookup and refresh the entry with a fresh result
+     * @param search The search to run on a miss
+     * @return Page of results
+     */
+    public SearchPage get(SearchShape shape, Pageable pageable, SearchCursor cursor,
+                          TotalType totalMode, boolean bypass, Supplier<SearchPage> search) {
+        if (!enabled) {
+            return search.get();
+        }
+
+        ResultKey key = new ResultKey(shape, pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort(), cursor != null ? cursor.encode() : null, totalMode);
+
+        if (!bypass) {
+            SearchPage cached = pages.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        SearchPage page = search.get();
+        if (page.getIncompleteOpcos().isEmpty()) {
+            pages.put(key, page);
+        }
+        return page;
+    }
+
+    @lombok.Value
+    private static class ResultKey {
+        SearchShape shape;
+        int pageNumber;
+        int pageSize;
+        Sort sort;
+        String cursor;
+        TotalType totalMode;
+    }
+}
@@ -0,0 +1,96 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.MatchMode;
+import com.avangrid.gui.avangrid_backend.model.VpiFiltersRequest;
+import lombok.Value;
+import lombok.With;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Canonical form of a search's filter set, used as cache key.
+ *
+ * <p>Two searches that differ only in list order, letter case, blanks or
+ * duplicates map to the same shape. Pagination is not part of the shape.
+ * Sub-ranges of a search (e.g. single days) are derived with {@code withFrom}/{@code withTo}.
+ */
+@Value
+public class SearchShape {
+
+    String opco;
+    @With
+    Instant from;
+    @With
+    Instant to;
+    List<String> extensionNum;
+    List<String> channelNum;
+    List<String> aniAliDigits;
+    List<String> name;
+    List<String> agentId;
+    List<UUID> objectIds;
+    Boolean direction;
+    List<UUID> userIds;
+    MatchMode extensionNumMatch;
+    MatchMode channelNumMatch;
+    MatchMode aniAliDigitsMatch;
+    MatchMode agentIdMatch;
+    Integer durationMin;
+    Integer durationMax;
+
+    public static SearchShape of(
+            String opco,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds) {
+
+        VpiFiltersRequest f = filters != null ? filters : new VpiFiltersRequest();
+
+        return new SearchShape(
+                opco.trim().toUpperCase(Locale.ROOT),
+                from != null ? from.toInstant() : null,
+                to != null ? to.toInstant() : null,
+                canonicalStrings(f.getExtensionNum(), f.extensionNumMode()),
+                canonicalStrings(f.getChannelNum(), f.channelNumMode()),
+                canonicalStrings(f.getAniAliDigits(), f.aniAliDigitsMode()),
+                canonicalStrings(f.getName(), MatchMode.CONTAINS),
+                canonicalStrings(f.getAgentID(), f.agentIDMode()),
+                canonicalUuids(f.getObjectIDs()),
+                f.getDirection(),
+                canonicalUuids(userIds),
+                f.extensionNumMode(),
+                f.channelNumMode(),
+                f.aniAliDigitsMode(),
+                f.agentIDMode(),
+                f.getDurationMin(),
+                f.getDurationMax());
+    }
+
+    /**
+     * Only CONTAINS matches ignore case, so only their values are folded to lower case.
+     */
+    private static List<String> canonicalStrings(Collection<String> values, MatchMode mode) {
+        if (values == null) return Collections.emptyList();
+
+        return values.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .map(v -> mode == MatchMode.CONTAINS ? v.toLowerCase(Locale.ROOT) : v)
+                .filter(v -> !v.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static List<UUID> canonicalUuids(Collection<UUID> values) {
+        if (values == null) return Collections.emptyList();
+
+        return values.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+}
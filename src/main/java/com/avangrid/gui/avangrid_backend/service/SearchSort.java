@@ -0,0 +1,88 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.SortField;
+import com.avangrid.gui.avangrid_backend.model.VpiCaptureSummary;
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Order of a search: one {@link SortField} and a direction, with {@code objectId}
+ * breaking ties in the same direction.
+ */
+@Value
+public class SearchSort {
+
+    public static final SearchSort NEWEST_FIRST = new SearchSort(SortField.DATE_ADDED, Sort.Direction.DESC);
+
+    private static final String OBJECT_ID = "objectId";
+
+    SortField field;
+    Sort.Direction direction;
+
+    /**
+     * @param field Requested field (nullable, defaults to dateAdded)
+     * @param direction Requested direction (nullable, defaults to descending)
+     */
+    public static SearchSort of(SortField field, Sort.Direction direction) {
+        return new SearchSort(
+                field != null ? field : SortField.DATE_ADDED,
+                direction != null ? direction : Sort.Direction.DESC);
+    }
+
+    /**
+     * Recovers the search order from a sort built by {@link #toSort()}.
+     *
+     * @param sort Sort of a search pageable; unsorted means newest first
+     */
+    public static SearchSort of(Sort sort) {
+        return sort.stream()
+                .findFirst()
+                .map(order -> new SearchSort(SortField.ofProperty(order.getProperty()), order.getDirection()))
+                .orElse(NEWEST_FIRST);
+    }
+
+    public Sort toSort() {
+        return Sort.by(direction, field.getProperty()).and(Sort.by(direction, OBJECT_ID));
+    }
+
+    /**
+     * Whether rows come newest first by dateAdded, the order date-bounded optimisations rely on.
+     */
+    public boolean isNewestFirst() {
+        return equals(NEWEST_FIRST);
+    }
+
+    /**
+     * Reads the sort value of a row.
+     *
+     * @return dateAdded or startTime as OffsetDateTime, duration as Integer; may be null
+     */
+    public Comparable<?> valueOf(VpiCaptureSummary row) {
+        return switch (field) {
+            case DATE_ADDED -> row.getDateAdded();
+            case START_TIME -> row.getStartTime();
+            case DURATION -> row.getDuration();
+        };
+    }
+
+    /**
+     * Orders keys the way Postgres orders the rows: NULL above every value, UUIDs
+     * as unsigned bytes, so merged pages agree with each database's own seek predicate.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<SearchCursor> comparator() {
+        Comparator<SearchCursor> byValue = Comparator.comparing(cursor -> (Comparable) cursor.getValue(),
+                Comparator.nullsLast(Comparator.naturalOrder()));
+        Comparator<SearchCursor> ascending =
+                byValue.thenComparing(SearchCursor::getObjectId, SearchSort::compareUnsigned);
+        return direction.isAscending() ? ascending : ascending.reversed();
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
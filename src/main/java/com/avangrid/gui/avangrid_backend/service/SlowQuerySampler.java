@@ -0,0 +1,195 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.infra.generic.ExplainStatementInspector;
+import com.avangrid.gui.avangrid_backend.infra.generic.ExplainedStatement;
+import com.avangrid.gui.avangrid_backend.infra.generic.QueryGuard;
+import com.avangrid.gui.avangrid_backend.model.SlowQuerySample;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the most recent slow searches and user name lookups in memory.
+ *
+ * <p>Calls wrapped in {@link #sample} are timed. One that takes longer than
+ * {@code search.slow-queries.threshold} is stored with its OPCO, filter shape and the
+ * SQL Hibernate rendered on the calling thread, in a ring of the last
+ * {@code search.slow-queries.capacity} samples served by {@code /actuator/slowqueries}.
+ * At most one sample per {@code search.slow-queries.analyze-interval} is then
+ * re-run in the background under {@code EXPLAIN (ANALYZE, BUFFERS)}; since that
+ * executes the query again it goes through the OPCO bulkhead and is limited to
+ * {@code search.slow-queries.analyze-timeout}. Nothing is logged per request.
+ *
+ * <p>Samples are counted as {@code search.slow-queries}, tagged with {@code kind} and {@code opco}.
+ */
+@Component
+public class SlowQuerySampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQuerySampler.class);
+    private static final ObjectMapper PLAN_MAPPER = new ObjectMapper();
+
+    private final Deque<SlowQuerySample> ring = new ArrayDeque<>();
+    private final AtomicLong nextAnalyzeAt = new AtomicLong(System.nanoTime());
+    private final boolean enabled;
+    private final Duration threshold;
+    private final int capacity;
+    private final Duration analyzeInterval;
+    private final Duration analyzeTimeout;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor analyzer;
+
+    public SlowQuerySampler(
+            @Value("${search.slow-queries.enabled:true}") boolean enabled,
+            @Value("${search.slow-queries.threshold:2s}") Duration threshold,
+            @Value("${search.slow-queries.capacity:100}") int capacity,
+            @Value("${search.slow-queries.analyze-interval:1m}") Duration analyzeInterval,
+            @Value("${search.slow-queries.analyze-timeout:30s}") Duration analyzeTimeout,
+            MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.capacity = capacity;
+        this.analyzeInterval = analyzeInterval;
+        this.analyzeTimeout = analyzeTimeout;
+        this.meterRegistry = meterRegistry;
+
+        // One analysis at a time, none queued: the rate limit already spaces them out
+        this.analyzer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-analyzer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        analyzer.shutdownNow();
+    }
+
+    /**
+     * Runs a call, keeping a sample when it is slow.
+     *
+     * @param kind What the call does, e.g. {@code search}
+     * @param opco OPCO code
+     * @param shape Canonical filter shape, or the bound values when there is none
+     * @param call Database work
+     * @param analyze Re-runs the slow statement under EXPLAIN (ANALYZE, BUFFERS), given the
+     *                SQL recorded during the call; null when the call cannot be analyzed
+     * @param <R> Result type
+     * @return Result of the call
+     */
+    public <R> R sample(String kind, String opco, Object shape, Supplier<R> call,
+                        Function<List<String>, ExplainedStatement> analyze) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        List<String> statements = new ArrayList<>();
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            return ExplainStatementInspector.record(call, statements);
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= threshold.toNanos()) {
+                keep(kind, opco, shape, statements, error, Duration.ofNanos(elapsed), analyze);
+            }
+        }
+    }
+
+    /**
+     * @return Samples, newest first
+     */
+    public List<SlowQuerySample> samples() {
+        synchronized (ring) {
+            return new ArrayList<>(ring);
+        }
+    }
+
+    public void clear() {
+        synchronized (ring) {
+            ring.clear();
+        }
+    }
+
+    private void keep(String kind, String opco, Object shape, List<String> statements, String error,
+                      Duration elapsed, Function<List<String>, ExplainedStatement> analyze) {
+
+        SlowQuerySample sample = new SlowQuerySample();
+        sample.setCapturedAt(Instant.now());
+        sample.setKind(kind);
+        sample.setOpco(opco);
+        sample.setElapsedMs(elapsed.toMillis());
+        sample.setShape(shape);
+        sample.setStatements(List.copyOf(statements));
+        sample.setError(error);
+
+        if (analyze == null) {
+            sample.setPlanStatus("unavailable");
+        } else if (tryAcquireAnalysis()) {
+            sample.setPlanStatus("pending");
+            try {
+                analyzer.execute(() -> analyze(sample, statements, analyze));
+            } catch (RejectedExecutionException e) {
+                sample.setPlanStatus("rate-limited");
+            }
+        } else {
+            sample.setPlanStatus("rate-limited");
+        }
+
+        synchronized (ring) {
+            ring.addFirst(sample);
+            while (ring.size() > capacity) {
+                ring.removeLast();
+            }
+        }
+
+        meterRegistry.counter("search.slow-queries", "kind", kind, "opco", opco).increment();
+    }
+
+    private boolean tryAcquireAnalysis() {
+        long now = System.nanoTime();
+        long next = nextAnalyzeAt.get();
+        return now - next >= 0 && nextAnalyzeAt.compareAndSet(next, now + analyzeInterval.toNanos());
+    }
+
+    private void analyze(SlowQuerySample sample, List<String> statements,
+                         Function<List<String>, ExplainedStatement> analyze) {
+        try {
+            ExplainedStatement explained = QueryGuard.within(analyzeTimeout, () -> analyze.apply(statements));
+            synchronized (ring) {
+                sample.setPlanSql(explained.getSql());
+                sample.setPlan(PLAN_MAPPER.readTree(explained.getPlanJson()));
+                sample.setPlanStatus("done");
+            }
+        } catch (Exception e) {
+            logger.debug("EXPLAIN ANALYZE of slow {} on {} failed: {}", sample.getKind(), sample.getOpco(), e.getMessage());
+            synchronized (ring) {
+                sample.setPlanStatus("failed");
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.infra.cmp.repository.VpiCmpUserRepo;
+import com.avangrid.gui.avangrid_backend.infra.generic.ReplicaRoutingDataSource;
+import com.avangrid.gui.avangrid_backend.infra.generic.VpiUserRepo;
+import com.avangrid.gui.avangrid_backend.infra.nyseg.repository.VpiNysegUserRepo;
+import com.avangrid.gui.avangrid_backend.infra.rge.repository.VpiRgeUserRepo;
+import com.avangrid.gui.avangrid_backend.model.VpiUsersBase;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory copy of each OPCO's user table with a trigram index on full names.
+ *
+ * <p>The user tables are small and rarely change, so they are loaded once at startup
+ * and reloaded in the background every {@code search.user-directory.refresh}. Name
+ * filters ("full name contains") and name enrichment are then answered from memory
+ * instead of scanning {@code vpusers} with {@code like any (...)} on every search.
+ * Until an OPCO's first load succeeds {@link #isLoaded(String)} is false and callers
+ * fall back to the database. Users added after the last refresh are not seen until
+ * the next one.
+ *
+ * <p>Published metrics, tagged by {@code opco}:
+ * {@code search.user-directory.size}, {@code search.user-directory.age} (seconds since
+ * the last successful load) and {@code search.user-directory.refresh} (load time,
+ * tagged with {@code outcome}).
+ */
+@Component
+public class UserDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+
+    private static final int GRAM = 3;
+
+    private final Map<String, VpiUserRepo<? extends VpiUsersBase>> repos = new LinkedHashMap<>();
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration refreshInterval;
+    private final MeterRegistry meterRegistry;
+
+    private ScheduledExecutorService refresher;
+
+    public UserDirectory(
+            @Autowired(required = false) VpiCmpUserRepo cmpUserRepo,
+            @Autowired(required = false) VpiNysegUserRepo nysegUserRepo,
+            @Autowired(required = false) VpiRgeUserRepo rgeUserRepo,
+            @Value("${search.user-directory.enabled:true}") boolean enabled,
+            @Value("${search.user-directory.refresh:10m}") Duration refreshInterval,
+            MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+        this.refreshInterval = refreshInterval;
+        this.meterRegistry = meterRegistry;
+
+        if (cmpUserRepo != null) repos.put("CMP", cmpUserRepo);
+        if (nysegUserRepo != null) repos.put("NYSEG", nysegUserRepo);
+        if (rgeUserRepo != null) repos.put("RGE", rgeUserRepo);
+
+        for (String opco : repos.keySet()) {
+            Gauge.builder("search.user-directory.size", this, d -> d.size(opco))
+                    .description("Users held in memory for the OPCO")
+                    .tag("opco", opco)
+                    .register(meterRegistry);
+            Gauge.builder("search.user-directory.age", this, d -> d.ageSeconds(opco))
+                    .description("Seconds since the OPCO's users were last loaded")
+                    .baseUnit("seconds")
+                    .tag("opco", opco)
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled || repos.isEmpty()) {
+            logger.info("User directory disabled, user names are resolved from the database");
+            return;
+        }
+
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-directory");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshAll, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether the OPCO's users are held in memory.
+     *
+     * @param opco OPCO code
+     * @return true once the first load for the OPCO succeeded
+     */
+    public boolean isLoaded(String opco) {
+        return snapshots.containsKey(opco.toUpperCase());
+    }
+
+    /**
+     * Finds users whose full name contains any of the names, ignoring case.
+     *
+     * @param opco OPCO code
+     * @param names Names to match
+     * @return Matching user IDs, or empty when the OPCO is not loaded
+     */
+    public Optional<Set<UUID>> findUserIdsByNameContainsAny(String opco, List<String> names) {
+        Snapshot snapshot = snapshots.get(opco.toUpperCase());
+        return snapshot == null ? Optional.empty() : Optional.of(snapshot.containsAny(names));
+    }
+
+    /**
+     * Looks up full names by user ID. IDs unknown to the directory are left out.
+     *
+     * @param opco OPCO code
+     * @param userIds User IDs
+     * @return Map of user ID to full name, or empty when the OPCO is not loaded
+     */
+    public Optional<Map<UUID, String>> findNames(String opco, Collection<UUID> userIds) {
+        Snapshot snapshot = snapshots.get(opco.toUpperCase());
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+
+        Map<UUID, String> names = new HashMap<>();
+        for (UUID userId : userIds) {
+            String name = snapshot.namesById.get(userId);
+            if (name != null) {
+                names.put(userId, name);
+            }
+        }
+        return Optional.of(names);
+    }
+
+    /**
+     * Looks up one full name by user ID, for rows written as they are read.
+     *
+     * @param opco OPCO code
+     * @param userId User ID (nullable)
+     * @return Full name, or null when the ID or the OPCO is not loaded
+     */
+    public String findName(String opco, UUID userId) {
+        Snapshot snapshot = snapshots.get(opco.toUpperCase());
+        return snapshot == null || userId == null ? null : snapshot.namesById.get(userId);
+    }
+
+    /**
+     * Reloads every OPCO. A failed load keeps the previous copy.
+     */
+    public void refreshAll() {
+        repos.forEach(this::refresh);
+    }
+
+    private void refresh(String opco, VpiUserRepo<? extends VpiUsersBase> repo) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Snapshot snapshot = Snapshot.of(ReplicaRoutingDataSource.read(false, repo::findAll));
+            snapshots.put(opco, snapshot);
+            sample.stop(refreshTimer(opco, "success"));
+            logger.debug("Loaded {} users for {}", snapshot.namesById.size(), opco);
+        } catch (RuntimeException e) {
+            sample.stop(refreshTimer(opco, "failure"));
+            logger.warn("Failed to load users for {}: {}", opco, e.getMessage());
+        }
+    }
+
+    private Timer refreshTimer(String opco, String outcome) {
+        return Timer.builder("search.user-directory.refresh")
+                .description("Time to load an OPCO's users into memory")
+                .tag("opco", opco)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private double size(String opco) {
+        Snapshot snapshot = snapshots.get(opco);
+        return snapshot == null ? 0 : snapshot.namesById.size();
+    }
+
+    private double ageSeconds(String opco) {
+        Snapshot snapshot = snapshots.get(opco);
+        return snapshot == null
+                ? Double.NaN
+                : Duration.between(snapshot.loadedAt, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Immutable copy of one OPCO's users. Posting lists hold user positions
+     * in ascending order.
+     */
+    private static final class Snapshot {
+
+        private static final int[] NO_USERS = new int[0];
+
+        private final UUID[] userIds;
+        private final String[] lowerNames;
+        private final Map<UUID, String> namesById;
+        private final Map<String, int[]> postings;
+        private final Instant loadedAt = Instant.now();
+
+        private Snapshot(UUID[] userIds, String[] lowerNames,
+                         Map<UUID, String> namesById, Map<String, int[]> postings) {
+            this.userIds = userIds;
+            this.lowerNames = lowerNames;
+            this.namesById = namesById;
+            this.postings = postings;
+        }
+
+        static Snapshot of(List<? extends VpiUsersBase> users) {
+            int count = users.size();
+            UUID[] userIds = new UUID[count];
+            String[] lowerNames = new String[count];
+            Map<UUID, String> namesById = new HashMap<>(count * 2);
+            Map<String, List<Integer>> grams = new HashMap<>();
+
+            for (int i = 0; i < count; i++) {
+                VpiUsersBase user = users.get(i);
+                String name = user.getFullName() == null ? "" : user.getFullName();
+                userIds[i] = user.getUserId();
+                lowerNames[i] = name.toLowerCase(Locale.ROOT);
+                namesById.put(user.getUserId(), name);
+
+                Set<String> seen = new HashSet<>();
+                for (int start = 0; start + GRAM <= lowerNames[i].length(); start++) {
+                    String gram = lowerNames[i].substring(start, start + GRAM);
+                    if (seen.add(gram)) {
+                        grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(i);
+                    }
+                }
+            }
+
+            Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+            grams.forEach((gram, positions) ->
+                    postings.put(gram, positions.stream().mapToInt(Integer::intValue).toArray()));
+
+            return new Snapshot(userIds, lowerNames, Collections.unmodifiableMap(namesById), postings);
+        }
+
+        Set<UUID> containsAny(List<String> names) {
+            Set<UUID> matches = new HashSet<>();
+            for (String name : names) {
+                if (name == null || name.isBlank()) {
+                    continue;
+                }
+                String needle = normalize(name);
+                for (int position : candidates(needle)) {
+                    if (lowerNames[position].contains(needle)) {
+                        matches.add(userIds[position]);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * Users that may contain the needle: the shortest posting list among the
+         * needle's trigrams, or every user for needles shorter than a trigram.
+         */
+        private int[] candidates(String needle) {
+            if (needle.length() < GRAM) {
+                int[] all = new int[userIds.length];
+                Arrays.setAll(all, i -> i);
+                return all;
+            }
+
+            int[] shortest = null;
+            for (int start = 0; start + GRAM <= needle.length(); start++) {
+                int[] posting = postings.get(needle.substring(start, start + GRAM));
+                if (posting == null) {
+                    return NO_USERS;
+                }
+                if (shortest == null || posting.length < shortest.length) {
+                    shortest = posting;
+                }
+            }
+            return shortest;
+        }
+    }
+}
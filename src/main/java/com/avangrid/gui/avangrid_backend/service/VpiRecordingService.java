@@ -1,1821 +1,3680 @@
-package com.avangrid.gui.avangrid_backend.service;
-
-import com.avangrid.gui.avangrid_backend.exception.InvalidRequestException;
-import com.avangrid.gui.avangrid_backend.exception.RecordingNotFoundException;
-import com.avangrid.gui.avangrid_backend.exception.RecordingProcessingException;
-import com.avangrid.gui.avangrid_backend.infra.cmp.entity.VpiCaptureCmp;
-import com.avangrid.gui.avangrid_backend.infra.cmp.entity.VpiUsersCmp;
-import com.avangrid.gui.avangrid_backend.infra.cmp.repository.VpiCmpRepo;
-import com.avangrid.gui.avangrid_backend.infra.cmp.repository.VpiCmpUserRepo;
-import com.avangrid.gui.avangrid_backend.infra.nyseg.entity.VpiCaptureNyseg;
-import com.avangrid.gui.avangrid_backend.infra.nyseg.entity.VpiUsersNyseg;
-import com.avangrid.gui.avangrid_backend.infra.nyseg.repository.VpiNysegRepo;
-import com.avangrid.gui.avangrid_backend.infra.nyseg.repository.VpiNysegUserRepo;
-import com.avangrid.gui.avangrid_backend.infra.rge.entity.VpiCaptureRge;
-import com.avangrid.gui.avangrid_backend.infra.rge.entity.VpiUsersRge;
-import com.avangrid.gui.avangrid_backend.infra.rge.repository.VpiRgeRepo;
-import com.avangrid.gui.avangrid_backend.infra.rge.repository.VpiRgeUserRepo;
-import com.avangrid.gui.avangrid_backend.model.*;
-import com.avangrid.gui.avangrid_backend.infra.azure.AzureBlobRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import org.springframework.beans.factory.annotation.Value;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.data.domain.*;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Service;
-import org.springframework.util.StreamUtils;
-import org.springframework.util.StringUtils;
-
-import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.time.*;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoField;
-import java.time.temporal.TemporalAccessor;
-import java.util.*;
-import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-
-/**
- * Service for managing VPI (Voice Portal Interface) recordings.
- *
- * <p>This service provides comprehensive functionality for:
- * <ul>
- *   <li>Recording retrieval and search across multiple operating companies (OPCO)</li>
- *   <li>Audio format conversion from WAV to MP3 using FFmpeg</li>
- *   <li>Bulk download operations with ZIP packaging</li>
- *   <li>Metadata extraction and management</li>
- * </ul>
- *
- * <p>Supported OPCOs: RGE, CMP, NYSEG
- *
- * @author Avangrid Backend Team
- * @version 1.0
- * @since 2024
- */
-@Service
-public class VpiRecordingService {
-
-    private static final Logger logger = LoggerFactory.getLogger(VpiRecordingService.class);
-
-    // ========== Constants ==========
-
-    private static final DateTimeFormatter DATE_TIME_FORMATTER =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final DateTimeFormatter XML_FORMATTER =
-            DateTimeFormatter.ofPattern("M/d/yyyy h:mm:ss a", Locale.US);
-
-    private static final int DEFAULT_PAGE_SIZE = 20;
-    private static final int MIN_PAGE_NUMBER = 1;
-    private static final String STATUS_SUCCESS = "200";
-    private static final String MESSAGE_SUCCESS = "Success";
-    private static final Set<String> ALLOWED_OPCOS = Set.of("RGE", "CMP", "NYSEG");
-
-    private static final String WAV_EXTENSION = ".wav";
-    private static final String MP3_EXTENSION = ".mp3";
-    private static final int FILENAME_CUSTOMER_START = 24;
-    private static final int FILENAME_DATETIME_START = 5;
-    private static final int FILENAME_DATETIME_END = 24;
-
-    private static final int CONVERSION_TIMEOUT_SECONDS = 120;
-    private static final int BUFFER_SIZE = 8192;
-
-    private static final String STATUS_NOT_FOUND = "NOT_FOUND";
-    private static final String STATUS_ERROR = "ERROR";
-    private static final String STATUS_RECORDING_SUCCESS = "SUCCESS";
-
-    // ========== Dependencies ==========
-
-    @Value("${ffmpeg.path:ffmpeg}")
-    private String ffmpegPath;
-
-    private final AzureBlobRepository vpiAzureRepository;
-    private final VpiCmpRepo cmpRepo;
-    private final VpiNysegRepo nysegRepo;
-    private final VpiRgeRepo rgeRepo;
-    private final VpiRgeUserRepo rgeUserRepo;
-    private final VpiNysegUserRepo nysegUserRepo;
-    private final VpiCmpUserRepo cmpUserRepo;
-    private final XmlMediaParser xmlParser;
-
-    /**
-     * Constructs a new VpiRecordingService with the required dependencies.
-     *
-     * @param vpiAzureRepository Azure blob storage repository for recording files
-     * @param cmpRepo CMP database repository (optional)
-     * @param nysegRepo NYSEG database repository (optional)
-     * @param rgeRepo RGE database repository (optional)
-     * @param cmpUserRepo CMP user repository (optional)
-     * @param nysegUserRepo NYSEG user repository (optional)
-     * @param rgeUserRepo RGE user repository (optional)
-     * @param xmlParser XML metadata parser
-     */
-    public VpiRecordingService(
-            AzureBlobRepository vpiAzureRepository,
-            @Autowired(required = false) VpiCmpRepo cmpRepo,
-            @Autowired(required = false) VpiNysegRepo nysegRepo,
-            @Autowired(required = false) VpiRgeRepo rgeRepo,
-            @Autowired(required = false) VpiCmpUserRepo cmpUserRepo,
-            @Autowired(required = false) VpiNysegUserRepo nysegUserRepo,
-            @Autowired(required = false) VpiRgeUserRepo rgeUserRepo,
-            @Autowired XmlMediaParser xmlParser) {
-        this.vpiAzureRepository = vpiAzureRepository;
-        this.cmpRepo = cmpRepo;
-        this.nysegRepo = nysegRepo;
-        this.rgeRepo = rgeRepo;
-        this.rgeUserRepo = rgeUserRepo;
-        this.nysegUserRepo = nysegUserRepo;
-        this.cmpUserRepo = cmpUserRepo;
-        this.xmlParser = xmlParser;
-    }
-
-    // ========== Public API Methods ==========
-
-    /**
-     * Retrieves paginated table data based on search criteria.
-     *
-     * <p>This method supports:
-     * <ul>
-     *   <li>Date range filtering</li>
-     *   <li>OPCO-specific searches</li>
-     *   <li>Custom filters (tags, channels, etc.)</li>
-     *   <li>User name filtering</li>
-     *   <li>Pagination with configurable page size</li>
-     * </ul>
-     *
-     * @param request Search request containing date range, OPCO, filters, and pagination
-     * @return VpiSearchResponse with paginated results and metadata
-     * @throws InvalidRequestException if date range or parameters are invalid
-     * @throws IllegalArgumentException if end date is before start date
-     */
-    public VpiSearchResponse getTableData(VpiSearchRequest request) {
-        logger.debug("Fetching table data for request: {}", request);
-
-        validateSearchRequest(request);
-
-        OffsetDateTime from = parseDateTime(request.getFrom_date()).atOffset(ZoneOffset.UTC);
-        OffsetDateTime to = parseDateTime(request.getTo_date()).atOffset(ZoneOffset.UTC);
-
-        if (to.isBefore(from)) {
-            throw new InvalidRequestException("End date must be after start date");
-        }
-
-        Pageable pageable = createPageable(request.getPagination());
-        Page<VpiMetadata> pageResult = search(from, to, request.getOpco(), request.getFilters(), pageable);
-
-        return buildSearchResponse(pageResult);
-    }
-
-    /**
-     * Retrieves comprehensive metadata for a specific recording.
-     *
-     * <p>Returns all available metadata fields including:
-     * <ul>
-     *   <li>Timing information (start time, duration, GMT offset)</li>
-     *   <li>Channel and agent details</li>
-     *   <li>Call identifiers (call ID, global call ID)</li>
-     *   <li>Media file information</li>
-     *   <li>Transcription status</li>
-     * </ul>
-     *
-     * @param id Unique identifier (UUID) of the recording
-     * @param opco Operating company code (RGE, CMP, or NYSEG)
-     * @return Map containing all metadata fields with their values
-     * @throws InvalidRequestException if OPCO is invalid or null
-     * @throws RecordingNotFoundException if recording with given ID is not found
-     */
-    public Map<String, Object> getMetadata(UUID id, String opco) {
-        logger.debug("Fetching metadata for id: {} and opco: {}", id, opco);
-
-        validateOpco(opco);
-
-        List<Map<String, Object>> metadata = getMetadataByOpco(id, opco);
-
-        if (metadata.isEmpty()) {
-            throw new RecordingNotFoundException(
-                    String.format("Recording not found with ID=%s and OPCO=%s", id, opco));
-        }
-
-        return metadata.getFirst();
-    }
-
-    /**
-     * Retrieves a VPI recording and converts it to MP3 format.
-     *
-     * <p>Process flow:
-     * <ol>
-     *   <li>Validates the request parameters</li>
-     *   <li>Searches for the recording in Azure blob storage</li>
-     *   <li>Downloads the WAV file</li>
-     *   <li>Converts to MP3 using FFmpeg</li>
-     *   <li>Returns as a streamable response</li>
-     * </ol>
-     *
-     * @param request Recording request with filename, OPCO, date, and optional filters
-     * @return ResponseEntity containing MP3 audio data with appropriate headers
-     * @throws InvalidRequestException if request parameters are invalid
-     * @throws RecordingNotFoundException if recording is not found in storage
-     * @throws RecordingProcessingException if download or conversion fails
-     */
-    public ResponseEntity<ByteArrayResource> getRecordingVpi(RecordingRequest request) {
-        logger.info("Retrieving recording for: {}", request.getUsername());
-
-        validateRequest(request);
-        RecordingSearchResult blobStatus = findRecordingVPI(request);
-
-        byte[] wavData = downloadBlob(blobStatus.getBlobName());
-        byte[] mp3Data = convertWavToMp3(wavData);
-
-        return buildAudioResponse(mp3Data, request.getUsername());
-    }
-
-    /**
-     * Downloads multiple VPI recordings as a ZIP archive.
-     *
-     * <p>Features:
-     * <ul>
-     *   <li>Batch processing of multiple recordings</li>
-     *   <li>Individual error handling per recording</li>
-     *   <li>Status summary JSON file included in ZIP</li>
-     *   <li>Continues processing even if some recordings fail</li>
-     * </ul>
-     *
-     * <p>The ZIP contains:
-     * <ul>
-     *   <li>Successfully retrieved MP3 files</li>
-     *   <li>status.json with detailed processing results</li>
-     * </ul>
-     *
-     * @param requests List of recording requests to download
-     * @return ResponseEntity containing ZIP file with all available recordings and status
-     * @throws InvalidRequestException if request list is empty
-     * @throws RecordingProcessingException if ZIP creation fails
-     */
-    public ResponseEntity<byte[]> downloadVpi(List<RecordingRequest> requests) {
-        if (requests == null || requests.isEmpty()) {
-            throw new InvalidRequestException("Request list cannot be empty");
-        }
-
-        List<RecordingStatus> statuses = new ArrayList<>();
-        int successCount = 0;
-        int failureCount = 0;
-
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ZipOutputStream zos = new ZipOutputStream(baos)) {
-
-            for (RecordingRequest req : requests) {
-                RecordingStatus status = addRecordingToZip(req, zos);
-                statuses.add(status);
-
-                if (STATUS_RECORDING_SUCCESS.equals(status.getStatus())) {
-                    successCount++;
-                } else {
-                    failureCount++;
-                }
-            }
-
-            if (successCount == 0) {
-                logger.warn("No recordings successfully added to ZIP. Returning no content.");
-                return ResponseEntity.noContent().build();
-            }
-
-            ZipStatusSummary summary = new ZipStatusSummary(
-                    requests.size(),
-                    successCount,
-                    failureCount,
-                    statuses
-            );
-            addStatusFileToZip(summary, zos);
-
-            zos.finish();
-            logger.info("ZIP creation successful: {} successes, {} failures", successCount, failureCount);
-            return buildZipResponse(baos.toByteArray());
-
-        } catch (IOException e) {
-            throw new RecordingProcessingException("Failed to create ZIP", e);
-        }
-    }
-
-    /**
-     * Searches for recordings based on comprehensive criteria.
-     *
-     * <p>Search capabilities:
-     * <ul>
-     *   <li>Date/time range filtering</li>
-     *   <li>OPCO-specific searches</li>
-     *   <li>User name matching (partial matches supported)</li>
-     *   <li>Channel, extension, and tag filtering</li>
-     *   <li>Duration and call direction filters</li>
-     * </ul>
-     *
-     * @param from Start date/time (inclusive)
-     * @param to End date/time (inclusive)
-     * @param opco Operating company code
-     * @param filters Additional search filters (nullable)
-     * @param pageable Pagination information
-     * @return Page of VpiMetadata results matching the criteria
-     * @throws InvalidRequestException if OPCO is invalid
-     */
-    public Page<VpiMetadata> search(
-            OffsetDateTime from,
-            OffsetDateTime to,
-            String opco,
-            VpiFiltersRequest filters,
-            Pageable pageable) {
-
-        logger.debug("Searching recordings for OPCO: {} from {} to {}", opco, from, to);
-
-        validateOpco(opco);
-
-        List<String> cleanedNames = cleanNames(filters != null ? filters.getName() : null);
-        Set<UUID> matchedUserIds = Collections.emptySet();
-
-        if (!cleanedNames.isEmpty()) {
-            matchedUserIds = fetchMatchedUserIds(opco, cleanedNames);
-
-            if (matchedUserIds.isEmpty()) {
-                logger.debug("No users matched the name filter. Returning empty page.");
-                return Page.empty(pageable);
-            }
-        }
-
-        return performSearch(from, to, opco, filters, matchedUserIds, pageable);
-    }
-
-    /**
-     * Converts WAV audio data to MP3 format using FFmpeg.
-     *
-     * <p>Conversion specifications:
-     * <ul>
-     *   <li>Codec: libmp3lame</li>
-     *   <li>Bitrate: 128 kbps</li>
-     *   <li>Sample rate: 44100 Hz</li>
-     *   <li>Channels: 2 (stereo)</li>
-     *   <li>Timeout: 120 seconds</li>
-     * </ul>
-     *
-     * <p>This method uses asynchronous I/O for efficient processing and includes
-     * comprehensive error handling for conversion failures.
-     *
-     * @param wavData Raw WAV audio bytes
-     * @return MP3 encoded audio bytes
-     * @throws InvalidRequestException if WAV data is null or empty
-     * @throws RecordingProcessingException if FFmpeg fails or times out
-     */
-    public byte[] convertWavToMp3(byte[] wavData) {
-        if (wavData == null || wavData.length == 0) {
-            throw new InvalidRequestException("WAV data is empty");
-        }
-
-        Process process = null;
-        try {
-            process = startFfmpegProcess();
-            final Process proc = process;
-
-            CompletableFuture<String> errorReader = readErrorStream(proc);
-            CompletableFuture<Void> writer = writeInputData(proc, wavData);
-            CompletableFuture<byte[]> reader = readOutputData(proc);
-
-            CompletableFuture.allOf(writer, reader, errorReader)
-                    .get(CONVERSION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-
-            byte[] mp3Data = reader.get();
-            String errors = errorReader.get();
-
-            int exitCode = process.waitFor();
-
-            validateConversionResult(exitCode, errors, wavData.length, mp3Data.length);
-
-            return mp3Data;
-
-        } catch (TimeoutException e) {
-            destroyProcess(process);
-           throw new RecordingProcessingException(
-                    "Conversion timed out after " + CONVERSION_TIMEOUT_SECONDS + " seconds", e);
-        } catch (ExecutionException e) {
-           throw new RecordingProcessingException("Conversion failed", e.getCause());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            destroyProcess(process);
-            throw new RecordingProcessingException("Conversion interrupted", e);
-        } catch (IOException e) {
-            throw new RecordingProcessingException("Failed to start FFmpeg process", e);
-        } finally {
-            destroyProcess(process);
-        }
-    }
-
-    // ========== Validation Methods ==========
-
-    /**
-     * Validates a search request for completeness and correctness.
-     *
-     * @param request The search request to validate
-     * @throws InvalidRequestException if any required field is missing or invalid
-     */
-    private void validateSearchRequest(VpiSearchRequest request) {
-        if (request == null) {
-            throw new InvalidRequestException("Search request cannot be null");
-        }
-        validateRequiredField(request.getFrom_date(), "From date");
-        validateRequiredField(request.getTo_date(), "To date");
-        validateRequiredField(request.getOpco(), "OPCO");
-        validateOpco(request.getOpco());
-    }
-
-    /**
-     * Validates a recording request for completeness.
-     *
-     * @param req The recording request to validate
-     * @throws InvalidRequestException if any required field is missing
-     */
-    private void validateRequest(RecordingRequest req) {
-        if (req == null) {
-            throw new InvalidRequestException("Request cannot be null");
-        }
-        validateRequiredField(req.getOpco(), "OPCO");
-        validateRequiredField(req.getDate(), "Date");
-        validateOpco(req.getOpco());
-    }
-
-    /**
-     * Validates an OPCO code against allowed values and checks repository availability.
-     *
-     * @param opco The OPCO code to validate
-     * @throws InvalidRequestException if OPCO is invalid or its datasource is disabled
-     */
-    private void validateOpco(String opco) {
-        assertRepoEnabled(opco);
-        validateRequiredField(opco, "OPCO");
-
-        if (!ALLOWED_OPCOS.contains(opco.trim().toUpperCase())) {
-            throw new InvalidRequestException(
-                    String.format("Invalid OPCO '%s'. Allowed values: %s",
-                            opco, String.join(", ", ALLOWED_OPCOS)));
-        }
-    }
-
-    /**
-     * Validates that a required field has a value.
-     *
-     * @param value The field value to check
-     * @param fieldName The name of the field (for error messages)
-     * @throws InvalidRequestException if the field is null or empty
-     */
-    private void validateRequiredField(String value, String fieldName) {
-        if (!StringUtils.hasText(value)) {
-            throw new InvalidRequestException(fieldName + " is required");
-        }
-    }
-
-    /**
-     * Asserts that the repository for the given OPCO is enabled.
-     *
-     * @param opco The OPCO code to check
-     * @throws InvalidRequestException if the datasource for this OPCO is disabled
-     */
-    private void assertRepoEnabled(String opco) {
-        String upperOpco = opco.toUpperCase();
-
-        if ("CMP".equals(upperOpco) && cmpRepo == null) {
-            throw new InvalidRequestException("CMP datasource is disabled");
-        }
-        if ("NYSEG".equals(upperOpco) && nysegRepo == null) {
-            throw new InvalidRequestException("NYSEG datasource is disabled");
-        }
-        if ("RGE".equals(upperOpco) && rgeRepo == null) {
-            throw new InvalidRequestException("RGE datasource is disabled");
-        }
-    }
-
-    // ========== Date/Time Utility Methods ==========
-
-    /**
-     * Parses a date-time string in the standard format (yyyy-MM-dd HH:mm:ss).
-     *
-     * @param dateStr The date string to parse
-     * @return LocalDateTime object
-     * @throws InvalidRequestException if the format is invalid
-     */
-    private LocalDateTime parseDateTime(String dateStr) {
-        try {
-            return LocalDateTime.parse(dateStr, DATE_TIME_FORMATTER);
-        } catch (DateTimeParseException e) {
-            throw new InvalidRequestException(
-                    String.format("Invalid date format '%s'. Expected format: yyyy-MM-dd HH:mm:ss", dateStr), e);
-        }
-    }
-
-    /**
-     * Parses a date-time string in XML format (M/d/yyyy h:mm:ss a).
-     *
-     * @param dateStr The XML date string to parse
-     * @return LocalDateTime object
-     * @throws InvalidRequestException if the format is invalid
-     */
-    private LocalDateTime parseDateTimeXML(String dateStr) {
-        try {
-            return LocalDateTime.parse(dateStr, XML_FORMATTER);
-        } catch (DateTimeParseException e) {
-            throw new InvalidRequestException(
-                    String.format("Invalid date format '%s'. Expected format: M/d/yyyy h:mm:ss a", dateStr), e);
-        }
-    }
-
-    /**
-     * Converts an OffsetDateTime to XML start time format.
-     *
-     * @param dateTime The datetime to convert
-     * @return Formatted string in XML format, or null if input is null
-     */
-    public static String toXmlStartTime(OffsetDateTime dateTime) {
-        if (dateTime == null) {
-            return null;
-        }
-
-        OffsetDateTime utc = dateTime.withOffsetSameInstant(ZoneOffset.UTC);
-        LocalDateTime local = utc.toLocalDateTime().withNano(0);
-
-        return local.format(XML_FORMATTER);
-    }
-
-    /**
-     * Converts XML start time format to file timestamp format.
-     *
-     * <p>Example: "1/15/2024 3:45:30 PM" → "2024-01-15_03-45-30"
-     *
-     * @param xmlStartTime The XML start time string
-     * @return File timestamp string
-     * @throws IllegalArgumentException if input is null, empty, or invalid format
-     */
-    public String xmlStartTimeToFileTimestamp(String xmlStartTime) {
-        if (xmlStartTime == null || xmlStartTime.isBlank()) {
-            throw new IllegalArgumentException("xmlStartTime cannot be null or empty");
-        }
-
-        try {
-            TemporalAccessor parsed = XML_FORMATTER.parse(xmlStartTime);
-
-            int year = parsed.get(ChronoField.YEAR);
-            int month = parsed.get(ChronoField.MONTH_OF_YEAR);
-            int day = parsed.get(ChronoField.DAY_OF_MONTH);
-            int hour12 = parsed.get(ChronoField.CLOCK_HOUR_OF_AMPM);
-            int minute = parsed.get(ChronoField.MINUTE_OF_HOUR);
-            int second = parsed.get(ChronoField.SECOND_OF_MINUTE);
-
-            return String.format("%04d-%02d-%02d_%02d-%02d-%02d",
-                    year, month, day, hour12, minute, second);
-
-        } catch (DateTimeParseException ex) {
-            throw new IllegalArgumentException(
-                    "Invalid XML startTime format. Expected: M/d/yyyy h:mm:ss a → " + xmlStartTime, ex);
-        }
-    }
-
-    // ========== Pagination Utility Methods ==========
-
-    /**
-     * Creates a Pageable object from pagination request.
-     *
-     * @param pagination The pagination request (nullable)
-     * @return Pageable with safe defaults if request is null
-     */
-    private Pageable createPageable(PaginationRequest pagination) {
-        int pageNumber = pagination != null ? pagination.getPageNumber() : MIN_PAGE_NUMBER;
-        int requestedPageSize = pagination != null ? pagination.getPageSize() : DEFAULT_PAGE_SIZE;
-
-        int pageSize = requestedPageSize > 0 ? requestedPageSize : DEFAULT_PAGE_SIZE;
-        int safePage = Math.max(pageNumber - 1, 0);
-
-        return PageRequest.of(safePage, pageSize, Sort.by("dateAdded").descending());
-    }
-
-    /**
-     * Builds a search response from a page result.
-     *
-     * @param pageResult The page of results
-     * @return Formatted VpiSearchResponse
-     */
-    private VpiSearchResponse buildSearchResponse(Page<VpiMetadata> pageResult) {
-        VpiSearchResponse response = new VpiSearchResponse();
-        PaginationResponse pageResponse = new PaginationResponse();
-
-        response.setData(pageResult.getContent());
-        response.setMessage(MESSAGE_SUCCESS);
-        response.setStatus(STATUS_SUCCESS);
-
-        pageResponse.setPageNumber(pageResult.getNumber() + 1);
-        pageResponse.setPageSize(pageResult.getSize());
-        pageResponse.setTotalRecords(pageResult.getTotalElements());
-        pageResponse.setTotalPages(pageResult.getTotalPages());
-        response.setPagination(pageResponse);
-
-        return response;
-    }
-
-    // ========== String Utility Methods ==========
-
-    /**
-     * Cleans a list of names by removing nulls, trimming, and filtering empty strings.
-     *
-     * @param names The list of names to clean (nullable)
-     * @return Cleaned list of names
-     */
-    private List<String> cleanNames(List<String> names) {
-        if (names == null) {
-            return Collections.emptyList();
-        }
-
-        return names.stream()
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(name -> !name.isEmpty())
-                .toList();
-    }
-
-    /**
-     * Normalizes a string to lowercase for case-insensitive comparison.
-     *
-     * @param value The value to normalize
-     * @return Normalized lowercase string, or empty string if null
-     */
-    private String normalize(String value) {
-        return value == null ? "" : value.toLowerCase(Locale.ROOT);
-    }
-
-    /**
-     * Checks if a string is null or empty after trimming.
-     *
-     * @param value The string to check
-     * @return true if null or empty, false otherwise
-     */
-    private boolean isNullOrEmpty(String value) {
-        return value == null || value.trim().isEmpty();
-    }
-
-    // ========== Recording Search Methods ==========
-
-    /**
-     * Finds a VPI recording in Azure blob storage matching the request criteria.
-     *
-     * <p>Search strategy:
-     * <ol>
-     *   <li>Build day-based prefix for blob search</li>
-     *   <li>Find XML metadata files matching timestamp and customer</li>
-     *   <li>Parse XML files and filter by metadata fields</li>
-     *   <li>Return the first successful match</li>
-     * </ol>
-     *
-     * @param req The recording request with search criteria
-     * @return RecordingSearchResult containing blob name and match status
-     * @throws RecordingNotFoundException if no matching recording is found
-     */
-    private RecordingSearchResult findRecordingVPI(RecordingRequest req) {
-        String fileDate = xmlStartTimeToFileTimestamp(req.getDate());
-        String prefix = buildDayPrefix(req.getOpco(), parseDateTimeXML(req.getDate()).toLocalDate());
-        String normalizedCustomer = normalize(req.getUsername());
-
-        List<String> xmlCandidates = findXmlCandidates(req.getOpco(), prefix, fileDate, normalizedCustomer);
-
-        if (xmlCandidates.isEmpty()) {
-            throw new RecordingNotFoundException("No XML recordings found");
-        }
-
-        List<MediaMetadata> matchedMedia = processXmlCandidates(
-                xmlCandidates, fileDate, normalizedCustomer, req);
-
-        return buildRecordingResult(matchedMedia, prefix);
-    }
-
-    /**
-     * Finds XML blob candidates based on OPCO type.
-     *
-     * @param opco Operating company code
-     * @param prefix Blob prefix path
-     * @param fileDate File timestamp
-     * @param normalizedCustomer Normalized customer name
-     * @return List of XML blob names
-     */
-    private List<String> findXmlCandidates(String opco, String prefix,
-                                           String fileDate, String normalizedCustomer) {
-        return "CMP".equalsIgnoreCase(opco)
-                ? findCmpXmlBlobs(prefix + "Metadata/")
-                : findMatchingXmlBlobs(prefix, fileDate, normalizedCustomer);
-    }
-
-    /**
-     * Processes XML candidates and extracts matching media metadata.
-     *
-     * @param xmlCandidates List of XML blob names to process
-     * @param fileDate Expected file timestamp
-     * @param normalizedCustomer Normalized customer name
-     * @param req Recording request with filter criteria
-     * @return List of matched MediaMetadata
-     * @throws RecordingNotFoundException if no matches found
-     */
-    private List<MediaMetadata> processXmlCandidates(List<String> xmlCandidates,
-                                                     String fileDate,
-                                                     String normalizedCustomer,
-                                                     RecordingRequest req) {
-        List<MediaMetadata> matchedMedia = new ArrayList<>();
-        boolean metadataFoundButNoMatch = false;
-
-        for (String xmlBlob : xmlCandidates) {
-            List<MediaMetadata> metaMatch = parseXml(xmlBlob);
-
-            if (metaMatch.size() > 1) {
-                metaMatch = findMatchingMediaCMP(metaMatch, fileDate, normalizedCustomer);
-            }
-
-            for (MediaMetadata media : metaMatch) {
-                if (matchesMetadata(media, req.getAniAliDigits(), req.getDuration(),
-                        req.getExtensionNum(), req.getChannelNum(), req.getObjectId())) {
-                    metadataFoundButNoMatch = true;
-
-                    if (STATUS_RECORDING_SUCCESS.equals(media.getResult())) {
-                        matchedMedia.add(media);
-                    }
-                }
-            }
-        }
-
-        validateMatchedMedia(matchedMedia, metadataFoundButNoMatch);
-        return matchedMedia;
-    }
-
-    /**
-     * Validates that matched media is not empty and throws appropriate exception.
-     *
-     * @param matchedMedia List of matched media
-     * @param metadataFoundButNoMatch Flag indicating if metadata was found but didn't match
-     * @throws RecordingNotFoundException if no matches found with appropriate message
-     */
-    private void validateMatchedMedia(List<MediaMetadata> matchedMedia,
-                                      boolean metadataFoundButNoMatch) {
-        if (matchedMedia.isEmpty()) {
-            if (metadataFoundButNoMatch) {
-                throw new RecordingNotFoundException("Recording audio is not migrated to the Azure blob");
-            }
-            throw new RecordingNotFoundException("Recording xml found but metadata mismatch");
-        }
-    }
-
-    /**
-     * Builds the final recording search result from matched media.
-     *
-     * @param matchedMedia List of matched media metadata
-     * @param prefix Blob prefix path
-     * @return RecordingSearchResult with blob name and multiple match flag
-     */
-    private RecordingSearchResult buildRecordingResult(List<MediaMetadata> matchedMedia, String prefix) {
-        RecordingSearchResult result = new RecordingSearchResult();
-        result.setBlobName(prefix + matchedMedia.getFirst().getFileName());
-
-        if (matchedMedia.size() > 1) {
-            result.setMultipleFound(true);
-            logger.warn("Multiple recordings found for request. Using first match.");
-        }
-
-        return result;
-    }
-    /**
-     * Finds XML blob files for CMP OPCO.
-     *
-     * @param dayPrefix The day prefix path
-     * @return List of XML blob names
-     */
-    private List<String> findCmpXmlBlobs(String dayPrefix) {
-        List<String> blobs = vpiAzureRepository.listBlobs(dayPrefix);
-        return blobs.stream()
-                .filter(blob -> blob.toLowerCase(Locale.ROOT).endsWith(".xml"))
-                .toList();
-    }
-
-    /**
-     * Finds XML blobs matching timestamp and customer name.
-     *
-     * @param prefix The blob prefix
-     * @param expectedDateTime The expected timestamp
-     * @param normalizedCustomer The normalized customer name
-     * @return List of matching XML blob names
-     */
-    private List<String> findMatchingXmlBlobs(String prefix,
-                                              String expectedDateTime,
-                                              String normalizedCustomer) {
-        List<String> blobs = vpiAzureRepository.listBlobs(prefix);
-        List<String> matchedXmls = new ArrayList<>();
-
-        for (String blobName : blobs) {
-            if (!blobName.endsWith(".xml")) {
-                continue;
-            }
-
-            if (!matchesTimestamp(blobName, expectedDateTime)) {
-                continue;
-            }
-
-            if (matchesCustomer(blobName, normalizedCustomer)) {
-                matchedXmls.add(blobName);
-            }
-        }
-
-        return matchedXmls;
-    }
-
-    /**
-     * Filters media metadata for CMP recordings matching timestamp and customer.
-     *
-     * @param metadataList The list of media metadata to filter
-     * @param expectedDateTime The expected timestamp
-     * @param normalizedCustomer The normalized customer name
-     * @return Filtered list of valid metadata
-     */
-    public List<MediaMetadata> findMatchingMediaCMP(List<MediaMetadata> metadataList,
-                                                    String expectedDateTime,
-                                                    String normalizedCustomer) {
-        if (metadataList == null || metadataList.isEmpty()) {
-            logger.debug("Empty or null metadata list provided for validation");
-            return Collections.emptyList();
-        }
-
-        logger.info("Validating {} metadata records against timestamp: {} and customer: {}",
-                metadataList.size(), expectedDateTime, normalizedCustomer);
-
-        List<MediaMetadata> validMetadata = metadataList.stream()
-                .filter(Objects::nonNull)
-                .filter(meta -> isValidFilename(meta.getFileName(), expectedDateTime, normalizedCustomer))
-                .toList();
-
-        logger.info("Validation complete: {} out of {} records passed filename validation",
-                validMetadata.size(), metadataList.size());
-
-        return validMetadata;
-    }
-
-    /**
-     * Validates a filename against expected timestamp and customer name.
-     *
-     * @param fileName The filename to validate
-     * @param expectedDateTime The expected timestamp
-     * @param normalizedCustomer The normalized customer name
-     * @return true if valid, false otherwise
-     */
-    private boolean isValidFilename(String fileName, String expectedDateTime, String normalizedCustomer) {
-        if (isNullOrEmpty(fileName)) {
-            logger.debug("Skipping validation for null or empty filename");
-            return false;
-        }
-
-        boolean timestampMatches = matchesTimestamp(fileName, expectedDateTime);
-        boolean customerMatches = matchesCustomer(fileName, normalizedCustomer);
-
-        if (!timestampMatches || !customerMatches) {
-            logger.debug("Filename validation failed for '{}': timestamp={}, customer={}",
-                    fileName, timestampMatches, customerMatches);
-        }
-
-        return timestampMatches && customerMatches;
-    }
-
-    /**
-     * Parses XML blob content to extract media metadata.
-     *
-     * @param blobName The blob name containing XML
-     * @return List of media metadata extracted from XML
-     * @throws RecordingProcessingException if XML parsing fails
-     */
-    private List<MediaMetadata> parseXml(String blobName) {
-        try {
-            byte[] xmlBytes = vpiAzureRepository.getBlobContent(blobName);
-            try (InputStream is = new ByteArrayInputStream(xmlBytes)) {
-                return processMediaXml(is);
-            }
-        } catch (IOException e) {
-            throw new RecordingProcessingException("Failed parsing XML " + blobName, e);
-        }
-    }
-
-    /**
-     * Processes XML stream to extract media metadata.
-     *
-     * @param xmlStream The XML input stream
-     * @return List of extracted media metadata
-     */
-    public List<MediaMetadata> processMediaXml(InputStream xmlStream) {
-        logger.debug("Starting XML media metadata extraction");
-
-        List<MediaMetadata> metadataList = xmlParser.parse(xmlStream);
-
-        logger.info("Extracted {} media metadata records", metadataList.size());
-
-        long invalidCount = metadataList.stream()
-                .filter(metadata -> !metadata.isValid())
-                .count();
-
-        if (invalidCount > 0) {
-            logger.warn("Found {} invalid metadata records", invalidCount);
-        }
-
-        return metadataList;
-    }
-
-    // ========== Metadata Matching Methods ==========
-
-    /**
-     * Checks if media metadata matches all specified criteria.
-     *
-     * @param metadata The metadata to check
-     * @param aniAliDigits ANI/ALI digits filter (nullable)
-     * @param duration Duration filter (nullable)
-     * @param extensionNum Extension number filter (nullable)
-     * @param channelNum Channel number filter (nullable)
-     * @param objectId Object ID filter (nullable)
-     * @return true if all non-null criteria match, false otherwise
-     */
-    private boolean matchesMetadata(MediaMetadata metadata,
-                                    String aniAliDigits,
-                                    Integer duration,
-                                    String extensionNum,
-                                    Integer channelNum,
-                                    String objectId) {
-        if (metadata == null || metadata.getFields() == null) {
-            return false;
-        }
-
-        Map<String, String> fields = metadata.getFields();
-
-        return matchesField(fields, "aniAliDigits", aniAliDigits) &&
-                matchesIntegerField(fields, "duration", duration) &&
-                matchesField(fields, "extensionNum", extensionNum) &&
-                matchesIntegerField(fields, "channelNum", channelNum) &&
-                matchesField(fields, "objectID", objectId);
-    }
-
-    /**
-     * Checks if a string field matches the expected value.
-     * Null or empty expected values are treated as wildcards (always match).
-     *
-     * @param fields The fields map
-     * @param fieldName The field name to check
-     * @param expectedValue The expected value (nullable)
-     * @return true if matches or is wildcard, false otherwise
-     */
-    private boolean matchesField(Map<String, String> fields, String fieldName, String expectedValue) {
-        if (isNullOrEmpty(expectedValue)) {
-            return true;
-        }
-
-        String actualValue = fields.get(fieldName);
-        if (isNullOrEmpty(actualValue)) {
-            return true;
-        }
-
-        return expectedValue.equals(actualValue);
-    }
-
-    /**
-     * Checks if an integer field matches the expected value.
-     * Null expected values are treated as wildcards (always match).
-     *
-     * @param fields The fields map
-     * @param fieldName The field name to check
-     * @param expectedValue The expected value (nullable)
-     * @return true if matches or is wildcard, false otherwise
-     */
-    private boolean matchesIntegerField(Map<String, String> fields,
-                                        String fieldName,
-                                        Integer expectedValue) {
-        if (expectedValue == null) {
-            return true;
-        }
-
-        String actualValue = fields.get(fieldName);
-        if (isNullOrEmpty(actualValue)) {
-            return false;
-        }
-
-        try {
-            Integer actualInt = Integer.valueOf(actualValue.trim());
-            return expectedValue.equals(actualInt);
-        } catch (NumberFormatException ex) {
-            logger.debug("Invalid integer value for field {} : {}", fieldName, actualValue);
-            return false;
-        }
-    }
-
-    /**
-     * Checks if a blob name's timestamp matches the expected value.
-     *
-     * @param blobName The blob name
-     * @param expected The expected timestamp string
-     * @return true if matches, false otherwise
-     */
-    private boolean matchesTimestamp(String blobName, String expected) {
-        return extractDateTime(blobName)
-                .map(actual -> actual.equals(expected))
-                .orElse(false);
-    }
-
-    /**
-     * Checks if a blob name's customer name matches the expected value.
-     *
-     * @param blobName The blob name
-     * @param normalizedCustomer The normalized expected customer name
-     * @return true if matches, false otherwise
-     */
-    private boolean matchesCustomer(String blobName, String normalizedCustomer) {
-        return extractCustomerName(blobName)
-                .map(this::normalize)
-                .map(name -> name.equals(normalizedCustomer))
-                .orElse(false);
-    }
-
-    // ========== Blob Path Methods ==========
-
-    /**
-     * Builds a day-based prefix for blob storage paths.
-     *
-     * @param opco The OPCO code
-     * @param date The date
-     * @return Formatted prefix string (e.g., "RGE/2024/1/15/")
-     */
-    private String buildDayPrefix(String opco, LocalDate date) {
-        return String.format("%s/%d/%d/%d/",
-                opco.toUpperCase(Locale.ROOT),
-                date.getYear(),
-                date.getMonthValue(),
-                date.getDayOfMonth());
-    }
-
-    /**
-     * Downloads blob content from Azure storage.
-     *
-     * @param blobName The blob name to download
-     * @return Byte array of blob content
-     * @throws RecordingProcessingException if download fails
-     */
-    private byte[] downloadBlob(String blobName) {
-        try {
-            return vpiAzureRepository.getBlobContent(blobName);
-        } catch (Exception e) {
-            throw new RecordingProcessingException("Failed to download recording: " + e.getMessage(), e);
-        }
-    }
-
-    // ========== Filename Parsing Methods ==========
-
-    /**
-     * Extracts date-time portion from a blob filename.
-     *
-     * @param blobName The blob name
-     * @return Optional containing extracted datetime string
-     */
-    private Optional<String> extractDateTime(String blobName) {
-        try {
-            String fileName = extractFileName(blobName);
-
-            if (fileName.length() < FILENAME_DATETIME_END) {
-                return Optional.empty();
-            }
-
-            return Optional.of(
-                    fileName.substring(FILENAME_DATETIME_START, FILENAME_DATETIME_END)
-            );
-        } catch (Exception ex) {
-            logger.debug("Failed to extract datetime from blob: {}", blobName, ex);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Extracts customer name from a blob filename.
-     *
-     * @param blobName The blob name
-     * @return Optional containing extracted customer name
-     */
-    private Optional<String> extractCustomerName(String blobName) {
-        try {
-            String fileName = extractFileName(blobName);
-            int endIndex = fileName.indexOf(WAV_EXTENSION);
-
-            if (endIndex == -1 || fileName.length() < FILENAME_CUSTOMER_START) {
-                return Optional.empty();
-            }
-
-            return Optional.of(
-                    fileName.substring(FILENAME_CUSTOMER_START, endIndex)
-            );
-        } catch (Exception ex) {
-            logger.debug("Failed to extract customer name from blob: {}", blobName, ex);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Extracts the filename portion from a full blob path.
-     *
-     * @param blobName The full blob path
-     * @return The filename only
-     */
-    private String extractFileName(String blobName) {
-        return blobName.substring(blobName.lastIndexOf('/') + 1);
-    }
-
-    // ========== FFmpeg Conversion Helper Methods ==========
-
-    /**
-     * Builds the FFmpeg command array for WAV to MP3 conversion.
-     *
-     * @return String array containing FFmpeg command and arguments
-     */
-    private String[] buildFfmpegCommand() {
-        return new String[]{
-                ffmpegPath,
-                "-hide_banner",
-                "-loglevel", "warning",
-                "-i", "pipe:0",
-                "-vn",
-                "-acodec", "libmp3lame",
-                "-ab", "128k",
-                "-ac", "2",
-                "-ar", "44100",
-                "-f", "mp3",
-                "pipe:1"
-        };
-    }
-
-    /**
-     * Starts the FFmpeg process with secure environment settings.
-     *
-     * @return Started Process instance
-     * @throws IOException if process creation fails
-     */
-    private Process startFfmpegProcess() throws IOException {
-        ProcessBuilder pb = new ProcessBuilder(buildFfmpegCommand());
-
-        if ("/usr/bin/ffmpeg".equals(ffmpegPath)) {
-            Map<String, String> env = pb.environment();
-            env.clear();
-            env.put("PATH", "/usr/bin:/bin");
-        }
-
-        return pb.start();
-    }
-
-    /**
-     * Asynchronously reads the error stream from FFmpeg process.
-     *
-     * @param process The FFmpeg process
-     * @return CompletableFuture containing error output
-     */
-    private CompletableFuture<String> readErrorStream(Process process) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (InputStream stderr = process.getErrorStream();
-                 BufferedReader reader = new BufferedReader(
-                         new InputStreamReader(stderr, StandardCharsets.UTF_8))) {
-                return reader.lines().collect(Collectors.joining("\n"));
-            } catch (IOException e) {
-                logger.error("Failed to read FFmpeg error stream", e);
-                return "Failed to read error stream: " + e.getMessage();
-            }
-        });
-    }
-
-    /**
-     * Asynchronously writes WAV data to FFmpeg's stdin.
-     *
-     * @param process The FFmpeg process
-     * @param wavData The WAV data to write
-     * @return CompletableFuture that completes when writing is done
-     */
-    private CompletableFuture<Void> writeInputData(Process process, byte[] wavData) {
-        return CompletableFuture.runAsync(() -> {
-            try (OutputStream stdin = process.getOutputStream()) {
-                stdin.write(wavData);
-                stdin.flush();
-            } catch (IOException e) {
-                logger.error("Failed to write input data to FFmpeg", e);
-                throw new UncheckedIOException("Write failed", e);
-            }
-        });
-    }
-
-    /**
-     * Asynchronously reads MP3 data from FFmpeg's stdout.
-     *
-     * @param process The FFmpeg process
-     * @return CompletableFuture containing MP3 data
-     */
-    private CompletableFuture<byte[]> readOutputData(Process process) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (InputStream stdout = process.getInputStream();
-                 ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-
-                byte[] buffer = new byte[BUFFER_SIZE];
-                int bytesRead;
-                while ((bytesRead = stdout.read(buffer)) != -1) {
-                    output.write(buffer, 0, bytesRead);
-                }
-                return output.toByteArray();
-
-            } catch (IOException e) {
-                throw new UncheckedIOException("Read failed", e);
-            }
-        });
-    }
-
-    /**
-     * Validates the FFmpeg conversion result.
-     *
-     * @param exitCode FFmpeg process exit code
-     * @param errors Error messages from FFmpeg
-     * @param inputSize Size of input WAV data
-     * @param outputSize Size of output MP3 data
-     * @throws RecordingProcessingException if conversion failed
-     */
-    private void validateConversionResult(int exitCode, String errors, int inputSize, int outputSize) {
-        if (exitCode != 0) {
-            throw new RecordingProcessingException(
-                    String.format("FFmpeg failed (exit %d): %s", exitCode, errors));
-        }
-
-        if (!errors.isEmpty()) {
-            logger.warn("FFmpeg warnings: {}", errors);
-        }
-
-        logger.info("Conversion successful: {} bytes WAV -> {} bytes MP3", inputSize, outputSize);
-    }
-
-    /**
-     * Forcibly destroys a process if it's still alive.
-     *
-     * @param process The process to destroy (nullable)
-     */
-    private void destroyProcess(Process process) {
-        if (process != null && process.isAlive()) {
-            process.destroyForcibly();
-            logger.debug("FFmpeg process destroyed");
-        }
-    }
-
-    // ========== Response Building Methods ==========
-
-    /**
-     * Builds an HTTP response for audio data.
-     *
-     * @param mp3Data The MP3 audio bytes
-     * @param originalFilename The original filename
-     * @return ResponseEntity with appropriate headers and audio data
-     */
-    private ResponseEntity<ByteArrayResource> buildAudioResponse(byte[] mp3Data, String originalFilename) {
-        String mp3Filename = originalFilename + MP3_EXTENSION;
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("audio/mpeg"));
-        headers.setContentDispositionFormData("inline", mp3Filename);
-        headers.setContentLength(mp3Data.length);
-
-        ByteArrayResource resource = new ByteArrayResource(mp3Data);
-
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(resource);
-    }
-
-    /**
-     * Builds an HTTP response for ZIP file data.
-     *
-     * @param zipData The ZIP file bytes
-     * @return ResponseEntity with appropriate headers and ZIP data
-     */
-    private ResponseEntity<byte[]> buildZipResponse(byte[] zipData) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recordings.zip\"");
-        headers.setContentLength(zipData.length);
-
-        return new ResponseEntity<>(zipData, headers, HttpStatus.OK);
-    }
-
-    // ========== ZIP Creation Methods ==========
-
-    /**
-     * Adds a single recording to a ZIP output stream.
-     *
-     * @param req The recording request
-     * @param zos The ZIP output stream
-     * @return RecordingStatus indicating success or failure
-     */
-    private RecordingStatus addRecordingToZip(RecordingRequest req, ZipOutputStream zos) {
-        validateRequest(req);
-
-        String fileDate = xmlStartTimeToFileTimestamp(req.getDate());
-        String zipEntryName = fileDate + req.getUsername();
-        String blobName = null;
-
-        try {
-            blobName = findRecordingVPI(req).getBlobName();
-
-            if (blobName == null || blobName.isEmpty()) {
-                logger.warn("No matching blob found for user={} date={}", req.getUsername(), req.getDate());
-                return createNotFoundStatus(req);
-            }
-
-            addBlobToZip(blobName, zipEntryName, zos);
-            logger.info("Successfully added recording to ZIP: user={} date={} blob={}",
-                    req.getUsername(), req.getDate(), blobName);
-            return createSuccessStatus(req, zipEntryName);
-
-        } catch (RecordingNotFoundException e) {
-            logger.warn("Recording not found for user={} date={}: {}",
-                    req.getUsername(), req.getDate(), e.getMessage());
-            return createNotFoundStatus(req);
-
-        } catch (IOException e) {
-            logger.error("IO error while adding recording to ZIP: user={} date={} blob={}",
-                    req.getUsername(), req.getDate(), blobName, e);
-            return createErrorStatus(req, zipEntryName, "Failed to write recording to ZIP: " + e.getMessage());
-
-        } catch (Exception e) {
-            logger.error("Unexpected error while processing recording: user={} date={} blob={}",
-                    req.getUsername(), req.getDate(), blobName, e);
-            return createErrorStatus(req, zipEntryName, "Failed to process recording: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Creates a recording status for not found scenarios.
-     *
-     * @param req The recording request
-     * @return RecordingStatus with NOT_FOUND status
-     */
-    private RecordingStatus createNotFoundStatus(RecordingRequest req) {
-        return new RecordingStatus(
-                req.getUsername(),
-                req.getDate(),
-                null,
-                STATUS_NOT_FOUND,
-                "No matching audio file found"
-        );
-    }
-
-    /**
-     * Creates a recording status for successful operations.
-     *
-     * @param req The recording request
-     * @param zipEntryName The ZIP entry name
-     * @return RecordingStatus with SUCCESS status
-     */
-    private RecordingStatus createSuccessStatus(RecordingRequest req, String zipEntryName) {
-        return new RecordingStatus(
-                req.getUsername(),
-                req.getDate(),
-                zipEntryName,
-                STATUS_RECORDING_SUCCESS,
-                null
-        );
-    }
-
-    /**
-     * Creates a recording status for error scenarios.
-     *
-     * @param req The recording request
-     * @param zipEntryName The ZIP entry name
-     * @param errorMessage The error message
-     * @return RecordingStatus with ERROR status
-     */
-    private RecordingStatus createErrorStatus(RecordingRequest req, String zipEntryName, String errorMessage) {
-        return new RecordingStatus(
-                req.getUsername(),
-                req.getDate(),
-                zipEntryName,
-                STATUS_ERROR,
-                errorMessage
-        );
-    }
-
-    /**
-     * Adds a blob to a ZIP output stream.
-     *
-     * @param blobName The blob name to add
-     * @param zipEntryName The name for the ZIP entry
-     * @param zos The ZIP output stream
-     * @throws IOException if I/O error occurs
-     */
-    private void addBlobToZip(String blobName, String zipEntryName, ZipOutputStream zos) throws IOException {
-        zos.putNextEntry(new ZipEntry(zipEntryName));
-        try (InputStream blobStream = vpiAzureRepository.getBlobStream(blobName)) {
-            StreamUtils.copy(blobStream, zos);
-        } finally {
-            zos.closeEntry();
-        }
-    }
-
-    /**
-     * Adds a status summary JSON file to a ZIP.
-     *
-     * @param summary The status summary
-     * @param zos The ZIP output stream
-     * @throws IOException if I/O error occurs
-     */
-    private void addStatusFileToZip(ZipStatusSummary summary, ZipOutputStream zos) throws IOException {
-        ZipEntry entry = new ZipEntry("status.json");
-        zos.putNextEntry(entry);
-
-        ObjectMapper mapper = new ObjectMapper();
-        String json = mapper
-                .writerWithDefaultPrettyPrinter()
-                .writeValueAsString(summary);
-
-        zos.write(json.getBytes(StandardCharsets.UTF_8));
-        zos.closeEntry();
-    }
-
-    // ========== Database Search Methods ==========
-
-    /**
-     * Performs a search across the appropriate OPCO repository.
-     *
-     * @param from Start datetime
-     * @param to End datetime
-     * @param opco OPCO code
-     * @param filters Additional filters
-     * @param userIds Matched user IDs
-     * @param pageable Pagination settings
-     * @return Page of VpiMetadata results
-     */
-    private Page<VpiMetadata> performSearch(
-            OffsetDateTime from,
-            OffsetDateTime to,
-            String opco,
-            VpiFiltersRequest filters,
-            Set<UUID> userIds,
-            Pageable pageable) {
-
-        String upperOpco = opco.toUpperCase();
-
-        return switch (upperOpco) {
-            case "CMP" -> searchCmp(from, to, filters, userIds, pageable);
-            case "NYSEG" -> searchNyseg(from, to, filters, userIds, pageable);
-            case "RGE" -> searchRge(from, to, filters, userIds, pageable);
-            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
-        };
-    }
-
-    /**
-     * Searches CMP repository.
-     *
-     * @param from Start datetime
-     * @param to End datetime
-     * @param filters Filters
-     * @param userIds User IDs
-     * @param pageable Pagination
-     * @return Page of results
-     */
-    private Page<VpiMetadata> searchCmp(
-            OffsetDateTime from,
-            OffsetDateTime to,
-            VpiFiltersRequest filters,
-            Set<UUID> userIds,
-            Pageable pageable) {
-
-        Specification<VpiCaptureCmp> spec = CaptureSpecifications.build(from, to, filters, userIds);
-        Page<VpiCaptureCmp> page = cmpRepo.findAll(spec, pageable);
-        return enrichAndMap(page, "CMP");
-    }
-
-    /**
-     * Searches NYSEG repository.
-     *
-     * @param from Start datetime
-     * @param to End datetime
-     * @param filters Filters
-     * @param userIds User IDs
-     * @param pageable Pagination
-     * @return Page of results
-     */
-    private Page<VpiMetadata> searchNyseg(
-            OffsetDateTime from,
-            OffsetDateTime to,
-            VpiFiltersRequest filters,
-            Set<UUID> userIds,
-            Pageable pageable) {
-
-        Specification<VpiCaptureNyseg> spec = CaptureSpecifications.build(from, to, filters, userIds);
-        Page<VpiCaptureNyseg> page = nysegRepo.findAll(spec, pageable);
-        return enrichAndMap(page, "NYSEG");
-    }
-
-    /**
-     * Searches RGE repository.
-     *
-     * @param from Start datetime
-     * @param to End datetime
-     * @param filters Filters
-     * @param userIds User IDs
-     * @param pageable Pagination
-     * @return Page of results
-     */
-    private Page<VpiMetadata> searchRge(
-            OffsetDateTime from,
-            OffsetDateTime to,
-            VpiFiltersRequest filters,
-            Set<UUID> userIds,
-            Pageable pageable) {
-
-        Specification<VpiCaptureRge> spec = CaptureSpecifications.build(from, to, filters, userIds);
-        Page<VpiCaptureRge> page = rgeRepo.findAll(spec, pageable);
-        return enrichAndMap(page, "RGE");
-    }
-
-    // ========== User Management Methods ==========
-
-    /**
-     * Fetches user IDs matching any of the provided names.
-     *
-     * @param opco OPCO code
-     * @param names List of names to match
-     * @return Set of matched user UUIDs
-     */
-    private Set<UUID> fetchMatchedUserIds(String opco, List<String> names) {
-        if (names == null || names.isEmpty()) {
-            return Collections.emptySet();
-        }
-
-        String upperOpco = opco.toUpperCase();
-        String[] namesArray = names.toArray(new String[0]);
-
-        return switch (upperOpco) {
-            case "CMP" -> new HashSet<>(cmpUserRepo.findUserIdsByFullNameContainsAny(namesArray));
-            case "NYSEG" -> new HashSet<>(nysegUserRepo.findUserIdsByFullNameContainsAny(namesArray));
-            case "RGE" -> new HashSet<>(rgeUserRepo.findUserIdsByFullNameContainsAny(namesArray));
-            default -> Collections.emptySet();
-        };
-    }
-
-    /**
-     * Fetches user names for a set of user IDs.
-     *
-     * @param opco OPCO code
-     * @param userIds Set of user UUIDs
-     * @return Map of user ID to full name
-     */
-    private Map<UUID, String> fetchUserNames(String opco, Set<UUID> userIds) {
-        if (userIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        String upperOpco = opco.toUpperCase();
-
-        return switch (upperOpco) {
-            case "CMP" -> buildUserNameMap(
-                    cmpUserRepo.findByUserIdIn(userIds),
-                    VpiUsersCmp::getUserId,
-                    VpiUsersCmp::getFullName);
-            case "NYSEG" -> buildUserNameMap(
-                    nysegUserRepo.findByUserIdIn(userIds),
-                    VpiUsersNyseg::getUserId,
-                    VpiUsersNyseg::getFullName);
-            case "RGE" -> buildUserNameMap(
-                    rgeUserRepo.findByUserIdIn(userIds),
-                    VpiUsersRge::getUserId,
-                    VpiUsersRge::getFullName);
-            default -> Collections.emptyMap();
-        };
-    }
-
-    /**
-     * Builds a map of user IDs to names from a list of user entities.
-     *
-     * @param users List of user entities
-     * @param idExtractor Function to extract user ID
-     * @param nameExtractor Function to extract user name
-     * @param <T> Type of user entity
-     * @return Map of UUID to name
-     */
-    private <T> Map<UUID, String> buildUserNameMap(
-            List<T> users,
-            java.util.function.Function<T, UUID> idExtractor,
-            java.util.function.Function<T, String> nameExtractor) {
-        return users.stream()
-                .collect(Collectors.toMap(idExtractor, nameExtractor));
-    }
-
-    // ========== Metadata Retrieval Methods ==========
-
-    /**
-     * Retrieves metadata by OPCO and object ID.
-     *
-     * @param id Object ID
-     * @param opco OPCO code
-     * @return List of metadata maps
-     */
-    private List<Map<String, Object>> getMetadataByOpco(UUID id, String opco) {
-        String upperOpco = opco.toUpperCase();
-
-        return switch (upperOpco) {
-            case "CMP" -> metadataFull(cmpRepo.findByObjectId(id));
-            case "NYSEG" -> metadataFull(nysegRepo.findByObjectId(id));
-            case "RGE" -> metadataFull(rgeRepo.findByObjectId(id));
-            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
-        };
-    }
-
-    /**
-     * Converts recording entities to metadata maps.
-     *
-     * @param recordings List of recording entities
-     * @return List of metadata maps
-     */
-    private List<Map<String, Object>> metadataFull(List<? extends VpiCaptureView> recordings) {
-        return recordings.stream()
-                .map(this::buildMetadataMap)
-                .toList();
-    }
-
-    /**
-     * Builds a comprehensive metadata map from a recording entity.
-     *
-     * @param rec The recording entity
-     * @return Map containing all metadata fields
-     */
-    private Map<String, Object> buildMetadataMap(VpiCaptureView rec) {
-        Map<String, Object> map = new LinkedHashMap<>();
-
-        addIdentifierFields(map, rec);
-        addTimingFields(map, rec);
-        addTriggerAndTagFields(map, rec);
-        addChannelAndAgentFields(map, rec);
-        addMediaFields(map, rec);
-        addCallIdFields(map, rec);
-        addServiceFields(map, rec);
-        addTranscriptionFields(map, rec);
-
-        return map;
-    }
-
-    /**
-     * Adds identifier fields to metadata map.
-     */
-    private void addIdentifierFields(Map<String, Object> map, VpiCaptureView rec) {
-        map.put("objectId", rec.getObjectId());
-        map.put("dateAdded", rec.getDateAdded());
-        map.put("resourceId", rec.getResourceId());
-        map.put("workstationId", rec.getWorkstationId());
-        map.put("userId", rec.getUserId());
-    }
-
-    /**
-     * Adds timing fields to metadata map.
-     */
-    private void addTimingFields(Map<String, Object> map, VpiCaptureView rec) {
-        map.put("startTime", rec.getStartTime());
-        map.put("gmtOffset", rec.getGmtOffset());
-        map.put("gmtStartTime", rec.getGmtStartTime());
-        map.put("duration", rec.getDuration());
-    }
-
-    /**
-     * Adds trigger and tag fields to metadata map.
-     */
-    private void addTriggerAndTagFields(Map<String, Object> map, VpiCaptureView rec) {
-        map.put("triggeredByResourceTypeId", rec.getTriggeredByResourceTypeId());
-        map.put("triggeredByObjectId", rec.getTriggeredByObjectId());
-        map.put("flagId", rec.getFlagId());
-        map.put("tags", rec.getTags());
-        map.put("sensitivityLevel", rec.getSensitivityLevel());
-        map.put("clientId", rec.getClientId());
-    }
-
-    /**
-     * Adds channel and agent fields to metadata map.
-     */
-    private void addChannelAndAgentFields(Map<String, Object> map, VpiCaptureView rec) {
-        map.put("channelNum", rec.getChannelNum());
-        map.put("channelName", rec.getChannelName());
-        map.put("extensionNum", rec.getExtensionNum());
-        map.put("agentId", rec.getAgentId());
-        map.put("pbxDnis", rec.getPbxDnis());
-        map.put("anialidigits", rec.getAnialidigits());
-        map.put("direction", rec.getDirection());
-    }
-
-    /**
-     * Adds media fields to metadata map.
-     */
-    private void addMediaFields(Map<String, Object> map, VpiCaptureView rec) {
-        map.put("mediaFileId", rec.getMediaFileId());
-        map.put("mediaManagerId", rec.getMediaManagerId());
-        map.put("mediaRetention", rec.getMediaRetention());
-    }
-
-    /**
-     * Adds call ID fields to metadata map.
-     */
-    private void addCallIdFields(Map<String, Object> map, VpiCaptureView rec) {
-        map.put("callId", rec.getCallId());
-        map.put("previousCallId", rec.getPreviousCallId());
-        map.put("globalCallId", rec.getGlobalCallId());
-    }
-
-    /**
-     * Adds service fields to metadata map.
-     */
-    private void addServiceFields(Map<String, Object> map, VpiCaptureView rec) {
-        map.put("classOfService", rec.getClassOfService());
-        map.put("classOfServiceDate", rec.getClassOfServiceDate());
-        map.put("xPlatformRef", rec.getXPlatformRef());
-    }
-
-    /**
-     * Adds transcription fields to metadata map.
-     */
-    private void addTranscriptionFields(Map<String, Object> map, VpiCaptureView rec) {
-        map.put("transcriptResult", rec.getTranscriptResult());
-        map.put("warehouseObjectKey", rec.getWarehouseObjectKey());
-        map.put("transcriptStatus", rec.getTranscriptStatus());
-        map.put("audioChannels", rec.getAudioChannels());
-        map.put("hasTalkover", rec.getHasTalkover());
-    }
-
-    // ========== Entity Mapping Methods ==========
-
-    /**
-     * Enriches a page of recordings with user names and converts to DTOs.
-     *
-     * @param page Page of recording entities
-     * @param opco OPCO code
-     * @return Page of VpiMetadata DTOs
-     */
-    private Page<VpiMetadata> enrichAndMap(Page<? extends VpiCaptureView> page, String opco) {
-        if (page.isEmpty()) {
-            return Page.empty(page.getPageable());
-        }
-
-        Set<UUID> userIds = extractUserIds(page);
-        Map<UUID, String> userNameMap = fetchUserNames(opco, userIds);
-
-        return page.map(rec -> convertToMetadata(rec, opco, userNameMap));
-    }
-
-    /**
-     * Extracts unique user IDs from a page of recordings.
-     *
-     * @param page Page of recordings
-     * @return Set of user UUIDs
-     */
-    private Set<UUID> extractUserIds(Page<? extends VpiCaptureView> page) {
-        return page.getContent().stream()
-                .map(VpiCaptureView::getUserId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-    }
-
-    /**
-     * Converts a recording entity to a VpiMetadata DTO.
-     *
-     * @param rec The recording entity
-     * @param opco OPCO code
-     * @param userNameMap Map of user IDs to names
-     * @return VpiMetadata DTO
-     */
-    private VpiMetadata convertToMetadata(
-            VpiCaptureView rec,
-            String opco,
-            Map<UUID, String> userNameMap) {
-
-        VpiMetadata dto = new VpiMetadata();
-
-        dto.setObjectId(rec.getObjectId());
-        dto.setDateAdded(toXmlStartTime(rec.getDateAdded()));
-        dto.setStartTime(toXmlStartTime(rec.getStartTime()));
-        dto.setDuration(rec.getDuration());
-        dto.setTags(rec.getTags());
-        dto.setChannelName(rec.getChannelName());
-        dto.setCallId(rec.getCallId());
-        dto.setUserId(rec.getUserId());
-        dto.setAgentId(rec.getAgentId());
-        dto.setExtensionNum(rec.getExtensionNum());
-        dto.setChannelNum(rec.getChannelNum());
-        dto.setAniAliDigits(rec.getAnialidigits());
-        dto.setUsername(userNameMap.get(rec.getUserId()));
-        dto.setDirection(rec.getDirection());
-        dto.setOpco(opco);
-
-        return dto;
-    }
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.exception.InvalidRequestException;
+import com.avangrid.gui.avangrid_backend.exception.OpcoOverloadedException;
+import com.avangrid.gui.avangrid_backend.exception.RecordingNotFoundException;
+import com.avangrid.gui.avangrid_backend.exception.RecordingProcessingException;
+import com.avangrid.gui.avangrid_backend.infra.cmp.entity.VpiCaptureCmp;
+import com.avangrid.gui.avangrid_backend.infra.cmp.entity.VpiUsersCmp;
+import com.avangrid.gui.avangrid_backend.infra.cmp.repository.VpiCmpRepo;
+import com.avangrid.gui.avangrid_backend.infra.cmp.repository.VpiCmpUserRepo;
+import com.avangrid.gui.avangrid_backend.infra.nyseg.entity.VpiCaptureNyseg;
+import com.avangrid.gui.avangrid_backend.infra.nyseg.entity.VpiUsersNyseg;
+import com.avangrid.gui.avangrid_backend.infra.nyseg.repository.VpiNysegRepo;
+import com.avangrid.gui.avangrid_backend.infra.nyseg.repository.VpiNysegUserRepo;
+import com.avangrid.gui.avangrid_backend.infra.rge.entity.VpiCaptureRge;
+import com.avangrid.gui.avangrid_backend.infra.rge.entity.VpiUsersRge;
+import com.avangrid.gui.avangrid_backend.infra.rge.repository.VpiRgeRepo;
+import com.avangrid.gui.avangrid_backend.infra.rge.repository.VpiRgeUserRepo;
+import com.avangrid.gui.avangrid_backend.model.*;
+import com.avangrid.gui.avangrid_backend.infra.azure.AzureBlobRepository;
+import com.avangrid.gui.avangrid_backend.infra.generic.ExplainedStatement;
+import com.avangrid.gui.avangrid_backend.infra.generic.QueryGuard;
+import com.avangrid.gui.avangrid_backend.infra.generic.ReplicaRoutingDataSource;
+import com.avangrid.gui.avangrid_backend.infra.generic.VpiCaptureRepository;
+import com.avangrid.gui.avangrid_backend.infra.generic.VpiUserRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service for managing VPI (Voice Portal Interface) recordings.
+ *
+ * <p>This service provides comprehensive functionality for:
+ * <ul>
+ *   <li>Recording retrieval and search across multiple operating companies (OPCO)</li>
+ *   <li>Audio format conversion from WAV to MP3 using FFmpeg</li>
+ *   <li>Bulk download operations with ZIP packaging</li>
+ *   <li>Metadata extraction and management</li>
+ * </ul>
+ *
+ * <p>Supported OPCOs: RGE, CMP, NYSEG
+ *
+ * @author Avangrid Backend Team
+ * @version 1.0
+ * @since 2024
+ */
+@Service
+public class VpiRecordingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VpiRecordingService.class);
+
+    // ========== Constants ==========
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter XML_FORMATTER =
+            DateTimeFormatter.ofPattern("M/d/yyyy h:mm:ss a", Locale.US);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MIN_PAGE_NUMBER = 1;
+    private static final String STATUS_SUCCESS = "200";
+    private static final String MESSAGE_SUCCESS = "Success";
+    private static final Set<String> ALLOWED_OPCOS = Set.of("RGE", "CMP", "NYSEG");
+    private static final List<String> FEDERATED_OPCO_ORDER = List.of("CMP", "NYSEG", "RGE");
+    private static final String OPCO_ALL = "ALL";
+    private static final String SORT_DATE_ADDED = "dateAdded";
+    private static final String SORT_OBJECT_ID = "objectId";
+    // objectId breaks ties on dateAdded so the order is total and keyset cursors are stable
+    private static final Sort SEARCH_SORT =
+            Sort.by(SORT_DATE_ADDED).descending().and(Sort.by(SORT_OBJECT_ID).descending());
+
+    private static final String WAV_EXTENSION = ".wav";
+    private static final String MP3_EXTENSION = ".mp3";
+    private static final int FILENAME_CUSTOMER_START = 24;
+    private static final int FILENAME_DATETIME_START = 5;
+    private static final int FILENAME_DATETIME_END = 24;
+
+    private static final int CONVERSION_TIMEOUT_SECONDS = 120;
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String STATUS_NOT_FOUND = "NOT_FOUND";
+    private static final String STATUS_ERROR = "ERROR";
+    private static final String STATUS_RECORDING_SUCCESS = "SUCCESS";
+
+    // ========== Dependencies ==========
+
+    @Value("${ffmpeg.path:ffmpeg}")
+    private String ffmpegPath;
+
+    @Value("${search.total.cap:10000}")
+    private int totalCap;
+
+    @Value("${search.federated.deadline:5s}")
+    private Duration federatedDeadline;
+
+    @Value("${search.federated.max-offset:1000}")
+    private int federatedMaxOffset;
+
+    @Value("${search.user-names.join:true}")
+    private boolean joinUserNames;
+
+    @Value("${search.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    @Value("${search.export.chunk-size:500}")
+    private int exportChunkSize;
+
+    @Value("${search.facets.duration-edges:30,60,120,300,600,1800,3600}")
+    private List<Integer> facetDurationEdges;
+
+    @Value("${search.facets.top-values:50}")
+    private int facetTopValues;
+
+    @Value("${search.query-timeout.search:15s}")
+    private Duration searchQueryTimeout;
+
+    @Value("${search.query-timeout.facets:30s}")
+    private Duration facetsQueryTimeout;
+
+    @Value("${search.query-timeout.metadata:5s}")
+    private Duration metadataQueryTimeout;
+
+    @Value("${search.metadata.batch-max:200}")
+    private int metadataBatchMax;
+
+    @Value("${search.slices.enabled:true}")
+    private boolean slicesEnabled;
+
+    @Value("${search.slices.threshold:8d}")
+    private Duration sliceThreshold;
+
+    @Value("${search.slices.size:7d}")
+    private Duration sliceSize;
+
+    @Value("${search.slices.parallelism:2}")
+    private int sliceParallelism;
+
+    @Value("${search.streaming.enabled:true}")
+    private boolean streamPages;
+
+    @Value("${search.streaming.min-page-size:200}")
+    private int streamMinPageSize;
+
+    private final AzureBlobRepository vpiAzureRepository;
+    private final VpiCmpRepo cmpRepo;
+    private final VpiNysegRepo nysegRepo;
+    private final VpiRgeRepo rgeRepo;
+    private final VpiRgeUserRepo rgeUserRepo;
+    private final VpiNysegUserRepo nysegUserRepo;
+    private final VpiCmpUserRepo cmpUserRepo;
+    private final XmlMediaParser xmlParser;
+    private final SearchCountCache countCache;
+    private final SearchResultCache resultCache;
+    private final ClosedDayCache closedDays;
+    private final ThreadPoolTaskExecutor searchExecutor;
+    private final ThreadPoolTaskExecutor sliceExecutor;
+    private final UserDirectory userDirectory;
+    private final Map<String, PlatformTransactionManager> transactionManagers;
+    private final OpcoBulkhead bulkhead;
+    private final EntityCache entityCache;
+    private final SlowQuerySampler slowQueries;
+    private final ResponseMappers mappers;
+
+    /**
+     * Constructs a new VpiRecordingService with the required dependencies.
+     *
+     * @param vpiAzureRepository Azure blob storage repository for recording files
+     * @param cmpRepo CMP database repository (optional)
+     * @param nysegRepo NYSEG database repository (optional)
+     * @param rgeRepo RGE database repository (optional)
+     * @param cmpUserRepo CMP user repository (optional)
+     * @param nysegUserRepo NYSEG user repository (optional)
+     * @param rgeUserRepo RGE user repository (optional)
+     * @param xmlParser XML metadata parser
+     * @param countCache Memo of search totals across pages
+     * @param resultCache Short-lived cache of whole search pages
+     * @param closedDays Long-lived cache of closed-day counts and pages
+     * @param searchExecutor Executor for federated OPCO searches
+     * @param sliceExecutor Executor for the time slices of wide searches
+     * @param userDirectory In-memory user names per OPCO
+     * @param transactionManagers OPCO transaction managers by bean name
+     * @param bulkhead Per-OPCO admission control for database calls
+     * @param entityCache Per-OPCO cache of capture and user entities
+     * @param slowQueries Keeps samples of slow searches and user name lookups
+     * @param mappers ObjectMappers that streamed responses and exports are written with
+     */
+    public VpiRecordingService(
+            AzureBlobRepository vpiAzureRepository,
+            @Autowired(required = false) VpiCmpRepo cmpRepo,
+            @Autowired(required = false) VpiNysegRepo nysegRepo,
+            @Autowired(required = false) VpiRgeRepo rgeRepo,
+            @Autowired(required = false) VpiCmpUserRepo cmpUserRepo,
+            @Autowired(required = false) VpiNysegUserRepo nysegUserRepo,
+            @Autowired(required = false) VpiRgeUserRepo rgeUserRepo,
+            @Autowired XmlMediaParser xmlParser,
+            SearchCountCache countCache,
+            SearchResultCache resultCache,
+            ClosedDayCache closedDays,
+            @Qualifier("searchExecutor") ThreadPoolTaskExecutor searchExecutor,
+            @Qualifier("searchSliceExecutor") ThreadPoolTaskExecutor sliceExecutor,
+            UserDirectory userDirectory,
+            Map<String, PlatformTransactionManager> transactionManagers,
+            OpcoBulkhead bulkhead,
+            EntityCache entityCache,
+            SlowQuerySampler slowQueries,
+            ResponseMappers mappers) {
+        this.vpiAzureRepository = vpiAzureRepository;
+        this.cmpRepo = cmpRepo;
+        this.nysegRepo = nysegRepo;
+        this.rgeRepo = rgeRepo;
+        this.rgeUserRepo = rgeUserRepo;
+        this.nysegUserRepo = nysegUserRepo;
+        this.cmpUserRepo = cmpUserRepo;
+        this.xmlParser = xmlParser;
+        this.countCache = countCache;
+        this.resultCache = resultCache;
+        this.closedDays = closedDays;
+        this.searchExecutor = searchExecutor;
+        this.sliceExecutor = sliceExecutor;
+        this.userDirectory = userDirectory;
+        this.transactionManagers = transactionManagers;
+        this.bulkhead = bulkhead;
+        this.entityCache = entityCache;
+        this.slowQueries = slowQueries;
+        this.mappers = mappers;
+    }
+
+    // ========== Public API Methods ==========
+
+    /**
+     * Retrieves paginated table data based on search criteria, optionally skipping the
+     * result cache.
+     *
+     * <p>This method supports:
+     * <ul>
+     *   <li>Date range filtering</li>
+     *   <li>OPCO-specific searches</li>
+     *   <li>Custom filters (tags, channels, etc.)</li>
+     *   <li>User name filtering</li>
+     *   <li>Pagination with configurable page size</li>
+     *   <li>Keyset pagination when the request carries the previous page's cursor</li>
+     *   <li>Exact, capped, estimated or no total (see {@link TotalType})</li>
+     *   <li>Federated search over several OPCOs ({@code opco=ALL} or a comma separated list)</li>
+     *   <li>Recently seen searches answered from the {@link SearchResultCache}</li>
+     * </ul>
+     *
+     * @param request Search request containing date range, OPCO, filters, and pagination
+     * @param bypassCache Run the search even if a cached page exists
+     * @return VpiSearchResponse with paginated results and metadata
+     * @throws InvalidRequestException if date range or parameters are invalid
+     * @throws IllegalArgumentException if end date is before start date
+     */
+    public VpiSearchResponse getTableData(VpiSearchRequest request, boolean bypassCache) {
+        logger.debug("Fetching table data for request: {}", request);
+
+        validateSearchRequest(request);
+
+        OffsetDateTime from = parseDateTime(request.getFrom_date()).atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = parseDateTime(request.getTo_date()).atOffset(ZoneOffset.UTC);
+
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("End date must be after start date");
+        }
+
+        Pageable pageable = createPageable(request.getPagination());
+        SearchCursor cursor = parseCursor(request.getPagination());
+        TotalType totalMode = resolveTotalMode(request.getPagination(), cursor);
+        List<String> opcos = resolveOpcos(request.getOpco());
+
+        SearchShape shape = SearchShape.of(String.join(",", opcos), from, to, request.getFilters(), null);
+        SearchPage pageResult = resultCache.get(shape, pageable, cursor, totalMode, bypassCache,
+                () -> QueryGuard.within(searchQueryTimeout, () -> opcos.size() == 1
+                        ? search(from, to, opcos.getFirst(), request.getFilters(), pageable, cursor, totalMode)
+                        : searchFederated(from, to, opcos, request.getFilters(), pageable, cursor, totalMode)));
+
+        return buildSearchResponse(pageResult);
+    }
+
+    /**
+     * Runs a search and writes its response to the body.
+     *
+     * <p>When the caller asks for a streamed page, single-OPCO pages of at least
+     * {@code search.streaming.min-page-size} rows are written row by row straight from
+     * the result columns, so no entity, DTO or response list is built. The page rows
+     * (page size plus one look-ahead row) and the total are read first, under the
+     * bulkhead; the connection and the slot are released before anything is written,
+     * so a failing or rejected query still gets its error response. Streamed pages are
+     * not kept in the {@link SearchResultCache}. Pages that lie in closed days or would
+     * be time sliced, pages whose user names come from neither the {@link UserDirectory}
+     * nor the search statement, and every other search are built by
+     * {@link #getTableData(VpiSearchRequest, boolean)} and written in one go.
+     *
+     * @param request Search request containing date range, OPCO, filters, and pagination
+     * @param bypassCache Run the search even if a cached page exists
+     * @param stream Write large pages row by row
+     * @param format Encoding of the response
+     * @return Response body writing the search response
+     * @throws InvalidRequestException if date range or parameters are invalid
+     */
+    public StreamingResponseBody streamTableData(VpiSearchRequest request, boolean bypassCache,
+                                                 boolean stream, ResponseFormat format) {
+        validateSearchRequest(request);
+
+        OffsetDateTime from = parseDateTime(request.getFrom_date()).atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = parseDateTime(request.getTo_date()).atOffset(ZoneOffset.UTC);
+
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("End date must be after start date");
+        }
+
+        Pageable pageable = createPageable(request.getPagination());
+        SearchCursor cursor = parseCursor(request.getPagination());
+        TotalType totalMode = resolveTotalMode(request.getPagination(), cursor);
+        List<String> opcos = resolveOpcos(request.getOpco());
+        String opco = opcos.getFirst();
+
+        if (!stream || !streamPages || opcos.size() > 1 || pageable.getPageSize() < streamMinPageSize
+                || !(joinUserNames || userDirectory.isLoaded(opco))
+                || isCachedOrSliced(from, to, pageable, cursor)) {
+            return out -> SearchResponseWriter.of(mappers.forFormat(format), out).write(getTableData(request, bypassCache));
+        }
+
+        validateOpco(opco);
+        logger.debug("Streaming search page for OPCO: {} from {} to {}", opco, from, to);
+
+        return out -> {
+            StreamedPage page = QueryGuard.within(searchQueryTimeout,
+                    () -> readStreamedPage(from, to, opco, request.getFilters(), pageable, cursor, totalMode));
+            page.writeTo(SearchResponseWriter.of(mappers.forFormat(format), out));
+        };
+    }
+
+    /**
+     * Retrieves comprehensive metadata for a specific recording.
+     *
+     * <p>Returns all available metadata fields including:
+     * <ul>
+     *   <li>Timing information (start time, duration, GMT offset)</li>
+     *   <li>Channel and agent details</li>
+     *   <li>Call identifiers (call ID, global call ID)</li>
+     *   <li>Media file information</li>
+     *   <li>Transcription status</li>
+     * </ul>
+     *
+     * @param id Unique identifier (UUID) of the recording
+     * @param opco Operating company code (RGE, CMP, or NYSEG)
+     * @return Map containing all metadata fields with their values
+     * @throws InvalidRequestException if OPCO is invalid or null
+     * @throws RecordingNotFoundException if recording with given ID is not found
+     */
+    public Map<String, Object> getMetadata(UUID id, String opco) {
+        logger.debug("Fetching metadata for id: {} and opco: {}", id, opco);
+
+        validateOpco(opco);
+
+        List<Map<String, Object>> metadata = QueryGuard.within(metadataQueryTimeout,
+                () -> getMetadataByOpco(id, opco));
+
+        if (metadata.isEmpty()) {
+            throw new RecordingNotFoundException(
+                    String.format("Recording not found with ID=%s and OPCO=%s", id, opco));
+        }
+
+        return metadata.getFirst();
+    }
+
+    /**
+     * Retrieves metadata for several recordings in one call.
+     *
+     * <p>IDs are grouped by OPCO and each group is read with a single
+     * {@code object_id = any(?)} query; the OPCO groups run at the same time.
+     *
+     * @param items Recording IDs with their OPCO
+     * @return Metadata keyed by ID; IDs without a recording are marked not found
+     * @throws InvalidRequestException if the batch is empty, too large or has an invalid OPCO
+     */
+    public VpiMetadataBatchResponse getMetadataBatch(List<MetadataBatchItem> items) {
+        logger.debug("Fetching metadata for {} ids", items == null ? 0 : items.size());
+
+        if (items == null || items.isEmpty()) {
+            throw new InvalidRequestException("At least one id is required");
+        }
+        if (items.size() > metadataBatchMax) {
+            throw new InvalidRequestException("At most " + metadataBatchMax + " ids per batch");
+        }
+
+        Map<UUID, String> opcoById = new LinkedHashMap<>();
+        Map<String, Set<UUID>> idsByOpco = new LinkedHashMap<>();
+        for (MetadataBatchItem item : items) {
+            if (item == null || item.getId() == null || item.getOpco() == null || item.getOpco().isBlank()) {
+                throw new InvalidRequestException("Every item needs an id and an OPCO");
+            }
+            validateOpco(item.getOpco());
+            String opco = item.getOpco().toUpperCase();
+            String previous = opcoById.putIfAbsent(item.getId(), opco);
+            if (previous != null && !previous.equals(opco)) {
+                throw new InvalidRequestException("ID " + item.getId() + " is listed for more than one OPCO");
+            }
+            idsByOpco.computeIfAbsent(opco, k -> new LinkedHashSet<>()).add(item.getId());
+        }
+
+        Map<UUID, Map<String, Object>> found = QueryGuard.within(metadataQueryTimeout,
+                () -> metadataByIds(idsByOpco));
+
+        Map<UUID, MetadataBatchEntry> results = new LinkedHashMap<>();
+        opcoById.forEach((id, opco) -> results.put(id,
+                new MetadataBatchEntry(opco, found.containsKey(id), found.get(id))));
+
+        VpiMetadataBatchResponse response = new VpiMetadataBatchResponse();
+        response.setResults(results);
+        response.setStatus(STATUS_SUCCESS);
+        response.setMessage(MESSAGE_SUCCESS);
+        return response;
+    }
+
+    /**
+     * Retrieves a VPI recording and converts it to MP3 format.
+     *
+     * <p>Process flow:
+     * <ol>
+     *   <li>Validates the request parameters</li>
+     *   <li>Searches for the recording in Azure blob storage</li>
+     *   <li>Downloads the WAV file</li>
+     *   <li>Converts to MP3 using FFmpeg</li>
+     *   <li>Returns as a streamable response</li>
+     * </ol>
+     *
+     * @param request Recording request with filename, OPCO, date, and optional filters
+     * @return ResponseEntity containing MP3 audio data with appropriate headers
+     * @throws InvalidRequestException if request parameters are invalid
+     * @throws RecordingNotFoundException if recording is not found in storage
+     * @throws RecordingProcessingException if download or conversion fails
+     */
+    public ResponseEntity<ByteArrayResource> getRecordingVpi(RecordingRequest request) {
+        logger.info("Retrieving recording for: {}", request.getUsername());
+
+        validateRequest(request);
+        RecordingSearchResult blobStatus = findRecordingVPI(request);
+
+        byte[] wavData = downloadBlob(blobStatus.getBlobName());
+        byte[] mp3Data = convertWavToMp3(wavData);
+
+        return buildAudioResponse(mp3Data, request.getUsername());
+    }
+
+    /**
+     * Downloads multiple VPI recordings as a ZIP archive.
+     *
+     * <p>Features:
+     * <ul>
+     *   <li>Batch processing of multiple recordings</li>
+     *   <li>Individual error handling per recording</li>
+     *   <li>Status summary JSON file included in ZIP</li>
+     *   <li>Continues processing even if some recordings fail</li>
+     * </ul>
+     *
+     * <p>The ZIP contains:
+     * <ul>
+     *   <li>Successfully retrieved MP3 files</li>
+     *   <li>status.json with detailed processing results</li>
+     * </ul>
+     *
+     * @param requests List of recording requests to download
+     * @return ResponseEntity containing ZIP file with all available recordings and status
+     * @throws InvalidRequestException if request list is empty
+     * @throws RecordingProcessingException if ZIP creation fails
+     */
+    public ResponseEntity<byte[]> downloadVpi(List<RecordingRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidRequestException("Request list cannot be empty");
+        }
+
+        List<RecordingStatus> statuses = new ArrayList<>();
+        int successCount = 0;
+        int failureCount = 0;
+
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+             ZipOutputStream zos = new ZipOutputStream(baos)) {
+
+            for (RecordingRequest req : requests) {
+                RecordingStatus status = addRecordingToZip(req, zos);
+                statuses.add(status);
+
+                if (STATUS_RECORDING_SUCCESS.equals(status.getStatus())) {
+                    successCount++;
+                } else {
+                    failureCount++;
+                }
+            }
+
+            if (successCount == 0) {
+                logger.warn("No recordings successfully added to ZIP. Returning no content.");
+                return ResponseEntity.noContent().build();
+            }
+
+            ZipStatusSummary summary = new ZipStatusSummary(
+                    requests.size(),
+                    successCount,
+                    failureCount,
+                    statuses
+            );
+            addStatusFileToZip(summary, zos);
+
+            zos.finish();
+            logger.info("ZIP creation successful: {} successes, {} failures", successCount, failureCount);
+            return buildZipResponse(baos.toByteArray());
+
+        } catch (IOException e) {
+            throw new RecordingProcessingException("Failed to create ZIP", e);
+        }
+    }
+
+    /**
+     * Searches for recordings based on comprehensive criteria.
+     *
+     * <p>Search capabilities:
+     * <ul>
+     *   <li>Date/time range filtering</li>
+     *   <li>OPCO-specific searches</li>
+     *   <li>User name matching (partial matches supported)</li>
+     *   <li>Channel, extension, and tag filtering</li>
+     *   <li>Duration and call direction filters</li>
+     * </ul>
+     *
+     * @param from Start date/time (inclusive)
+     * @param to End date/time (inclusive)
+     * @param opco Operating company code
+     * @param filters Additional search filters (nullable)
+     * @param pageable Pagination information
+     * @param cursor Keyset position of the previous page (nullable, offset paging when null)
+     * @param totalMode How the total is computed
+     * @return Page of VpiMetadata results matching the criteria
+     * @throws InvalidRequestException if OPCO is invalid
+     */
+    public SearchPage search(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            String opco,
+            VpiFiltersRequest filters,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        logger.debug("Searching recordings for OPCO: {} from {} to {}", opco, from, to);
+
+        validateOpco(opco);
+
+        Optional<Set<UUID>> matchedUserIds = matchNameFilter(opco, filters);
+        if (matchedUserIds.isEmpty()) {
+            logger.debug("No users matched the name filter. Returning empty page.");
+            return SearchPage.empty(pageable);
+        }
+
+        return performSearch(from, to, opco, filters, matchedUserIds.get(), pageable, cursor, totalMode);
+    }
+
+    /**
+     * Exports every recording matching a search, newest first, as NDJSON, CSV, CBOR or Smile.
+     *
+     * <p>The request is validated right away; rows are read when the returned body is
+     * written. Each OPCO is read in a read-only transaction through a server-side cursor
+     * ({@code search.export.fetch-size} rows per round trip) and written as it arrives,
+     * so memory stays flat whatever the row count. User names are looked up once per
+     * chunk of {@code search.export.chunk-size} rows. Pagination in the request is ignored.
+     * Exports are admitted by the {@link OpcoBulkhead}'s export limit.
+     *
+     * @param request Search request (date range, OPCO, filters)
+     * @param format Output format
+     * @return Response body streaming the rows
+     * @throws InvalidRequestException if date range or parameters are invalid
+     */
+    public StreamingResponseBody exportSearch(VpiSearchRequest request, ExportFormat format) {
+        logger.debug("Exporting search as {} for request: {}", format, request);
+
+        validateSearchRequest(request);
+
+        OffsetDateTime from = parseDateTime(request.getFrom_date()).atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = parseDateTime(request.getTo_date()).atOffset(ZoneOffset.UTC);
+
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("End date must be after start date");
+        }
+
+        List<String> opcos = resolveOpcos(request.getOpco());
+        opcos.forEach(this::validateOpco);
+        VpiFiltersRequest filters = request.getFilters();
+
+        return out -> {
+            try (SearchExportWriter writer = SearchExportWriter.of(format, mappers, out)) {
+                for (String opco : opcos) {
+                    exportOpco(from, to, opco, filters, writer);
+                }
+            }
+        };
+    }
+
+    /**
+     * Counts the recordings matching a search per day, direction, agent, extension
+     * and duration bucket.
+     *
+     * <p>Each OPCO is aggregated by a single GROUP BY query; the groups are then folded
+     * into one count list per dimension. Agent and extension lists keep the
+     * {@code search.facets.top-values} most frequent values. Searches that end before
+     * the closed-day boundary are answered from the {@link ClosedDayCache}.
+     *
+     * @param request Search request (date range, OPCO, filters); pagination is ignored
+     * @return Facet counts
+     * @throws InvalidRequestException if date range or parameters are invalid
+     */
+    public VpiFacetsResponse getFacets(VpiSearchRequest request) {
+        logger.debug("Fetching facets for request: {}", request);
+
+        validateSearchRequest(request);
+
+        OffsetDateTime from = parseDateTime(request.getFrom_date()).atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = parseDateTime(request.getTo_date()).atOffset(ZoneOffset.UTC);
+
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("End date must be after start date");
+        }
+
+        List<String> opcos = resolveOpcos(request.getOpco());
+        opcos.forEach(this::validateOpco);
+
+        SearchFacets facets = new SearchFacets(facetDurationEdges);
+        QueryGuard.within(facetsQueryTimeout, () -> {
+            opcos.forEach(opco -> facets.add(facetRows(from, to, opco, request.getFilters())));
+            return facets;
+        });
+
+        VpiFacetsResponse response = facets.toResponse(facetTopValues);
+        response.setStatus(STATUS_SUCCESS);
+        response.setMessage(MESSAGE_SUCCESS);
+        return response;
+    }
+
+    /**
+     * Lists the OPCOs whose datasource is enabled.
+     *
+     * @return OPCO codes in federated search order
+     */
+    public List<String> enabledOpcos() {
+        return FEDERATED_OPCO_ORDER.stream()
+                .filter(this::isRepoEnabled)
+                .toList();
+    }
+
+    /**
+     * Explains the first page of a search as it would run, without reading any rows.
+     * A name filter that matches no user is planned with a placeholder user id so the
+     * statement keeps the shape it has when names do match.
+     *
+     * @param opco OPCO code
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters (nullable)
+     * @return Rendered SQL and its plan
+     * @throws InvalidRequestException if the OPCO is unknown or disabled
+     */
+    public ExplainedStatement explainSearch(
+            String opco,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters) {
+
+        String upperOpco = opco.toUpperCase();
+        assertRepoEnabled(upperOpco);
+
+        Set<UUID> userIds = matchNameFilter(upperOpco, filters).orElseGet(() -> Set.of(new UUID(0, 0)));
+        Pageable firstPage = PageRequest.of(0, DEFAULT_PAGE_SIZE, SEARCH_SORT);
+
+        return QueryGuard.within(searchQueryTimeout, () -> switch (upperOpco) {
+            case "CMP" -> explainCaptures(cmpRepo, "CMP", VpiUsersCmp.class, from, to, filters, userIds, firstPage);
+            case "NYSEG" -> explainCaptures(nysegRepo, "NYSEG", VpiUsersNyseg.class, from, to, filters, userIds, firstPage);
+            case "RGE" -> explainCaptures(rgeRepo, "RGE", VpiUsersRge.class, from, to, filters, userIds, firstPage);
+            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
+        });
+    }
+
+    /**
+     * Explains the page query of one OPCO repository on the connection a search would use.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity, for the name semi-join
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Page to explain
+     * @param <T> Capture entity type
+     * @return Rendered SQL and its plan
+     */
+    private <T extends VpiCaptureBase> ExplainedStatement explainCaptures(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable) {
+
+        Specification<T> spec = captureSpec(from, to, filters, userIds, userEntity);
+        return readOpco(opco, isLive(to), () -> repo.explainPage(spec, pageable));
+    }
+
+    /**
+     * Resolves the name filter to user ids up front, from memory when the OPCO is in the
+     * {@link UserDirectory}. With joined user names and no directory, the filter is left
+     * to a semi-join inside the search statement instead.
+     *
+     * @param opco OPCO code
+     * @param filters Search filters (nullable)
+     * @return Matched user ids (empty set when not resolved up front),
+     *         or empty when the name filter matches no user
+     */
+    private Optional<Set<UUID>> matchNameFilter(String opco, VpiFiltersRequest filters) {
+        List<String> cleanedNames = cleanNames(filters != null ? filters.getName() : null);
+        if (cleanedNames.isEmpty() || (joinUserNames && !userDirectory.isLoaded(opco))) {
+            return Optional.of(Collections.emptySet());
+        }
+
+        Set<UUID> matchedUserIds = fetchMatchedUserIds(opco, cleanedNames);
+        return matchedUserIds.isEmpty() ? Optional.empty() : Optional.of(matchedUserIds);
+    }
+
+    /**
+     * Converts WAV audio data to MP3 format using FFmpeg.
+     *
+     * <p>Conversion specifications:
+     * <ul>
+     *   <li>Codec: libmp3lame</li>
+     *   <li>Bitrate: 128 kbps</li>
+     *   <li>Sample rate: 44100 Hz</li>
+     *   <li>Channels: 2 (stereo)</li>
+     *   <li>Timeout: 120 seconds</li>
+     * </ul>
+     *
+     * <p>This method uses asynchronous I/O for efficient processing and includes
+     * comprehensive error handling for conversion failures.
+     *
+     * @param wavData Raw WAV audio bytes
+     * @return MP3 encoded audio bytes
+     * @throws InvalidRequestException if WAV data is null or empty
+     * @throws RecordingProcessingException if FFmpeg fails or times out
+     */
+    public byte[] convertWavToMp3(byte[] wavData) {
+        if (wavData == null || wavData.length == 0) {
+            throw new InvalidRequestException("WAV data is empty");
+        }
+
+        Process process = null;
+        try {
+            process = startFfmpegProcess();
+            final Process proc = process;
+
+            CompletableFuture<String> errorReader = readErrorStream(proc);
+            CompletableFuture<Void> writer = writeInputData(proc, wavData);
+            CompletableFuture<byte[]> reader = readOutputData(proc);
+
+            CompletableFuture.allOf(writer, reader, errorReader)
+                    .get(CONVERSION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            byte[] mp3Data = reader.get();
+            String errors = errorReader.get();
+
+            int exitCode = process.waitFor();
+
+            validateConversionResult(exitCode, errors, wavData.length, mp3Data.length);
+
+            return mp3Data;
+
+        } catch (TimeoutException e) {
+            destroyProcess(process);
+           throw new RecordingProcessingException(
+                    "Conversion timed out after " + CONVERSION_TIMEOUT_SECONDS + " seconds", e);
+        } catch (ExecutionException e) {
+           throw new RecordingProcessingException("Conversion failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            destroyProcess(process);
+            throw new RecordingProcessingException("Conversion interrupted", e);
+        } catch (IOException e) {
+            throw new RecordingProcessingException("Failed to start FFmpeg process", e);
+        } finally {
+            destroyProcess(process);
+        }
+    }
+
+    // ========== Validation Methods ==========
+
+    /**
+     * Validates a search request for completeness and correctness.
+     *
+     * @param request The search request to validate
+     * @throws InvalidRequestException if any required field is missing or invalid
+     */
+    private void validateSearchRequest(VpiSearchRequest request) {
+        if (request == null) {
+            throw new InvalidRequestException("Search request cannot be null");
+        }
+        validateRequiredField(request.getFrom_date(), "From date");
+        validateRequiredField(request.getTo_date(), "To date");
+        validateRequiredField(request.getOpco(), "OPCO");
+        resolveOpcos(request.getOpco());
+        validateFilters(request.getFilters());
+    }
+
+    /**
+     * Validates filter values that must be numeric for their match mode, and the duration range.
+     *
+     * @param filters The search filters (nullable)
+     * @throws InvalidRequestException if a channelNum value is not a number for EXACT or PREFIX match,
+     *         or the duration range is negative or inverted
+     */
+    private void validateFilters(VpiFiltersRequest filters) {
+        if (filters == null) {
+            return;
+        }
+
+        validateDurationRange(filters.getDurationMin(), filters.getDurationMax());
+
+        if (filters.getChannelNum() == null || filters.channelNumMode() == MatchMode.CONTAINS) {
+            return;
+        }
+
+        for (String value : filters.getChannelNum()) {
+            if (StringUtils.hasText(value) && !value.trim().matches("\\d+")) {
+                throw new InvalidRequestException(String.format(
+                        "channelNum '%s' must be numeric for %s match", value, filters.channelNumMode()));
+            }
+        }
+    }
+
+    /**
+     * Validates the optional duration range of a search.
+     *
+     * @param min Shortest duration in seconds (nullable)
+     * @param max Longest duration in seconds (nullable)
+     * @throws InvalidRequestException if a bound is negative or min is above max
+     */
+    private void validateDurationRange(Integer min, Integer max) {
+        if ((min != null && min < 0) || (max != null && max < 0)) {
+            throw new InvalidRequestException("durationMin and durationMax must not be negative");
+        }
+        if (min != null && max != null && min > max) {
+            throw new InvalidRequestException("durationMin must not be greater than durationMax");
+        }
+    }
+
+    /**
+     * Validates a recording request for completeness.
+     *
+     * @param req The recording request to validate
+     * @throws InvalidRequestException if any required field is missing
+     */
+    private void validateRequest(RecordingRequest req) {
+        if (req == null) {
+            throw new InvalidRequestException("Request cannot be null");
+        }
+        validateRequiredField(req.getOpco(), "OPCO");
+        validateRequiredField(req.getDate(), "Date");
+        validateOpco(req.getOpco());
+    }
+
+    /**
+     * Validates an OPCO code against allowed values and checks repository availability.
+     *
+     * @param opco The OPCO code to validate
+     * @throws InvalidRequestException if OPCO is invalid or its datasource is disabled
+     */
+    private void validateOpco(String opco) {
+        assertRepoEnabled(opco);
+        validateRequiredField(opco, "OPCO");
+
+        if (!ALLOWED_OPCOS.contains(opco.trim().toUpperCase())) {
+            throw new InvalidRequestException(
+                    String.format("Invalid OPCO '%s'. Allowed values: %s",
+                            opco, String.join(", ", ALLOWED_OPCOS)));
+        }
+    }
+
+    /**
+     * Resolves the OPCO selector of a search request.
+     *
+     * <p>Accepts a single OPCO, a comma separated list, or {@code ALL} for every
+     * OPCO whose datasource is enabled.
+     *
+     * @param opco The OPCO selector
+     * @return Distinct upper-case OPCO codes, in federated search order, so that
+     *         {@code CMP,NYSEG}, {@code NYSEG,CMP} and {@code ALL} share result cache entries
+     * @throws InvalidRequestException if any OPCO is invalid or disabled
+     */
+    private List<String> resolveOpcos(String opco) {
+        validateRequiredField(opco, "OPCO");
+
+        if (OPCO_ALL.equalsIgnoreCase(opco.trim())) {
+            List<String> enabled = FEDERATED_OPCO_ORDER.stream()
+                    .filter(this::isRepoEnabled)
+                    .toList();
+            if (enabled.isEmpty()) {
+                throw new InvalidRequestException("No OPCO datasource is enabled");
+            }
+            return enabled;
+        }
+
+        List<String> opcos = Arrays.stream(opco.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(value -> value.toUpperCase(Locale.ROOT))
+                .distinct()
+                .toList();
+
+        if (opcos.isEmpty()) {
+            throw new InvalidRequestException("OPCO is required");
+        }
+        opcos.forEach(this::validateOpco);
+        return opcos.stream()
+                .sorted(Comparator.comparingInt(FEDERATED_OPCO_ORDER::indexOf))
+                .toList();
+    }
+
+    /**
+     * Validates that a required field has a value.
+     *
+     * @param value The field value to check
+     * @param fieldName The name of the field (for error messages)
+     * @throws InvalidRequestException if the field is null or empty
+     */
+    private void validateRequiredField(String value, String fieldName) {
+        if (!StringUtils.hasText(value)) {
+            throw new InvalidRequestException(fieldName + " is required");
+        }
+    }
+
+    /**
+     * Checks whether the repository for the given OPCO is enabled.
+     *
+     * @param opco The upper-case OPCO code to check
+     * @return true if the OPCO's datasource is enabled, false if it is disabled or unknown
+     */
+    private boolean isRepoEnabled(String opco) {
+        return switch (opco) {
+            case "CMP" -> cmpRepo != null;
+            case "NYSEG" -> nysegRepo != null;
+            case "RGE" -> rgeRepo != null;
+            default -> false;
+        };
+    }
+
+    /**
+     * Asserts that the repository for the given OPCO is enabled.
+     *
+     * @param opco The OPCO code to check
+     * @throws InvalidRequestException if the datasource for this OPCO is disabled
+     */
+    private void assertRepoEnabled(String opco) {
+        String upperOpco = opco.toUpperCase();
+
+        if ("CMP".equals(upperOpco) && cmpRepo == null) {
+            throw new InvalidRequestException("CMP datasource is disabled");
+        }
+        if ("NYSEG".equals(upperOpco) && nysegRepo == null) {
+            throw new InvalidRequestException("NYSEG datasource is disabled");
+        }
+        if ("RGE".equals(upperOpco) && rgeRepo == null) {
+            throw new InvalidRequestException("RGE datasource is disabled");
+        }
+    }
+
+    // ========== Date/Time Utility Methods ==========
+
+    /**
+     * Parses a date-time string in the standard format (yyyy-MM-dd HH:mm:ss).
+     *
+     * @param dateStr The date string to parse
+     * @return LocalDateTime object
+     * @throws InvalidRequestException if the format is invalid
+     */
+    private LocalDateTime parseDateTime(String dateStr) {
+        try {
+            return LocalDateTime.parse(dateStr, DATE_TIME_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException(
+                    String.format("Invalid date format '%s'. Expected format: yyyy-MM-dd HH:mm:ss", dateStr), e);
+        }
+    }
+
+    /**
+     * Parses a date-time string in XML format (M/d/yyyy h:mm:ss a).
+     *
+     * @param dateStr The XML date string to parse
+     * @return LocalDateTime object
+     * @throws InvalidRequestException if the format is invalid
+     */
+    private LocalDateTime parseDateTimeXML(String dateStr) {
+        try {
+            return LocalDateTime.parse(dateStr, XML_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException(
+                    String.format("Invalid date format '%s'. Expected format: M/d/yyyy h:mm:ss a", dateStr), e);
+        }
+    }
+
+    /**
+     * Converts an OffsetDateTime to XML start time format.
+     *
+     * @param dateTime The datetime to convert
+     * @return Formatted string in XML format, or null if input is null
+     */
+    public static String toXmlStartTime(OffsetDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+
+        OffsetDateTime utc = dateTime.withOffsetSameInstant(ZoneOffset.UTC);
+        LocalDateTime local = utc.toLocalDateTime().withNano(0);
+
+        return local.format(XML_FORMATTER);
+    }
+
+    /**
+     * Converts XML start time format to file timestamp format.
+     *
+     * <p>Example: "1/15/2024 3:45:30 PM" → "2024-01-15_03-45-30"
+     *
+     * @param xmlStartTime The XML start time string
+     * @return File timestamp string
+     * @throws IllegalArgumentException if input is null, empty, or invalid format
+     */
+    public String xmlStartTimeToFileTimestamp(String xmlStartTime) {
+        if (xmlStartTime == null || xmlStartTime.isBlank()) {
+            throw new IllegalArgumentException("xmlStartTime cannot be null or empty");
+        }
+
+        try {
+            TemporalAccessor parsed = XML_FORMATTER.parse(xmlStartTime);
+
+            int year = parsed.get(ChronoField.YEAR);
+            int month = parsed.get(ChronoField.MONTH_OF_YEAR);
+            int day = parsed.get(ChronoField.DAY_OF_MONTH);
+            int hour12 = parsed.get(ChronoField.CLOCK_HOUR_OF_AMPM);
+            int minute = parsed.get(ChronoField.MINUTE_OF_HOUR);
+            int second = parsed.get(ChronoField.SECOND_OF_MINUTE);
+
+            return String.format("%04d-%02d-%02d_%02d-%02d-%02d",
+                    year, month, day, hour12, minute, second);
+
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException(
+                    "Invalid XML startTime format. Expected: M/d/yyyy h:mm:ss a → " + xmlStartTime, ex);
+        }
+    }
+
+    // ========== Pagination Utility Methods ==========
+
+    /**
+     * Creates a Pageable object from pagination request.
+     *
+     * @param pagination The pagination request (nullable)
+     * @return Pageable with safe defaults if request is null
+     */
+    private Pageable createPageable(PaginationRequest pagination) {
+        int pageNumber = pagination != null ? pagination.getPageNumber() : MIN_PAGE_NUMBER;
+        int requestedPageSize = pagination != null ? pagination.getPageSize() : DEFAULT_PAGE_SIZE;
+
+        int pageSize = requestedPageSize > 0 ? requestedPageSize : DEFAULT_PAGE_SIZE;
+        int safePage = Math.max(pageNumber - 1, 0);
+
+        return PageRequest.of(safePage, pageSize, resolveSort(pagination).toSort());
+    }
+
+    /**
+     * Resolves the requested order of a search.
+     *
+     * @param pagination The pagination request (nullable)
+     * @return Requested sort, newest first by default
+     */
+    private SearchSort resolveSort(PaginationRequest pagination) {
+        return pagination != null
+                ? SearchSort.of(pagination.getSortBy(), pagination.getSortDirection())
+                : SearchSort.NEWEST_FIRST;
+    }
+
+    /**
+     * Decodes the keyset cursor of a pagination request.
+     *
+     * @param pagination The pagination request (nullable)
+     * @return Decoded cursor, or null when offset paging is requested
+     * @throws InvalidRequestException if the cursor is malformed or was issued for another sort
+     */
+    private SearchCursor parseCursor(PaginationRequest pagination) {
+        if (pagination == null || !StringUtils.hasText(pagination.getCursor())) {
+            return null;
+        }
+
+        SearchCursor cursor = SearchCursor.decode(pagination.getCursor().trim());
+        if (!cursor.getSort().equals(resolveSort(pagination))) {
+            throw new InvalidRequestException("Pagination cursor does not match the requested sort");
+        }
+        return cursor;
+    }
+
+    /**
+     * Resolves how the total of a search is computed.
+     * Cursor pages skip the count unless a mode is requested explicitly.
+     *
+     * @param pagination The pagination request (nullable)
+     * @param cursor Decoded cursor (nullable)
+     * @return Requested total mode, or the default for the paging style
+     */
+    private TotalType resolveTotalMode(PaginationRequest pagination, SearchCursor cursor) {
+        if (pagination != null && pagination.getTotalMode() != null) {
+            return pagination.getTotalMode();
+        }
+        return cursor == null ? TotalType.EXACT : TotalType.NONE;
+    }
+
+    /**
+     * Builds a search response from a page result.
+     *
+     * <p>Totals are only reported when a count was run; {@code totalType} says whether
+     * they are exact, capped at {@code search.total.cap} or a planner estimate.
+     *
+     * @param pageResult The page of results
+     * @return Formatted VpiSearchResponse
+     */
+    private VpiSearchResponse buildSearchResponse(SearchPage pageResult) {
+        VpiSearchResponse response = new VpiSearchResponse();
+        PaginationResponse pageResponse = new PaginationResponse();
+        Slice<VpiMetadata> results = pageResult.getResults();
+
+        response.setData(results.getContent());
+        response.setMessage(MESSAGE_SUCCESS);
+        response.setStatus(STATUS_SUCCESS);
+
+        pageResponse.setPageNumber(results.getNumber() + 1);
+        pageResponse.setPageSize(results.getSize());
+        if (results instanceof Page<VpiMetadata> page) {
+            pageResponse.setTotalRecords(page.getTotalElements());
+            pageResponse.setTotalPages(page.getTotalPages());
+        }
+        pageResponse.setTotalType(pageResult.getTotalType());
+        pageResponse.setHasNext(results.hasNext());
+        pageResponse.setNextCursor(pageResult.getNextCursor());
+        response.setPagination(pageResponse);
+
+        if (!pageResult.getIncompleteOpcos().isEmpty()) {
+            response.setIncompleteOpcos(pageResult.getIncompleteOpcos());
+            response.setMessage("Partial results: no answer from "
+                    + String.join(", ", pageResult.getIncompleteOpcos()));
+        }
+
+        return response;
+    }
+
+    // ========== String Utility Methods ==========
+
+    /**
+     * Cleans a list of names by removing nulls, trimming, and filtering empty strings.
+     *
+     * @param names The list of names to clean (nullable)
+     * @return Cleaned list of names
+     */
+    private List<String> cleanNames(List<String> names) {
+        if (names == null) {
+            return Collections.emptyList();
+        }
+
+        return names.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Normalizes a string to lowercase for case-insensitive comparison.
+     *
+     * @param value The value to normalize
+     * @return Normalized lowercase string, or empty string if null
+     */
+    private String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks if a string is null or empty after trimming.
+     *
+     * @param value The string to check
+     * @return true if null or empty, false otherwise
+     */
+    private boolean isNullOrEmpty(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    // ========== Recording Search Methods ==========
+
+    /**
+     * Finds a VPI recording in Azure blob storage matching the request criteria.
+     *
+     * <p>Search strategy:
+     * <ol>
+     *   <li>Build day-based prefix for blob search</li>
+     *   <li>Find XML metadata files matching timestamp and customer</li>
+     *   <li>Parse XML files and filter by metadata fields</li>
+     *   <li>Return the first successful match</li>
+     * </ol>
+     *
+     * @param req The recording request with search criteria
+     * @return RecordingSearchResult containing blob name and match status
+     * @throws RecordingNotFoundException if no matching recording is found
+     */
+    private RecordingSearchResult findRecordingVPI(RecordingRequest req) {
+        String fileDate = xmlStartTimeToFileTimestamp(req.getDate());
+        String prefix = buildDayPrefix(req.getOpco(), parseDateTimeXML(req.getDate()).toLocalDate());
+        String normalizedCustomer = normalize(req.getUsername());
+
+        List<String> xmlCandidates = findXmlCandidates(req.getOpco(), prefix, fileDate, normalizedCustomer);
+
+        if (xmlCandidates.isEmpty()) {
+            throw new RecordingNotFoundException("No XML recordings found");
+        }
+
+        List<MediaMetadata> matchedMedia = processXmlCandidates(
+                xmlCandidates, fileDate, normalizedCustomer, req);
+
+        return buildRecordingResult(matchedMedia, prefix);
+    }
+
+    /**
+     * Finds XML blob candidates based on OPCO type.
+     *
+     * @param opco Operating company code
+     * @param prefix Blob prefix path
+     * @param fileDate File timestamp
+     * @param normalizedCustomer Normalized customer name
+     * @return List of XML blob names
+     */
+    private List<String> findXmlCandidates(String opco, String prefix,
+                                           String fileDate, String normalizedCustomer) {
+        return "CMP".equalsIgnoreCase(opco)
+                ? findCmpXmlBlobs(prefix + "Metadata/")
+                : findMatchingXmlBlobs(prefix, fileDate, normalizedCustomer);
+    }
+
+    /**
+     * Processes XML candidates and extracts matching media metadata.
+     *
+     * @param xmlCandidates List of XML blob names to process
+     * @param fileDate Expected file timestamp
+     * @param normalizedCustomer Normalized customer name
+     * @param req Recording request with filter criteria
+     * @return List of matched MediaMetadata
+     * @throws RecordingNotFoundException if no matches found
+     */
+    private List<MediaMetadata> processXmlCandidates(List<String> xmlCandidates,
+                                                     String fileDate,
+                                                     String normalizedCustomer,
+                                                     RecordingRequest req) {
+        List<MediaMetadata> matchedMedia = new ArrayList<>();
+        boolean metadataFoundButNoMatch = false;
+
+        for (String xmlBlob : xmlCandidates) {
+            List<MediaMetadata> metaMatch = parseXml(xmlBlob);
+
+            if (metaMatch.size() > 1) {
+                metaMatch = findMatchingMediaCMP(metaMatch, fileDate, normalizedCustomer);
+            }
+
+            for (MediaMetadata media : metaMatch) {
+                if (matchesMetadata(media, req.getAniAliDigits(), req.getDuration(),
+                        req.getExtensionNum(), req.getChannelNum(), req.getObjectId())) {
+                    metadataFoundButNoMatch = true;
+
+                    if (STATUS_RECORDING_SUCCESS.equals(media.getResult())) {
+                        matchedMedia.add(media);
+                    }
+                }
+            }
+        }
+
+        validateMatchedMedia(matchedMedia, metadataFoundButNoMatch);
+        return matchedMedia;
+    }
+
+    /**
+     * Validates that matched media is not empty and throws appropriate exception.
+     *
+     * @param matchedMedia List of matched media
+     * @param metadataFoundButNoMatch Flag indicating if metadata was found but didn't match
+     * @throws RecordingNotFoundException if no matches found with appropriate message
+     */
+    private void validateMatchedMedia(List<MediaMetadata> matchedMedia,
+                                      boolean metadataFoundButNoMatch) {
+        if (matchedMedia.isEmpty()) {
+            if (metadataFoundButNoMatch) {
+                throw new RecordingNotFoundException("Recording audio is not migrated to the Azure blob");
+            }
+            throw new RecordingNotFoundException("Recording xml found but metadata mismatch");
+        }
+    }
+
+    /**
+     * Builds the final recording search result from matched media.
+     *
+     * @param matchedMedia List of matched media metadata
+     * @param prefix Blob prefix path
+     * @return RecordingSearchResult with blob name and multiple match flag
+     */
+    private RecordingSearchResult buildRecordingResult(List<MediaMetadata> matchedMedia, String prefix) {
+        RecordingSearchResult result = new RecordingSearchResult();
+        result.setBlobName(prefix + matchedMedia.getFirst().getFileName());
+
+        if (matchedMedia.size() > 1) {
+            result.setMultipleFound(true);
+            logger.warn("Multiple recordings found for request. Using first match.");
+        }
+
+        return result;
+    }
+    /**
+     * Finds XML blob files for CMP OPCO.
+     *
+     * @param dayPrefix The day prefix path
+     * @return List of XML blob names
+     */
+    private List<String> findCmpXmlBlobs(String dayPrefix) {
+        List<String> blobs = vpiAzureRepository.listBlobs(dayPrefix);
+        return blobs.stream()
+                .filter(blob -> blob.toLowerCase(Locale.ROOT).endsWith(".xml"))
+                .toList();
+    }
+
+    /**
+     * Finds XML blobs matching timestamp and customer name.
+     *
+     * @param prefix The blob prefix
+     * @param expectedDateTime The expected timestamp
+     * @param normalizedCustomer The normalized customer name
+     * @return List of matching XML blob names
+     */
+    private List<String> findMatchingXmlBlobs(String prefix,
+                                              String expectedDateTime,
+                                              String normalizedCustomer) {
+        List<String> blobs = vpiAzureRepository.listBlobs(prefix);
+        List<String> matchedXmls = new ArrayList<>();
+
+        for (String blobName : blobs) {
+            if (!blobName.endsWith(".xml")) {
+                continue;
+            }
+
+            if (!matchesTimestamp(blobName, expectedDateTime)) {
+                continue;
+            }
+
+            if (matchesCustomer(blobName, normalizedCustomer)) {
+                matchedXmls.add(blobName);
+            }
+        }
+
+        return matchedXmls;
+    }
+
+    /**
+     * Filters media metadata for CMP recordings matching timestamp and customer.
+     *
+     * @param metadataList The list of media metadata to filter
+     * @param expectedDateTime The expected timestamp
+     * @param normalizedCustomer The normalized customer name
+     * @return Filtered list of valid metadata
+     */
+    public List<MediaMetadata> findMatchingMediaCMP(List<MediaMetadata> metadataList,
+                                                    String expectedDateTime,
+                                                    String normalizedCustomer) {
+        if (metadataList == null || metadataList.isEmpty()) {
+            logger.debug("Empty or null metadata list provided for validation");
+            return Collections.emptyList();
+        }
+
+        logger.info("Validating {} metadata records against timestamp: {} and customer: {}",
+                metadataList.size(), expectedDateTime, normalizedCustomer);
+
+        List<MediaMetadata> validMetadata = metadataList.stream()
+                .filter(Objects::nonNull)
+                .filter(meta -> isValidFilename(meta.getFileName(), expectedDateTime, normalizedCustomer))
+                .toList();
+
+        logger.info("Validation complete: {} out of {} records passed filename validation",
+                validMetadata.size(), metadataList.size());
+
+        return validMetadata;
+    }
+
+    /**
+     * Validates a filename against expected timestamp and customer name.
+     *
+     * @param fileName The filename to validate
+     * @param expectedDateTime The expected timestamp
+     * @param normalizedCustomer The normalized customer name
+     * @return true if valid, false otherwise
+     */
+    private boolean isValidFilename(String fileName, String expectedDateTime, String normalizedCustomer) {
+        if (isNullOrEmpty(fileName)) {
+            logger.debug("Skipping validation for null or empty filename");
+            return false;
+        }
+
+        boolean timestampMatches = matchesTimestamp(fileName, expectedDateTime);
+        boolean customerMatches = matchesCustomer(fileName, normalizedCustomer);
+
+        if (!timestampMatches || !customerMatches) {
+            logger.debug("Filename validation failed for '{}': timestamp={}, customer={}",
+                    fileName, timestampMatches, customerMatches);
+        }
+
+        return timestampMatches && customerMatches;
+    }
+
+    /**
+     * Parses XML blob content to extract media metadata.
+     *
+     * @param blobName The blob name containing XML
+     * @return List of media metadata extracted from XML
+     * @throws RecordingProcessingException if XML parsing fails
+     */
+    private List<MediaMetadata> parseXml(String blobName) {
+        try {
+            byte[] xmlBytes = vpiAzureRepository.getBlobContent(blobName);
+            try (InputStream is = new ByteArrayInputStream(xmlBytes)) {
+                return processMediaXml(is);
+            }
+        } catch (IOException e) {
+            throw new RecordingProcessingException("Failed parsing XML " + blobName, e);
+        }
+    }
+
+    /**
+     * Processes XML stream to extract media metadata.
+     *
+     * @param xmlStream The XML input stream
+     * @return List of extracted media metadata
+     */
+    public List<MediaMetadata> processMediaXml(InputStream xmlStream) {
+        logger.debug("Starting XML media metadata extraction");
+
+        List<MediaMetadata> metadataList = xmlParser.parse(xmlStream);
+
+        logger.info("Extracted {} media metadata records", metadataList.size());
+
+        long invalidCount = metadataList.stream()
+                .filter(metadata -> !metadata.isValid())
+                .count();
+
+        if (invalidCount > 0) {
+            logger.warn("Found {} invalid metadata records", invalidCount);
+        }
+
+        return metadataList;
+    }
+
+    // ========== Metadata Matching Methods ==========
+
+    /**
+     * Checks if media metadata matches all specified criteria.
+     *
+     * @param metadata The metadata to check
+     * @param aniAliDigits ANI/ALI digits filter (nullable)
+     * @param duration Duration filter (nullable)
+     * @param extensionNum Extension number filter (nullable)
+     * @param channelNum Channel number filter (nullable)
+     * @param objectId Object ID filter (nullable)
+     * @return true if all non-null criteria match, false otherwise
+     */
+    private boolean matchesMetadata(MediaMetadata metadata,
+                                    String aniAliDigits,
+                                    Integer duration,
+                                    String extensionNum,
+                                    Integer channelNum,
+                                    String objectId) {
+        if (metadata == null || metadata.getFields() == null) {
+            return false;
+        }
+
+        Map<String, String> fields = metadata.getFields();
+
+        return matchesField(fields, "aniAliDigits", aniAliDigits) &&
+                matchesIntegerField(fields, "duration", duration) &&
+                matchesField(fields, "extensionNum", extensionNum) &&
+                matchesIntegerField(fields, "channelNum", channelNum) &&
+                matchesField(fields, "objectID", objectId);
+    }
+
+    /**
+     * Checks if a string field matches the expected value.
+     * Null or empty expected values are treated as wildcards (always match).
+     *
+     * @param fields The fields map
+     * @param fieldName The field name to check
+     * @param expectedValue The expected value (nullable)
+     * @return true if matches or is wildcard, false otherwise
+     */
+    private boolean matchesField(Map<String, String> fields, String fieldName, String expectedValue) {
+        if (isNullOrEmpty(expectedValue)) {
+            return true;
+        }
+
+        String actualValue = fields.get(fieldName);
+        if (isNullOrEmpty(actualValue)) {
+            return true;
+        }
+
+        return expectedValue.equals(actualValue);
+    }
+
+    /**
+     * Checks if an integer field matches the expected value.
+     * Null expected values are treated as wildcards (always match).
+     *
+     * @param fields The fields map
+     * @param fieldName The field name to check
+     * @param expectedValue The expected value (nullable)
+     * @return true if matches or is wildcard, false otherwise
+     */
+    private boolean matchesIntegerField(Map<String, String> fields,
+                                        String fieldName,
+                                        Integer expectedValue) {
+        if (expectedValue == null) {
+            return true;
+        }
+
+        String actualValue = fields.get(fieldName);
+        if (isNullOrEmpty(actualValue)) {
+            return false;
+        }
+
+        try {
+            Integer actualInt = Integer.valueOf(actualValue.trim());
+            return expectedValue.equals(actualInt);
+        } catch (NumberFormatException ex) {
+            logger.debug("Invalid integer value for field {} : {}", fieldName, actualValue);
+            return false;
+        }
+    }
+
+    /**
+     * Checks if a blob name's timestamp matches the expected value.
+     *
+     * @param blobName The blob name
+     * @param expected The expected timestamp string
+     * @return true if matches, false otherwise
+     */
+    private boolean matchesTimestamp(String blobName, String expected) {
+        return extractDateTime(blobName)
+                .map(actual -> actual.equals(expected))
+                .orElse(false);
+    }
+
+    /**
+     * Checks if a blob name's customer name matches the expected value.
+     *
+     * @param blobName The blob name
+     * @param normalizedCustomer The normalized expected customer name
+     * @return true if matches, false otherwise
+     */
+    private boolean matchesCustomer(String blobName, String normalizedCustomer) {
+        return extractCustomerName(blobName)
+                .map(this::normalize)
+                .map(name -> name.equals(normalizedCustomer))
+                .orElse(false);
+    }
+
+    // ========== Blob Path Methods ==========
+
+    /**
+     * Builds a day-based prefix for blob storage paths.
+     *
+     * @param opco The OPCO code
+     * @param date The date
+     * @return Formatted prefix string (e.g., "RGE/2024/1/15/")
+     */
+    private String buildDayPrefix(String opco, LocalDate date) {
+        return String.format("%s/%d/%d/%d/",
+                opco.toUpperCase(Locale.ROOT),
+                date.getYear(),
+                date.getMonthValue(),
+                date.getDayOfMonth());
+    }
+
+    /**
+     * Downloads blob content from Azure storage.
+     *
+     * @param blobName The blob name to download
+     * @return Byte array of blob content
+     * @throws RecordingProcessingException if download fails
+     */
+    private byte[] downloadBlob(String blobName) {
+        try {
+            return vpiAzureRepository.getBlobContent(blobName);
+        } catch (Exception e) {
+            throw new RecordingProcessingException("Failed to download recording: " + e.getMessage(), e);
+        }
+    }
+
+    // ========== Filename Parsing Methods ==========
+
+    /**
+     * Extracts date-time portion from a blob filename.
+     *
+     * @param blobName The blob name
+     * @return Optional containing extracted datetime string
+     */
+    private Optional<String> extractDateTime(String blobName) {
+        try {
+            String fileName = extractFileName(blobName);
+
+            if (fileName.length() < FILENAME_DATETIME_END) {
+                return Optional.empty();
+            }
+
+            return Optional.of(
+                    fileName.substring(FILENAME_DATETIME_START, FILENAME_DATETIME_END)
+            );
+        } catch (Exception ex) {
+            logger.debug("Failed to extract datetime from blob: {}", blobName, ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Extracts customer name from a blob filename.
+     *
+     * @param blobName The blob name
+     * @return Optional containing extracted customer name
+     */
+    private Optional<String> extractCustomerName(String blobName) {
+        try {
+            String fileName = extractFileName(blobName);
+            int endIndex = fileName.indexOf(WAV_EXTENSION);
+
+            if (endIndex == -1 || fileName.length() < FILENAME_CUSTOMER_START) {
+                return Optional.empty();
+            }
+
+            return Optional.of(
+                    fileName.substring(FILENAME_CUSTOMER_START, endIndex)
+            );
+        } catch (Exception ex) {
+            logger.debug("Failed to extract customer name from blob: {}", blobName, ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Extracts the filename portion from a full blob path.
+     *
+     * @param blobName The full blob path
+     * @return The filename only
+     */
+    private String extractFileName(String blobName) {
+        return blobName.substring(blobName.lastIndexOf('/') + 1);
+    }
+
+    // ========== FFmpeg Conversion Helper Methods ==========
+
+    /**
+     * Builds the FFmpeg command array for WAV to MP3 conversion.
+     *
+     * @return String array containing FFmpeg command and arguments
+     */
+    private String[] buildFfmpegCommand() {
+        return new String[]{
+                ffmpegPath,
+                "-hide_banner",
+                "-loglevel", "warning",
+                "-i", "pipe:0",
+                "-vn",
+                "-acodec", "libmp3lame",
+                "-ab", "128k",
+                "-ac", "2",
+                "-ar", "44100",
+                "-f", "mp3",
+                "pipe:1"
+        };
+    }
+
+    /**
+     * Starts the FFmpeg process with secure environment settings.
+     *
+     * @return Started Process instance
+     * @throws IOException if process creation fails
+     */
+    private Process startFfmpegProcess() throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(buildFfmpegCommand());
+
+        if ("/usr/bin/ffmpeg".equals(ffmpegPath)) {
+            Map<String, String> env = pb.environment();
+            env.clear();
+            env.put("PATH", "/usr/bin:/bin");
+        }
+
+        return pb.start();
+    }
+
+    /**
+     * Asynchronously reads the error stream from FFmpeg process.
+     *
+     * @param process The FFmpeg process
+     * @return CompletableFuture containing error output
+     */
+    private CompletableFuture<String> readErrorStream(Process process) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream stderr = process.getErrorStream();
+                 BufferedReader reader = new BufferedReader(
+                         new InputStreamReader(stderr, StandardCharsets.UTF_8))) {
+                return reader.lines().collect(Collectors.joining("\n"));
+            } catch (IOException e) {
+                logger.error("Failed to read FFmpeg error stream", e);
+                return "Failed to read error stream: " + e.getMessage();
+            }
+        });
+    }
+
+    /**
+     * Asynchronously writes WAV data to FFmpeg's stdin.
+     *
+     * @param process The FFmpeg process
+     * @param wavData The WAV data to write
+     * @return CompletableFuture that completes when writing is done
+     */
+    private CompletableFuture<Void> writeInputData(Process process, byte[] wavData) {
+        return CompletableFuture.runAsync(() -> {
+            try (OutputStream stdin = process.getOutputStream()) {
+                stdin.write(wavData);
+                stdin.flush();
+            } catch (IOException e) {
+                logger.error("Failed to write input data to FFmpeg", e);
+                throw new UncheckedIOException("Write failed", e);
+            }
+        });
+    }
+
+    /**
+     * Asynchronously reads MP3 data from FFmpeg's stdout.
+     *
+     * @param process The FFmpeg process
+     * @return CompletableFuture containing MP3 data
+     */
+    private CompletableFuture<byte[]> readOutputData(Process process) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream stdout = process.getInputStream();
+                 ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int bytesRead;
+                while ((bytesRead = stdout.read(buffer)) != -1) {
+                    output.write(buffer, 0, bytesRead);
+                }
+                return output.toByteArray();
+
+            } catch (IOException e) {
+                throw new UncheckedIOException("Read failed", e);
+            }
+        });
+    }
+
+    /**
+     * Validates the FFmpeg conversion result.
+     *
+     * @param exitCode FFmpeg process exit code
+     * @param errors Error messages from FFmpeg
+     * @param inputSize Size of input WAV data
+     * @param outputSize Size of output MP3 data
+     * @throws RecordingProcessingException if conversion failed
+     */
+    private void validateConversionResult(int exitCode, String errors, int inputSize, int outputSize) {
+        if (exitCode != 0) {
+            throw new RecordingProcessingException(
+                    String.format("FFmpeg failed (exit %d): %s", exitCode, errors));
+        }
+
+        if (!errors.isEmpty()) {
+            logger.warn("FFmpeg warnings: {}", errors);
+        }
+
+        logger.info("Conversion successful: {} bytes WAV -> {} bytes MP3", inputSize, outputSize);
+    }
+
+    /**
+     * Forcibly destroys a process if it's still alive.
+     *
+     * @param process The process to destroy (nullable)
+     */
+    private void destroyProcess(Process process) {
+        if (process != null && process.isAlive()) {
+            process.destroyForcibly();
+            logger.debug("FFmpeg process destroyed");
+        }
+    }
+
+    // ========== Response Building Methods ==========
+
+    /**
+     * Builds an HTTP response for audio data.
+     *
+     * @param mp3Data The MP3 audio bytes
+     * @param originalFilename The original filename
+     * @return ResponseEntity with appropriate headers and audio data
+     */
+    private ResponseEntity<ByteArrayResource> buildAudioResponse(byte[] mp3Data, String originalFilename) {
+        String mp3Filename = originalFilename + MP3_EXTENSION;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("audio/mpeg"));
+        headers.setContentDispositionFormData("inline", mp3Filename);
+        headers.setContentLength(mp3Data.length);
+
+        ByteArrayResource resource = new ByteArrayResource(mp3Data);
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(resource);
+    }
+
+    /**
+     * Builds an HTTP response for ZIP file data.
+     *
+     * @param zipData The ZIP file bytes
+     * @return ResponseEntity with appropriate headers and ZIP data
+     */
+    private ResponseEntity<byte[]> buildZipResponse(byte[] zipData) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recordings.zip\"");
+        headers.setContentLength(zipData.length);
+
+        return new ResponseEntity<>(zipData, headers, HttpStatus.OK);
+    }
+
+    // ========== ZIP Creation Methods ==========
+
+    /**
+     * Adds a single recording to a ZIP output stream.
+     *
+     * @param req The recording request
+     * @param zos The ZIP output stream
+     * @return RecordingStatus indicating success or failure
+     */
+    private RecordingStatus addRecordingToZip(RecordingRequest req, ZipOutputStream zos) {
+        validateRequest(req);
+
+        String fileDate = xmlStartTimeToFileTimestamp(req.getDate());
+        String zipEntryName = fileDate + req.getUsername();
+        String blobName = null;
+
+        try {
+            blobName = findRecordingVPI(req).getBlobName();
+
+            if (blobName == null || blobName.isEmpty()) {
+                logger.warn("No matching blob found for user={} date={}", req.getUsername(), req.getDate());
+                return createNotFoundStatus(req);
+            }
+
+            addBlobToZip(blobName, zipEntryName, zos);
+            logger.info("Successfully added recording to ZIP: user={} date={} blob={}",
+                    req.getUsername(), req.getDate(), blobName);
+            return createSuccessStatus(req, zipEntryName);
+
+        } catch (RecordingNotFoundException e) {
+            logger.warn("Recording not found for user={} date={}: {}",
+                    req.getUsername(), req.getDate(), e.getMessage());
+            return createNotFoundStatus(req);
+
+        } catch (IOException e) {
+            logger.error("IO error while adding recording to ZIP: user={} date={} blob={}",
+                    req.getUsername(), req.getDate(), blobName, e);
+            return createErrorStatus(req, zipEntryName, "Failed to write recording to ZIP: " + e.getMessage());
+
+        } catch (Exception e) {
+            logger.error("Unexpected error while processing recording: user={} date={} blob={}",
+                    req.getUsername(), req.getDate(), blobName, e);
+            return createErrorStatus(req, zipEntryName, "Failed to process recording: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a recording status for not found scenarios.
+     *
+     * @param req The recording request
+     * @return RecordingStatus with NOT_FOUND status
+     */
+    private RecordingStatus createNotFoundStatus(RecordingRequest req) {
+        return new RecordingStatus(
+                req.getUsername(),
+                req.getDate(),
+                null,
+                STATUS_NOT_FOUND,
+                "No matching audio file found"
+        );
+    }
+
+    /**
+     * Creates a recording status for successful operations.
+     *
+     * @param req The recording request
+     * @param zipEntryName The ZIP entry name
+     * @return RecordingStatus with SUCCESS status
+     */
+    private RecordingStatus createSuccessStatus(RecordingRequest req, String zipEntryName) {
+        return new RecordingStatus(
+                req.getUsername(),
+                req.getDate(),
+                zipEntryName,
+                STATUS_RECORDING_SUCCESS,
+                null
+        );
+    }
+
+    /**
+     * Creates a recording status for error scenarios.
+     *
+     * @param req The recording request
+     * @param zipEntryName The ZIP entry name
+     * @param errorMessage The error message
+     * @return RecordingStatus with ERROR status
+     */
+    private RecordingStatus createErrorStatus(RecordingRequest req, String zipEntryName, String errorMessage) {
+        return new RecordingStatus(
+                req.getUsername(),
+                req.getDate(),
+                zipEntryName,
+                STATUS_ERROR,
+                errorMessage
+        );
+    }
+
+    /**
+     * Adds a blob to a ZIP output stream.
+     *
+     * @param blobName The blob name to add
+     * @param zipEntryName The name for the ZIP entry
+     * @param zos The ZIP output stream
+     * @throws IOException if I/O error occurs
+     */
+    private void addBlobToZip(String blobName, String zipEntryName, ZipOutputStream zos) throws IOException {
+        zos.putNextEntry(new ZipEntry(zipEntryName));
+        try (InputStream blobStream = vpiAzureRepository.getBlobStream(blobName)) {
+            StreamUtils.copy(blobStream, zos);
+        } finally {
+            zos.closeEntry();
+        }
+    }
+
+    /**
+     * Adds a status summary JSON file to a ZIP.
+     *
+     * @param summary The status summary
+     * @param zos The ZIP output stream
+     * @throws IOException if I/O error occurs
+     */
+    private void addStatusFileToZip(ZipStatusSummary summary, ZipOutputStream zos) throws IOException {
+        ZipEntry entry = new ZipEntry("status.json");
+        zos.putNextEntry(entry);
+
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper
+                .writerWithDefaultPrettyPrinter()
+                .writeValueAsString(summary);
+
+        zos.write(json.getBytes(StandardCharsets.UTF_8));
+        zos.closeEntry();
+    }
+
+    // ========== Database Search Methods ==========
+
+    /**
+     * Performs a search across the appropriate OPCO repository.
+     *
+     * @param from Start datetime
+     * @param to End datetime
+     * @param opco OPCO code
+     * @param filters Additional filters
+     * @param userIds Matched user IDs
+     * @param pageable Pagination settings
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @return Page of VpiMetadata results
+     */
+    private SearchPage performSearch(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            String opco,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        String upperOpco = opco.toUpperCase();
+        SearchShape shape = SearchShape.of(upperOpco, from, to, filters, userIds);
+
+        return slowQueries.sample("search", upperOpco, shape, () -> switch (upperOpco) {
+            case "CMP" -> searchCmp(from, to, filters, userIds, pageable, cursor, totalMode);
+            case "NYSEG" -> searchNyseg(from, to, filters, userIds, pageable, cursor, totalMode);
+            case "RGE" -> searchRge(from, to, filters, userIds, pageable, cursor, totalMode);
+            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
+        }, statements -> analyzeSearch(upperOpco, from, to, filters, userIds, pageable, cursor));
+    }
+
+    /**
+     * Re-runs the page query of a slow search under EXPLAIN (ANALYZE, BUFFERS).
+     *
+     * @param opco Upper-case OPCO code
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @return Rendered SQL and its plan
+     */
+    private ExplainedStatement analyzeSearch(
+            String opco,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor) {
+
+        return switch (opco) {
+            case "CMP" -> analyzeCaptures(cmpRepo, "CMP", VpiUsersCmp.class, from, to, filters, userIds, pageable, cursor);
+            case "NYSEG" -> analyzeCaptures(nysegRepo, "NYSEG", VpiUsersNyseg.class, from, to, filters, userIds, pageable, cursor);
+            case "RGE" -> analyzeCaptures(rgeRepo, "RGE", VpiUsersRge.class, from, to, filters, userIds, pageable, cursor);
+            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
+        };
+    }
+
+    /**
+     * Re-runs the page query of one OPCO repository under EXPLAIN (ANALYZE, BUFFERS),
+     * with the keyset predicate when the page was read by cursor.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity, for the name semi-join
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param <T> Capture entity type
+     * @return Rendered SQL and its plan
+     */
+    private <T extends VpiCaptureBase> ExplainedStatement analyzeCaptures(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor) {
+
+        Specification<T> spec = captureSpec(from, to, filters, userIds, userEntity);
+        if (cursor == null) {
+            return readOpco(opco, isLive(to), () -> repo.analyzePage(spec, pageable));
+        }
+
+        Specification<T> seekSpec = spec.and(CaptureSpecifications.seekAfter(SORT_OBJECT_ID, cursor));
+        Pageable firstPage = PageRequest.of(0, pageable.getPageSize(), pageable.getSort());
+        return readOpco(opco, isLive(to), () -> repo.analyzePage(seekSpec, firstPage));
+    }
+
+    /**
+     * Searches CMP repository.
+     *
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @return Page of results
+     */
+    private SearchPage searchCmp(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        return searchOpco(cmpRepo, "CMP", VpiUsersCmp.class,
+                from, to, filters, userIds, pageable, cursor, totalMode);
+    }
+
+    /**
+     * Searches NYSEG repository.
+     *
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @return Page of results
+     */
+    private SearchPage searchNyseg(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        return searchOpco(nysegRepo, "NYSEG", VpiUsersNyseg.class,
+                from, to, filters, userIds, pageable, cursor, totalMode);
+    }
+
+    /**
+     * Searches RGE repository.
+     *
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @return Page of results
+     */
+    private SearchPage searchRge(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        return searchOpco(rgeRepo, "RGE", VpiUsersRge.class,
+                from, to, filters, userIds, pageable, cursor, totalMode);
+    }
+
+    /**
+     * Searches one OPCO repository, splitting wide date ranges into time slices.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity holding full names
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @param <T> Capture entity type
+     * @return Page of results
+     */
+    private <T extends VpiCaptureBase> SearchPage searchOpco(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        // Slices are concatenated newest first, so only that order can be sliced
+        if (!SearchSort.of(pageable.getSort()).isNewestFirst() || timeSlices(from, to).size() < 2) {
+            return readOpco(opco, isLive(to), () -> searchCaptures(repo, opco, userEntity,
+                    from, to, filters, userIds, pageable, cursor, totalMode));
+        }
+        return searchSliced(repo, opco, userEntity, from, to, filters, userIds, pageable, cursor, totalMode);
+    }
+
+    /**
+     * Searches a wide date range as several time slices running at the same time.
+     *
+     * <p>Slices are whole UTC days, {@code search.slices.size} long, newest first; each
+     * runs as its own statement on its own connection, at most
+     * {@code search.slices.parallelism} at once and always within the OPCO's bulkhead.
+     * Because slices are disjoint in time, their pages are simply concatenated newest
+     * first; once enough rows for the requested page (plus one) have arrived no further
+     * slices are started. Totals are computed per slice over the whole range and summed.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity holding full names
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @param <T> Capture entity type
+     * @return Page of results
+     */
+    private <T extends VpiCaptureBase> SearchPage searchSliced(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        int skip = cursor == null ? Math.toIntExact(pageable.getOffset()) : 0;
+        int need = skip + pageable.getPageSize();
+        Pageable slicePage = PageRequest.of(0, need, pageable.getSort());
+
+        // Slices newer than the cursor cannot contain rows of the page
+        OffsetDateTime pageTo = cursor != null && cursor.getDateAdded().isBefore(to) ? cursor.getDateAdded() : to;
+        List<TimeSlice> slices = pageTo.isBefore(from) ? List.of() : timeSlices(from, pageTo);
+
+        QueryGuard guard = QueryGuard.current();
+        Deque<CompletableFuture<SearchPage>> running = new ArrayDeque<>();
+        List<SearchPage> pages = new ArrayList<>();
+        int started = 0;
+        int rows = 0;
+
+        while (started < slices.size() || !running.isEmpty()) {
+            while (started < slices.size() && running.size() < sliceParallelism) {
+                TimeSlice slice = slices.get(started++);
+                startPart(sliceExecutor, opco, "Time-sliced search", guard, running,
+                        () -> readOpco(opco, isLive(slice.getTo()), () -> searchCaptures(repo, opco, userEntity,
+                                slice.getFrom(), slice.getTo(), filters, userIds, slicePage, cursor, TotalType.NONE)));
+            }
+
+            SearchPage page = await(running.poll(), "Time-sliced search");
+            pages.add(page);
+            rows += page.getRowKeys().size();
+            if (rows > need || page.getResults().hasNext()) {
+                // Slices already running finish on their own; their rows are not needed
+                running.forEach(pending -> pending.cancel(false));
+                break;
+            }
+        }
+
+        SearchPage merged = mergePages(pages, Collections.emptyList(), pageable, skip);
+        if (totalMode == TotalType.NONE) {
+            return merged;
+        }
+
+        boolean complete = cursor == null && pages.size() == slices.size() && !merged.getResults().hasNext();
+        if (complete) {
+            return new SearchPage(new PageImpl<>(merged.getResults().getContent(), pageable, rows),
+                    merged.getRowKeys(), null, TotalType.EXACT);
+        }
+
+        long total = sliceTotals(repo, opco, userEntity, from, to, filters, userIds, totalMode);
+        TotalType totalType = totalMode;
+        if (totalMode == TotalType.CAPPED) {
+            if (total > totalCap) {
+                total = totalCap;
+            } else {
+                totalType = TotalType.EXACT;
+            }
+        }
+        return new SearchPage(new PageImpl<>(merged.getResults().getContent(), pageable, total),
+                merged.getRowKeys(), merged.getNextCursor(), totalType);
+    }
+
+    /**
+     * Computes the total of a sliced search as the sum of one count per slice,
+     * counted at the same time. Capped slice counts are summed uncapped.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity holding full names
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param totalMode How the total is computed
+     * @param <T> Capture entity type
+     * @return Summed total
+     */
+    private <T extends VpiCaptureBase> long sliceTotals(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            TotalType totalMode) {
+
+        BiFunction<OffsetDateTime, OffsetDateTime, Specification<T>> rangeSpec =
+                (rangeFrom, rangeTo) -> captureSpec(rangeFrom, rangeTo, filters, userIds, userEntity);
+        SearchShape shape = SearchShape.of(opco, from, to, filters, userIds);
+
+        QueryGuard guard = QueryGuard.current();
+        List<CompletableFuture<Long>> counts = new ArrayList<>();
+        for (TimeSlice slice : timeSlices(from, to)) {
+            SearchShape sliceShape = shape.withFrom(slice.getFrom().toInstant()).withTo(slice.getTo().toInstant());
+            Specification<T> spec = rangeSpec.apply(slice.getFrom(), slice.getTo());
+            startPart(sliceExecutor, opco, "Time-sliced count", guard, counts,
+                    () -> readOpco(opco, isLive(slice.getTo()), () -> switch (totalMode) {
+                        case CAPPED -> countCache.get(sliceShape, TotalType.CAPPED, () -> repo.countUpTo(spec, totalCap));
+                        case ESTIMATED -> repo.estimateCount(spec);
+                        default -> countExact(repo, sliceShape, slice.getFrom(), slice.getTo(), rangeSpec);
+                    }));
+        }
+
+        long total = 0;
+        for (CompletableFuture<Long> count : counts) {
+            total += await(count, "Time-sliced count");
+        }
+        return total;
+    }
+
+    /**
+     * Splits a date range into whole-UTC-day slices of {@code search.slices.size}, newest first.
+     * Ranges no wider than {@code search.slices.threshold} are returned as one slice.
+     *
+     * @param from Start datetime (inclusive)
+     * @param to End datetime (inclusive)
+     * @return Disjoint slices covering the range
+     */
+    private List<TimeSlice> timeSlices(OffsetDateTime from, OffsetDateTime to) {
+        if (!slicesEnabled || Duration.between(from, to).compareTo(sliceThreshold) <= 0) {
+            return List.of(new TimeSlice(from, to));
+        }
+
+        long days = Math.max(1, sliceSize.toDays());
+        List<TimeSlice> slices = new ArrayList<>();
+        OffsetDateTime sliceTo = to;
+        while (!sliceTo.isBefore(from)) {
+            OffsetDateTime start = sliceTo.withOffsetSameInstant(ZoneOffset.UTC)
+                    .truncatedTo(ChronoUnit.DAYS)
+                    .minusDays(days - 1);
+            OffsetDateTime sliceFrom = start.isAfter(from) ? start : from;
+            slices.add(new TimeSlice(sliceFrom, sliceTo));
+            // Date ranges are inclusive and timestamps have microsecond precision
+            sliceTo = sliceFrom.minus(1, ChronoUnit.MICROS);
+        }
+        return slices;
+    }
+
+    /**
+     * Starts a parallel part of a search on a bounded executor.
+     *
+     * <p>An executor whose queue is full rejects the part at submission. The parts
+     * already started are then abandoned, their statements cancelled through the
+     * guard, and the caller is turned away with 503 and {@code Retry-After}.
+     *
+     * @param executor Executor to run the part on
+     * @param opco OPCO code the part reads
+     * @param what Description for errors
+     * @param guard Guard of the search's queries (nullable)
+     * @param started Parts started so far; the new part is added
+     * @param part Work of the part
+     * @param <R> Result type
+     * @throws OpcoOverloadedException if the executor rejected the part
+     */
+    private <R> void startPart(ThreadPoolTaskExecutor executor, String opco, String what, QueryGuard guard,
+                               Collection<CompletableFuture<R>> started, Supplier<R> part) {
+        try {
+            started.add(CompletableFuture.supplyAsync(() -> QueryGuard.bind(guard, part), executor));
+        } catch (RejectedExecutionException e) {
+            started.forEach(pending -> pending.cancel(false));
+            if (guard != null) {
+                guard.cancel();
+            }
+            throw bulkhead.executorFull(opco, what);
+        }
+    }
+
+    /**
+     * Waits for a parallel part of a search, rethrowing its failure as is.
+     *
+     * @param future Pending part
+     * @param what Description for errors
+     * @param <R> Result type
+     * @return Result of the part
+     */
+    private static <R> R await(CompletableFuture<R> future, String what) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RecordingProcessingException(what + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RecordingProcessingException(what + " interrupted", e);
+        }
+    }
+
+    @lombok.Value
+    private static class TimeSlice {
+        OffsetDateTime from;
+        OffsetDateTime to;
+    }
+
+    /**
+     * Runs a capture search against one OPCO repository.
+     *
+     * <p>Without a cursor the requested offset page is read. With a cursor the page is
+     * read by seeking past the cursor position, which costs the same at any depth.
+     * The page itself never triggers a count; the total is added afterwards according
+     * to {@code totalMode}. Only the columns shown in results are selected
+     * ({@link VpiCaptureSummaryRow}), not full entities.
+     *
+     * <p>When {@code search.user-names.join} is enabled the user's full name is looked up
+     * and the name filter applied as a semi-join in the same statement, so a search is a
+     * single round trip. Otherwise names are resolved with separate user table queries.
+     * Once the OPCO is held in the {@link UserDirectory} names come from memory instead.
+     *
+     * <p>Pages that lie entirely in closed days, and the exact counts of closed days,
+     * come from the {@link ClosedDayCache}; only the live window is read from the database.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity holding full names
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @param <T> Capture entity type
+     * @return Page of results with the cursor of the following page
+     */
+    private <T extends VpiCaptureBase> SearchPage searchCaptures(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        BiFunction<OffsetDateTime, OffsetDateTime, Specification<T>> rangeSpec =
+                (rangeFrom, rangeTo) -> captureSpec(rangeFrom, rangeTo, filters, userIds, userEntity);
+        Specification<T> spec = rangeSpec.apply(from, to);
+        SearchShape shape = SearchShape.of(opco, from, to, filters, userIds);
+
+        // Rows the page can return all lie before the closed-day boundary, so they never change
+        OffsetDateTime latest = cursor != null && cursor.getSort().isNewestFirst() ? cursor.getDateAdded() : to;
+        SearchPage page = closedDays.isClosed(latest)
+                ? closedDays.page(shape, pageable, cursor,
+                        () -> readPage(repo, opco, userEntity, spec, pageable, cursor))
+                : readPage(repo, opco, userEntity, spec, pageable, cursor);
+
+        return withTotal(repo, spec, shape, page, totalMode, cursor == null,
+                () -> countExact(repo, shape, from, to, rangeSpec));
+    }
+
+    /**
+     * Builds the search specification for a date range.
+     *
+     * @param from Start datetime (inclusive)
+     * @param to End datetime (inclusive)
+     * @param filters Filters
+     * @param userIds User IDs matched by the name filter
+     * @param userEntity OPCO user entity, for the name semi-join
+     * @param <T> Capture entity type
+     * @return Search specification
+     */
+    private <T extends VpiCaptureBase> Specification<T> captureSpec(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Class<? extends VpiUsersBase> userEntity) {
+
+        Specification<T> spec = CaptureSpecifications.build(from, to, filters, userIds);
+        if (joinUserNames && filters != null && userIds.isEmpty()) {
+            // Name filter was not resolved to user ids up front
+            spec = spec.and(CaptureSpecifications.userNameContainsAny("userId", userEntity, filters.getName()));
+        }
+        return spec;
+    }
+
+    /**
+     * Whether a page is better served by the buffered search path: pages that lie in
+     * closed days come from the {@link ClosedDayCache}, and wide newest-first ranges
+     * are read as time slices.
+     *
+     * @param from Start datetime
+     * @param to End datetime
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @return true if the page should not be streamed
+     */
+    private boolean isCachedOrSliced(OffsetDateTime from, OffsetDateTime to, Pageable pageable, SearchCursor cursor) {
+        OffsetDateTime latest = cursor != null && cursor.getSort().isNewestFirst() ? cursor.getDateAdded() : to;
+        return closedDays.isClosed(latest)
+                || SearchSort.of(pageable.getSort()).isNewestFirst() && timeSlices(from, to).size() > 1;
+    }
+
+    /**
+     * Reads one page of a single-OPCO search for row-by-row writing.
+     *
+     * @param from Start datetime
+     * @param to End datetime
+     * @param opco OPCO code
+     * @param filters Filters
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @return Page rows with their pagination
+     */
+    private StreamedPage readStreamedPage(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            String opco,
+            VpiFiltersRequest filters,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        Optional<Set<UUID>> userIds = matchNameFilter(opco, filters);
+        if (userIds.isEmpty()) {
+            logger.debug("No users matched the name filter. Returning empty page.");
+            return new StreamedPage(new SliceImpl<>(Collections.emptyList(), pageable, false), opco, false,
+                    buildSearchResponse(SearchPage.empty(pageable)));
+        }
+
+        return switch (opco.toUpperCase()) {
+            case "CMP" -> readStreamedCaptures(cmpRepo, "CMP", VpiUsersCmp.class,
+                    from, to, filters, userIds.get(), pageable, cursor, totalMode);
+            case "NYSEG" -> readStreamedCaptures(nysegRepo, "NYSEG", VpiUsersNyseg.class,
+                    from, to, filters, userIds.get(), pageable, cursor, totalMode);
+            case "RGE" -> readStreamedCaptures(rgeRepo, "RGE", VpiUsersRge.class,
+                    from, to, filters, userIds.get(), pageable, cursor, totalMode);
+            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
+        };
+    }
+
+    /**
+     * Reads the result columns of one page of an OPCO repository, plus one look-ahead
+     * row, and counts its total. Both run under the OPCO's bulkhead and the page query
+     * is timed by the slow-query sampler, as on the buffered path.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity holding full names
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the total is computed
+     * @param <T> Capture entity type
+     * @return Page rows with their pagination
+     */
+    private <T extends VpiCaptureBase> StreamedPage readStreamedCaptures(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        BiFunction<OffsetDateTime, OffsetDateTime, Specification<T>> rangeSpec =
+                (rangeFrom, rangeTo) -> captureSpec(rangeFrom, rangeTo, filters, userIds, userEntity);
+        Specification<T> spec = rangeSpec.apply(from, to);
+        Specification<T> pageSpec = cursor == null
+                ? spec
+                : spec.and(CaptureSpecifications.seekAfter(SORT_OBJECT_ID, cursor));
+        Pageable window = cursor == null
+                ? pageable
+                : PageRequest.of(0, pageable.getPageSize(), pageable.getSort());
+        Class<? extends VpiUsersBase> joinedUsers = userDirectory.isLoaded(opco) ? null : userEntity;
+        SearchShape shape = SearchShape.of(opco, from, to, filters, userIds);
+
+        Slice<VpiCaptureSummaryRow> rows = slowQueries.sample("search", opco, shape,
+                () -> readOpco(opco, isLive(to), () -> repo.findSummarySlice(pageSpec, window, joinedUsers)),
+                statements -> analyzeSearch(opco, from, to, filters, userIds, pageable, cursor));
+
+        Slice<VpiMetadata> results = new SliceImpl<>(Collections.emptyList(), pageable, rows.hasNext());
+        TotalType totalType = TotalType.NONE;
+        if (totalMode != TotalType.NONE) {
+            PageTotal total = readOpco(opco, isLive(to), () -> countTotal(repo, spec, shape, pageable,
+                    rows.getNumberOfElements(), rows.hasNext(), totalMode, cursor == null,
+                    () -> countExact(repo, shape, from, to, rangeSpec)));
+            results = new PageImpl<>(Collections.emptyList(), pageable, total.getTotal());
+            totalType = total.getType();
+        }
+
+        String nextCursor = nextCursor(rows, SearchSort.of(pageable.getSort()));
+        return new StreamedPage(rows, opco, joinedUsers != null, buildSearchResponse(
+                new SearchPage(results, Collections.emptyList(), nextCursor, totalType)));
+    }
+
+    /**
+     * A page read for row-by-row writing: its result columns and the rest of the response.
+     */
+    @lombok.Value
+    private class StreamedPage {
+        Slice<VpiCaptureSummaryRow> rows;
+        String opco;
+        boolean joined;
+        VpiSearchResponse response;
+
+        /**
+         * Writes each row straight from its result columns, then the pagination.
+         *
+         * @param writer Response writer
+         * @throws IOException if writing to the response fails
+         */
+        void writeTo(SearchResponseWriter writer) throws IOException {
+            writer.startData();
+            for (VpiCaptureSummaryRow row : rows) {
+                String username = joined ? row.getUserName() : userDirectory.findName(opco, row.getUserId());
+                writer.writeRow(row, opco, username);
+            }
+            writer.endData(response);
+        }
+    }
+
+    /**
+     * Reads one page of results without a total.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity holding full names
+     * @param spec Search specification
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param <T> Capture entity type
+     * @return Page of results with the cursor of the following page
+     */
+    private <T extends VpiCaptureBase> SearchPage readPage(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            Specification<T> spec,
+            Pageable pageable,
+            SearchCursor cursor) {
+
+        Class<? extends VpiUsersBase> joinedUsers =
+                joinUserNames && !userDirectory.isLoaded(opco) ? userEntity : null;
+
+        Slice<VpiCaptureSummaryRow> page;
+        if (cursor == null) {
+            page = repo.findSummarySlice(spec, pageable, joinedUsers);
+        } else {
+            Specification<T> seekSpec = spec.and(CaptureSpecifications.seekAfter(SORT_OBJECT_ID, cursor));
+            Slice<VpiCaptureSummaryRow> slice = repo.findSummarySlice(seekSpec,
+                    PageRequest.of(0, pageable.getPageSize(), pageable.getSort()), joinedUsers);
+            page = new SliceImpl<>(slice.getContent(), pageable, slice.hasNext());
+        }
+
+        Slice<VpiMetadata> results = joinedUsers != null
+                ? page.map(row -> convertToMetadata(row, opco, row.getUserName()))
+                : enrichAndMap(page, opco);
+        SearchSort sort = SearchSort.of(pageable.getSort());
+        return new SearchPage(results, rowKeys(page, sort), nextCursor(page, sort), TotalType.NONE);
+    }
+
+    /**
+     * Counts a search exactly, per closed day plus the live window.
+     *
+     * <p>Closed-day counts come from the {@link ClosedDayCache}, so a repeated or
+     * overlapping long range only counts the days it has not seen before and today.
+     * The days missing from the cache are counted together in one query grouped by
+     * UTC day. The live window is memoized briefly like any other total.
+     *
+     * @param repo OPCO capture repository
+     * @param shape Canonical filter shape of the search
+     * @param from Start datetime (inclusive)
+     * @param to End datetime (inclusive)
+     * @param rangeSpec Builds the search specification for a sub-range
+     * @param <T> Capture entity type
+     * @return Exact total
+     */
+    private <T extends VpiCaptureBase> long countExact(
+            VpiCaptureRepository<T> repo,
+            SearchShape shape,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            BiFunction<OffsetDateTime, OffsetDateTime, Specification<T>> rangeSpec) {
+
+        OffsetDateTime boundary = closedDays.boundary();
+        if (!closedDays.isEnabled() || !from.isBefore(boundary)) {
+            return countCache.get(shape, TotalType.EXACT, () -> repo.count(rangeSpec.apply(from, to)));
+        }
+
+        List<SearchShape> dayShapes = new ArrayList<>();
+        OffsetDateTime dayStart = from.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        while (dayStart.isBefore(boundary) && !dayStart.isAfter(to)) {
+            // Date ranges are inclusive and timestamps have microsecond precision
+            OffsetDateTime sliceFrom = from.isAfter(dayStart) ? from : dayStart;
+            OffsetDateTime dayEnd = dayStart.plusDays(1).minus(1, ChronoUnit.MICROS);
+            OffsetDateTime sliceTo = to.isBefore(dayEnd) ? to : dayEnd;
+
+            dayShapes.add(shape.withFrom(sliceFrom.toInstant()).withTo(sliceTo.toInstant()));
+            dayStart = dayStart.plusDays(1);
+        }
+
+        long total = closedDays.count(dayShapes, missing -> countDays(repo, missing, rangeSpec));
+
+        if (!to.isBefore(boundary)) {
+            SearchShape liveShape = shape.withFrom(boundary.toInstant());
+            total += countCache.get(liveShape, TotalType.EXACT, () -> repo.count(rangeSpec.apply(boundary, to)));
+        }
+        return total;
+    }
+
+    /**
+     * Counts closed day slices with one query grouped by UTC day. The query covers
+     * the span from the first to the last slice; only the first and last day can be
+     * partial, so every slice count is exact.
+     *
+     * @param repo OPCO capture repository
+     * @param dayShapes Slices in date order, each within one UTC day
+     * @param rangeSpec Builds the search specification for a sub-range
+     * @param <T> Capture entity type
+     * @return Count by slice; slices without rows are absent
+     */
+    private <T extends VpiCaptureBase> Map<SearchShape, Long> countDays(
+            VpiCaptureRepository<T> repo,
+            List<SearchShape> dayShapes,
+            BiFunction<OffsetDateTime, OffsetDateTime, Specification<T>> rangeSpec) {
+
+        OffsetDateTime spanFrom = dayShapes.get(0).getFrom().atOffset(ZoneOffset.UTC);
+        OffsetDateTime spanTo = dayShapes.get(dayShapes.size() - 1).getTo().atOffset(ZoneOffset.UTC);
+        Map<LocalDate, Long> byDay = repo.countByDay(rangeSpec.apply(spanFrom, spanTo));
+
+        Map<SearchShape, Long> counts = new HashMap<>();
+        for (SearchShape dayShape : dayShapes) {
+            Long count = byDay.get(LocalDate.ofInstant(dayShape.getFrom(), ZoneOffset.UTC));
+            if (count != null) {
+                counts.put(dayShape, count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Reads the facet groups of one OPCO.
+     *
+     * @param from Start datetime
+     * @param to End datetime
+     * @param opco OPCO code
+     * @param filters Filters
+     * @return Facet groups
+     */
+    private List<VpiFacetRow> facetRows(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            String opco,
+            VpiFiltersRequest filters) {
+
+        Optional<Set<UUID>> userIds = matchNameFilter(opco, filters);
+        if (userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return switch (opco.toUpperCase()) {
+            case "CMP" -> captureFacets(cmpRepo, "CMP", VpiUsersCmp.class, from, to, filters, userIds.get());
+            case "NYSEG" -> captureFacets(nysegRepo, "NYSEG", VpiUsersNyseg.class, from, to, filters, userIds.get());
+            case "RGE" -> captureFacets(rgeRepo, "RGE", VpiUsersRge.class, from, to, filters, userIds.get());
+            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
+        };
+    }
+
+    /**
+     * Runs the facet GROUP BY against one OPCO repository, cached when the range is closed.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity, for the name semi-join
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param <T> Capture entity type
+     * @return Facet groups
+     */
+    private <T extends VpiCaptureBase> List<VpiFacetRow> captureFacets(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds) {
+
+        Specification<T> spec = captureSpec(from, to, filters, userIds, userEntity);
+
+        if (closedDays.isClosed(to)) {
+            return closedDays.facets(SearchShape.of(opco, from, to, filters, userIds),
+                    () -> readOpco(opco, false, () -> repo.findFacetRows(spec, facetDurationEdges)));
+        }
+        return readOpco(opco, isLive(to), () -> repo.findFacetRows(spec, facetDurationEdges));
+    }
+
+    /**
+     * Runs a read against one OPCO under its bulkhead, on a streaming replica when the
+     * OPCO has any configured.
+     *
+     * @param opco OPCO code
+     * @param live Whether the read reaches into the live window, where replica lag matters
+     * @param read Read-only repository work
+     * @param <R> Result type
+     * @return Result of the read
+     */
+    private <R> R readOpco(String opco, boolean live, Supplier<R> read) {
+        return bulkhead.call(opco, () -> ReplicaRoutingDataSource.read(live, read));
+    }
+
+    /**
+     * Whether a search ending at the given time reaches past the closed-day boundary.
+     *
+     * @param to End datetime
+     * @return true if recent writes may be part of the result
+     */
+    private boolean isLive(OffsetDateTime to) {
+        return !to.isBefore(closedDays.boundary());
+    }
+
+    /**
+     * Streams one OPCO's matching recordings to the export writer.
+     *
+     * @param from Start datetime
+     * @param to End datetime
+     * @param opco OPCO code
+     * @param filters Filters
+     * @param writer Export writer
+     */
+    private void exportOpco(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            String opco,
+            VpiFiltersRequest filters,
+            SearchExportWriter writer) {
+
+        Optional<Set<UUID>> userIds = matchNameFilter(opco, filters);
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        switch (opco.toUpperCase()) {
+            case "CMP" -> exportCaptures(cmpRepo, "CMP", VpiUsersCmp.class,
+                    from, to, filters, userIds.get(), writer);
+            case "NYSEG" -> exportCaptures(nysegRepo, "NYSEG", VpiUsersNyseg.class,
+                    from, to, filters, userIds.get(), writer);
+            case "RGE" -> exportCaptures(rgeRepo, "RGE", VpiUsersRge.class,
+                    from, to, filters, userIds.get(), writer);
+            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
+        }
+    }
+
+    /**
+     * Streams matching recordings of one OPCO repository inside a read-only transaction,
+     * holding one of the OPCO's export permits and bulkhead slots until the last row is written.
+     *
+     * @param repo OPCO capture repository
+     * @param opco OPCO code
+     * @param userEntity OPCO user entity, for the name semi-join
+     * @param from Start datetime
+     * @param to End datetime
+     * @param filters Filters
+     * @param userIds User IDs
+     * @param writer Export writer
+     * @param <T> Capture entity type
+     */
+    private <T extends VpiCaptureBase> void exportCaptures(
+            VpiCaptureRepository<T> repo,
+            String opco,
+            Class<? extends VpiUsersBase> userEntity,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            VpiFiltersRequest filters,
+            Set<UUID> userIds,
+            SearchExportWriter writer) {
+
+        Specification<T> spec = captureSpec(from, to, filters, userIds, userEntity);
+
+        TransactionTemplate transaction = readOnlyTransaction(opco);
+        bulkhead.callExport(opco, () -> ReplicaRoutingDataSource.read(isLive(to), () -> transaction.execute(status -> {
+            try (Stream<VpiCaptureSummaryRow> rows = repo.streamSummaries(spec, SEARCH_SORT, exportFetchSize)) {
+                List<VpiCaptureSummaryRow> chunk = new ArrayList<>(exportChunkSize);
+                Iterator<VpiCaptureSummaryRow> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == exportChunkSize) {
+                        writeExportChunk(chunk, opco, writer);
+                        chunk.clear();
+                    }
+                }
+                writeExportChunk(chunk, opco, writer);
+            } catch (IOException e) {
+                // Typically the client went away; rolls back and closes the cursor
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        })));
+    }
+
+    /**
+     * Read-only transaction on an OPCO's persistence unit, needed for server-side cursors.
+     *
+     * @param opco OPCO code
+     * @return Transaction template
+     */
+    private TransactionTemplate readOnlyTransaction(String opco) {
+        TransactionTemplate transaction = new TransactionTemplate(
+                transactionManagers.get(opco.toLowerCase(Locale.ROOT) + "TransactionManager"));
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+
+    /**
+     * Enriches a chunk of exported rows with user names and writes them.
+     *
+     * @param chunk Rows to write
+     * @param opco OPCO code
+     * @param writer Export writer
+     * @throws IOException if writing to the response fails
+     */
+    private void writeExportChunk(
+            List<VpiCaptureSummaryRow> chunk,
+            String opco,
+            SearchExportWriter writer) throws IOException {
+
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> userIds = chunk.stream()
+                .map(VpiCaptureSummary::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, String> userNames = fetchUserNames(opco, userIds);
+
+        for (VpiCaptureSummaryRow row : chunk) {
+            writer.write(convertToMetadata(row, opco, userNames.get(row.getUserId())));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Attaches a total to a page of results according to the requested mode.
+     *
+     * <p>An offset page that ends the result set already knows its exact total,
+     * so no count query is issued for it. Exact and capped counts are memoized
+     * per filter shape so later pages of the same search skip the count.
+     *
+     * @param repo OPCO capture repository
+     * @param spec Search specification (without keyset predicate)
+     * @param shape Canonical filter shape of the search
+     * @param page Page read without a total
+     * @param totalMode How the total is computed
+     * @param offsetPaged Whether the page was read by offset
+     * @param exactCount Computes the exact total
+     * @param <T> Capture entity type
+     * @return Search page carrying the total and its type
+     */
+    private <T extends VpiCaptureBase> SearchPage withTotal(
+            VpiCaptureRepository<T> repo,
+            Specification<T> spec,
+            SearchShape shape,
+            SearchPage page,
+            TotalType totalMode,
+            boolean offsetPaged,
+            LongSupplier exactCount) {
+
+        if (totalMode == TotalType.NONE) {
+            return page;
+        }
+
+        Slice<VpiMetadata> results = page.getResults();
+        PageTotal total = countTotal(repo, spec, shape, results.getPageable(), results.getNumberOfElements(),
+                results.hasNext(), totalMode, offsetPaged, exactCount);
+
+        return new SearchPage(new PageImpl<>(results.getContent(), results.getPageable(), total.getTotal()),
+                page.getRowKeys(), page.getNextCursor(), total.getType());
+    }
+
+    /**
+     * Computes the total of a page read without one.
+     *
+     * @param repo OPCO capture repository
+     * @param spec Search specification (without keyset predicate)
+     * @param shape Canonical filter shape of the search
+     * @param pageable Requested page
+     * @param rows Rows on the page
+     * @param hasNext Whether a following page exists
+     * @param totalMode How the total is computed, not NONE
+     * @param offsetPaged Whether the page was read by offset
+     * @param exactCount Computes the exact total
+     * @param <T> Capture entity type
+     * @return Total and how it was obtained
+     */
+    private <T extends VpiCaptureBase> PageTotal countTotal(
+            VpiCaptureRepository<T> repo,
+            Specification<T> spec,
+            SearchShape shape,
+            Pageable pageable,
+            int rows,
+            boolean hasNext,
+            TotalType totalMode,
+            boolean offsetPaged,
+            LongSupplier exactCount) {
+
+        long total;
+        TotalType totalType = totalMode;
+
+        if (offsetPaged && !hasNext && (rows > 0 || pageable.getOffset() == 0)) {
+            total = pageable.getOffset() + rows;
+            totalType = TotalType.EXACT;
+        } else {
+            switch (totalMode) {
+                case CAPPED -> {
+                    total = countCache.get(shape, TotalType.CAPPED, () -> repo.countUpTo(spec, totalCap));
+                    if (total > totalCap) {
+                        total = totalCap;
+                    } else {
+                        totalType = TotalType.EXACT;
+                    }
+                }
+                case ESTIMATED -> total = repo.estimateCount(spec);
+                default -> total = exactCount.getAsLong();
+            }
+        }
+        return new PageTotal(total, totalType);
+    }
+
+    @lombok.Value
+    private static class PageTotal {
+        long total;
+        TotalType type;
+    }
+
+    /**
+     * Extracts the sort key of every row of a slice.
+     *
+     * @param slice Slice of recordings
+     * @param sort Order of the slice
+     * @return Keys in slice order
+     */
+    private List<SearchCursor> rowKeys(Slice<? extends VpiCaptureSummary> slice, SearchSort sort) {
+        return slice.getContent().stream()
+                .map(rec -> SearchCursor.of(sort, sort.valueOf(rec), rec.getObjectId()))
+                .toList();
+    }
+
+    // ========== Federated Search Methods ==========
+
+    /**
+     * Searches several OPCOs at the same time and merges their pages in the requested order.
+     *
+     * <p>Each OPCO runs on {@code searchExecutor} against its own datasource and
+     * returns its first {@code offset + pageSize} rows (or {@code pageSize} rows
+     * past the cursor). The sorted per-OPCO lists are k-way merged and the
+     * requested window is cut from the merged order. Totals are summed. Offsets
+     * beyond {@code search.federated.max-offset} are rejected; deeper pages are
+     * read by cursor.
+     *
+     * <p>OPCOs that have not answered by {@code search.federated.deadline}, that
+     * the {@link OpcoBulkhead} turned away, or whose search the full
+     * {@code searchExecutor} rejected, are left out and reported in
+     * {@code incompleteOpcos}. A late OPCO's queries are cancelled. When the
+     * executor rejects every OPCO the search fails with 503.
+     *
+     * @param from Start datetime
+     * @param to End datetime
+     * @param opcos OPCO codes to search
+     * @param filters Filters
+     * @param pageable Pagination
+     * @param cursor Keyset position (nullable)
+     * @param totalMode How the totals are computed
+     * @return Merged page
+     * @throws InvalidRequestException if the offset is beyond {@code search.federated.max-offset}
+     * @throws OpcoOverloadedException if the executor rejected every OPCO
+     */
+    private SearchPage searchFederated(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            List<String> opcos,
+            VpiFiltersRequest filters,
+            Pageable pageable,
+            SearchCursor cursor,
+            TotalType totalMode) {
+
+        int skip = cursor == null ? Math.toIntExact(pageable.getOffset()) : 0;
+        if (skip > federatedMaxOffset) {
+            throw new InvalidRequestException("Searches over several OPCOs page by offset up to "
+                    + federatedMaxOffset + " rows; continue from the previous page's nextCursor");
+        }
+        Pageable perOpco = PageRequest.of(0, skip + pageable.getPageSize(), pageable.getSort());
+
+        QueryGuard guard = QueryGuard.current();
+        Map<String, QueryGuard> guards = new HashMap<>();
+        Map<String, CompletableFuture<SearchPage>> futures = new HashMap<>();
+        OpcoOverloadedException rejected = null;
+        for (String opco : opcos) {
+            // One guard per OPCO, so a late OPCO's statements can be cancelled on their own
+            QueryGuard opcoGuard = guard != null ? guard.child() : new QueryGuard();
+            guards.put(opco, opcoGuard);
+            try {
+                futures.put(opco, CompletableFuture.supplyAsync(
+                        () -> QueryGuard.bind(opcoGuard, () -> search(from, to, opco, filters, perOpco, cursor, totalMode)),
+                        searchExecutor));
+            } catch (RejectedExecutionException e) {
+                opcoGuard.cancel();
+                rejected = bulkhead.executorFull(opco, "Federated search");
+                logger.warn("Federated search: {}", rejected.getMessage());
+            }
+        }
+        if (futures.isEmpty() && rejected != null) {
+            throw rejected;
+        }
+
+        long deadline = System.nanoTime() + federatedDeadline.toNanos();
+        List<SearchPage> pages = new ArrayList<>();
+        List<String> incomplete = new ArrayList<>();
+
+        for (String opco : opcos) {
+            CompletableFuture<SearchPage> future = futures.get(opco);
+            SearchPage page = future != null ? awaitOpco(opco, future, guards.get(opco), deadline) : null;
+            if (page != null) {
+                pages.add(page);
+            } else {
+                incomplete.add(opco);
+            }
+        }
+
+        return mergePages(pages, incomplete, pageable, skip);
+    }
+
+    /**
+     * Waits for one OPCO's search until the shared deadline. A search that misses it
+     * has its running statement cancelled, which also frees its bulkhead slot.
+     *
+     * @param opco OPCO code
+     * @param future Pending search
+     * @param guard Guard of the OPCO's queries
+     * @param deadline Deadline in {@link System#nanoTime()} units
+     * @return The OPCO's page, or null if it failed or missed the deadline
+     */
+    private SearchPage awaitOpco(String opco, CompletableFuture<SearchPage> future, QueryGuard guard,
+                                 long deadline) {
+        try {
+            return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Cancelling the future does not stop a search already running; the guard does
+            future.cancel(false);
+            guard.cancel();
+            logger.warn("Federated search: {} missed the {} deadline", opco, federatedDeadline);
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InvalidRequestException invalid) {
+                throw invalid;
+            }
+            if (e.getCause() instanceof OpcoOverloadedException overloaded) {
+                logger.warn("Federated search: {}", overloaded.getMessage());
+                return null;
+            }
+            logger.error("Federated search: {} failed", opco, e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RecordingProcessingException("Federated search interrupted", e);
+        }
+    }
+
+    /**
+     * K-way merges sorted per-OPCO pages and cuts the requested window.
+     *
+     * @param pages Per-OPCO pages, each sorted in the requested order
+     * @param incomplete OPCOs left out of the merge
+     * @param pageable Requested pagination
+     * @param skip Rows to skip in the merged order (offset paging)
+     * @return Merged page with summed total
+     */
+    private SearchPage mergePages(List<SearchPage> pages, List<String> incomplete,
+                                  Pageable pageable, int skip) {
+
+        Comparator<SearchCursor> order = SearchSort.of(pageable.getSort()).comparator();
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> order.compare(
+                pages.get(a[0]).getRowKeys().get(a[1]),
+                pages.get(b[0]).getRowKeys().get(b[1])));
+
+        for (int i = 0; i < pages.size(); i++) {
+            if (!pages.get(i).getRowKeys().isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+
+        List<VpiMetadata> content = new ArrayList<>();
+        List<SearchCursor> keys = new ArrayList<>();
+        int position = 0;
+
+        while (!heads.isEmpty() && content.size() < pageable.getPageSize()) {
+            int[] head = heads.poll();
+            SearchPage page = pages.get(head[0]);
+
+            if (position++ >= skip) {
+                content.add(page.getResults().getContent().get(head[1]));
+                keys.add(page.getRowKeys().get(head[1]));
+            }
+            if (head[1] + 1 < page.getRowKeys().size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+
+        boolean hasNext = !heads.isEmpty() || pages.stream().anyMatch(p -> p.getResults().hasNext());
+        String nextCursor = hasNext && !keys.isEmpty() ? keys.getLast().encode() : null;
+        TotalType totalType = mergedTotalType(pages);
+
+        Slice<VpiMetadata> results;
+        if (totalType == TotalType.NONE) {
+            results = new SliceImpl<>(content, pageable, hasNext);
+        } else {
+            long total = pages.stream()
+                    .mapToLong(p -> ((Page<VpiMetadata>) p.getResults()).getTotalElements())
+                    .sum();
+            results = new PageImpl<>(content, pageable, total);
+        }
+
+        return new SearchPage(results, keys, nextCursor, totalType, incomplete);
+    }
+
+    /**
+     * Combines per-OPCO total types; the weakest kind wins.
+     *
+     * @param pages Per-OPCO pages
+     * @return Total type of the merged page
+     */
+    private TotalType mergedTotalType(List<SearchPage> pages) {
+        Set<TotalType> types = pages.stream()
+                .map(SearchPage::getTotalType)
+                .collect(Collectors.toSet());
+
+        if (types.contains(TotalType.NONE)) return TotalType.NONE;
+        if (types.contains(TotalType.ESTIMATED)) return TotalType.ESTIMATED;
+        if (types.contains(TotalType.CAPPED)) return TotalType.CAPPED;
+        return TotalType.EXACT;
+    }
+
+    /**
+     * Builds the keyset cursor pointing past the last row of a slice.
+     *
+     * @param slice Slice of recording entities
+     * @param sort Order of the slice
+     * @return Encoded cursor, or null when there is no following page
+     */
+    private String nextCursor(Slice<? extends VpiCaptureSummary> slice, SearchSort sort) {
+        if (!slice.hasNext() || !slice.hasContent()) {
+            return null;
+        }
+        VpiCaptureSummary last = slice.getContent().getLast();
+        return SearchCursor.of(sort, sort.valueOf(last), last.getObjectId()).encode();
+    }
+
+    // ========== User Management Methods ==========
+
+    /**
+     * Fetches user IDs matching any of the provided names.
+     * Answered from the {@link UserDirectory} when the OPCO is loaded.
+     *
+     * @param opco OPCO code
+     * @param names List of names to match
+     * @return Set of matched user UUIDs
+     */
+    private Set<UUID> fetchMatchedUserIds(String opco, List<String> names) {
+        if (names == null || names.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Optional<Set<UUID>> cached = userDirectory.findUserIdsByNameContainsAny(opco, names);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        String upperOpco = opco.toUpperCase();
+        String[] namesArray = names.toArray(new String[0]);
+
+        return slowQueries.sample("user-ids-by-name", upperOpco, Map.of("name", names), () -> switch (upperOpco) {
+            case "CMP" -> new HashSet<>(cmpUserRepo.findUserIdsByFullNameContainsAny(namesArray));
+            case "NYSEG" -> new HashSet<>(nysegUserRepo.findUserIdsByFullNameContainsAny(namesArray));
+            case "RGE" -> new HashSet<>(rgeUserRepo.findUserIdsByFullNameContainsAny(namesArray));
+            default -> Collections.<UUID>emptySet();
+        }, statements -> analyzeUserQuery(upperOpco, statements, List.of((Object) namesArray)));
+    }
+
+    /**
+     * Re-runs the last statement of a slow user lookup under EXPLAIN (ANALYZE, BUFFERS).
+     *
+     * @param opco Upper-case OPCO code
+     * @param statements SQL recorded during the lookup
+     * @param parameters Values bound to the statement, in order
+     * @return Rendered SQL and its plan
+     */
+    private ExplainedStatement analyzeUserQuery(String opco, List<String> statements, List<?> parameters) {
+        if (statements.isEmpty()) {
+            throw new IllegalStateException("No statement recorded for the user lookup");
+        }
+
+        String sql = statements.getLast();
+        VpiUserRepo<? extends VpiUsersBase> userRepo = switch (opco) {
+            case "CMP" -> cmpUserRepo;
+            case "NYSEG" -> nysegUserRepo;
+            case "RGE" -> rgeUserRepo;
+            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
+        };
+        return new ExplainedStatement(sql, readOpco(opco, false, () -> userRepo.analyzeNative(sql, parameters)));
+    }
+
+    /**
+     * Fetches user names for a set of user IDs.
+     * Answered from the {@link UserDirectory} when the OPCO is loaded,
+     * otherwise through the {@link EntityCache}.
+     *
+     * @param opco OPCO code
+     * @param userIds Set of user UUIDs
+     * @return Map of user ID to full name
+     */
+    private Map<UUID, String> fetchUserNames(String opco, Set<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Optional<Map<UUID, String>> cached = userDirectory.findNames(opco, userIds);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        String upperOpco = opco.toUpperCase();
+
+        // Id lookups are sampled for timing only; which ids missed the cache is not known here
+        return slowQueries.sample("user-names-by-id", upperOpco, Map.of("userIds", userIds), () -> switch (upperOpco) {
+            case "CMP" -> buildUserNameMap(
+                    entityCache.users(upperOpco, userIds, cmpUserRepo::findByUserIdIn),
+                    VpiUsersCmp::getUserId,
+                    VpiUsersCmp::getFullName);
+            case "NYSEG" -> buildUserNameMap(
+                    entityCache.users(upperOpco, userIds, nysegUserRepo::findByUserIdIn),
+                    VpiUsersNyseg::getUserId,
+                    VpiUsersNyseg::getFullName);
+            case "RGE" -> buildUserNameMap(
+                    entityCache.users(upperOpco, userIds, rgeUserRepo::findByUserIdIn),
+                    VpiUsersRge::getUserId,
+                    VpiUsersRge::getFullName);
+            default -> Collections.<UUID, String>emptyMap();
+        }, null);
+    }
+
+    /**
+     * Builds a map of user IDs to names from a list of user entities.
+     *
+     * @param users List of user entities
+     * @param idExtractor Function to extract user ID
+     * @param nameExtractor Function to extract user name
+     * @param <T> Type of user entity
+     * @return Map of UUID to name
+     */
+    private <T> Map<UUID, String> buildUserNameMap(
+            List<T> users,
+            java.util.function.Function<T, UUID> idExtractor,
+            java.util.function.Function<T, String> nameExtractor) {
+        return users.stream()
+                .collect(Collectors.toMap(idExtractor, nameExtractor));
+    }
+
+    // ========== Metadata Retrieval Methods ==========
+
+    /**
+     * Retrieves metadata by OPCO and object ID.
+     *
+     * @param id Object ID
+     * @param opco OPCO code
+     * @return List of metadata maps
+     */
+    private List<Map<String, Object>> getMetadataByOpco(UUID id, String opco) {
+        String upperOpco = opco.toUpperCase();
+
+        return switch (upperOpco) {
+            case "CMP" -> metadataFull(entityCache.captures(upperOpco, id,
+                    () -> readOpco(upperOpco, true, () -> cmpRepo.findByObjectId(id))));
+            case "NYSEG" -> metadataFull(entityCache.captures(upperOpco, id,
+                    () -> readOpco(upperOpco, true, () -> nysegRepo.findByObjectId(id))));
+            case "RGE" -> metadataFull(entityCache.captures(upperOpco, id,
+                    () -> readOpco(upperOpco, true, () -> rgeRepo.findByObjectId(id))));
+            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
+        };
+    }
+
+    /**
+     * Reads the metadata of each OPCO's IDs, one query per OPCO, OPCOs in parallel.
+     *
+     * @param idsByOpco IDs grouped by upper-case OPCO code
+     * @return Metadata maps keyed by object ID, for the IDs that exist
+     */
+    private Map<UUID, Map<String, Object>> metadataByIds(Map<String, Set<UUID>> idsByOpco) {
+        if (idsByOpco.size() == 1) {
+            Map.Entry<String, Set<UUID>> only = idsByOpco.entrySet().iterator().next();
+            return metadataByIds(only.getKey(), only.getValue());
+        }
+
+        QueryGuard guard = QueryGuard.current();
+        List<CompletableFuture<Map<UUID, Map<String, Object>>>> futures = new ArrayList<>();
+        idsByOpco.forEach((opco, ids) -> startPart(searchExecutor, opco, "Metadata lookup", guard, futures,
+                () -> metadataByIds(opco, ids)));
+
+        Map<UUID, Map<String, Object>> metadata = new HashMap<>();
+        for (CompletableFuture<Map<UUID, Map<String, Object>>> future : futures) {
+            metadata.putAll(await(future, "Metadata lookup"));
+        }
+        return metadata;
+    }
+
+    /**
+     * Reads the metadata of several recordings of one OPCO with a single query.
+     *
+     * @param opco Upper-case OPCO code
+     * @param ids Object IDs
+     * @return Metadata maps keyed by object ID, for the IDs that exist
+     */
+    private Map<UUID, Map<String, Object>> metadataByIds(String opco, Set<UUID> ids) {
+        Map<UUID, ? extends List<? extends VpiCaptureView>> recordings = switch (opco) {
+            case "CMP" -> entityCache.captures(opco, ids, missing -> readOpco(opco, true,
+                    () -> cmpRepo.findAll(CaptureSpecifications.objectIdsExactAny("objectId", List.copyOf(missing)))));
+            case "NYSEG" -> entityCache.captures(opco, ids, missing -> readOpco(opco, true,
+                    () -> nysegRepo.findAll(CaptureSpecifications.objectIdsExactAny("objectId", List.copyOf(missing)))));
+            case "RGE" -> entityCache.captures(opco, ids, missing -> readOpco(opco, true,
+                    () -> rgeRepo.findAll(CaptureSpecifications.objectIdsExactAny("objectId", List.copyOf(missing)))));
+            default -> throw new InvalidRequestException("Invalid OPCO code: " + opco);
+        };
+
+        Map<UUID, Map<String, Object>> metadata = new HashMap<>();
+        recordings.forEach((id, rows) -> metadata.put(id, buildMetadataMap(rows.getFirst())));
+        return metadata;
+    }
+
+    /**
+     * Converts recording entities to metadata maps.
+     *
+     * @param recordings List of recording entities
+     * @return List of metadata maps
+     */
+    private List<Map<String, Object>> metadataFull(List<? extends VpiCaptureView> recordings) {
+        return recordings.stream()
+                .map(this::buildMetadataMap)
+                .toList();
+    }
+
+    /**
+     * Builds a comprehensive metadata map from a recording entity.
+     *
+     * @param rec The recording entity
+     * @return Map containing all metadata fields
+     */
+    private Map<String, Object> buildMetadataMap(VpiCaptureView rec) {
+        Map<String, Object> map = new LinkedHashMap<>();
+
+        addIdentifierFields(map, rec);
+        addTimingFields(map, rec);
+        addTriggerAndTagFields(map, rec);
+        addChannelAndAgentFields(map, rec);
+        addMediaFields(map, rec);
+        addCallIdFields(map, rec);
+        addServiceFields(map, rec);
+        addTranscriptionFields(map, rec);
+
+        return map;
+    }
+
+    /**
+     * Adds identifier fields to metadata map.
+     */
+    private void addIdentifierFields(Map<String, Object> map, VpiCaptureView rec) {
+        map.put("objectId", rec.getObjectId());
+        map.put("dateAdded", rec.getDateAdded());
+        map.put("resourceId", rec.getResourceId());
+        map.put("workstationId", rec.getWorkstationId());
+        map.put("userId", rec.getUserId());
+    }
+
+    /**
+     * Adds timing fields to metadata map.
+     */
+    private void addTimingFields(Map<String, Object> map, VpiCaptureView rec) {
+        map.put("startTime", rec.getStartTime());
+        map.put("gmtOffset", rec.getGmtOffset());
+        map.put("gmtStartTime", rec.getGmtStartTime());
+        map.put("duration", rec.getDuration());
+    }
+
+    /**
+     * Adds trigger and tag fields to metadata map.
+     */
+    private void addTriggerAndTagFields(Map<String, Object> map, VpiCaptureView rec) {
+        map.put("triggeredByResourceTypeId", rec.getTriggeredByResourceTypeId());
+        map.put("triggeredByObjectId", rec.getTriggeredByObjectId());
+        map.put("flagId", rec.getFlagId());
+        map.put("tags", rec.getTags());
+        map.put("sensitivityLevel", rec.getSensitivityLevel());
+        map.put("clientId", rec.getClientId());
+    }
+
+    /**
+     * Adds channel and agent fields to metadata map.
+     */
+    private void addChannelAndAgentFields(Map<String, Object> map, VpiCaptureView rec) {
+        map.put("channelNum", rec.getChannelNum());
+        map.put("channelName", rec.getChannelName());
+        map.put("extensionNum", rec.getExtensionNum());
+        map.put("agentId", rec.getAgentId());
+        map.put("pbxDnis", rec.getPbxDnis());
+        map.put("anialidigits", rec.getAnialidigits());
+        map.put("direction", rec.getDirection());
+    }
+
+    /**
+     * Adds media fields to metadata map.
+     */
+    private void addMediaFields(Map<String, Object> map, VpiCaptureView rec) {
+        map.put("mediaFileId", rec.getMediaFileId());
+        map.put("mediaManagerId", rec.getMediaManagerId());
+        map.put("mediaRetention", rec.getMediaRetention());
+    }
+
+    /**
+     * Adds call ID fields to metadata map.
+     */
+    private void addCallIdFields(Map<String, Object> map, VpiCaptureView rec) {
+        map.put("callId", rec.getCallId());
+        map.put("previousCallId", rec.getPreviousCallId());
+        map.put("globalCallId", rec.getGlobalCallId());
+    }
+
+    /**
+     * Adds service fields to metadata map.
+     */
+    private void addServiceFields(Map<String, Object> map, VpiCaptureView rec) {
+        map.put("classOfService", rec.getClassOfService());
+        map.put("classOfServiceDate", rec.getClassOfServiceDate());
+        map.put("xPlatformRef", rec.getXPlatformRef());
+    }
+
+    /**
+     * Adds transcription fields to metadata map.
+     */
+    private void addTranscriptionFields(Map<String, Object> map, VpiCaptureView rec) {
+        map.put("transcriptResult", rec.getTranscriptResult());
+        map.put("warehouseObjectKey", rec.getWarehouseObjectKey());
+        map.put("transcriptStatus", rec.getTranscriptStatus());
+        map.put("audioChannels", rec.getAudioChannels());
+        map.put("hasTalkover", rec.getHasTalkover());
+    }
+
+    // ========== Entity Mapping Methods ==========
+
+    /**
+     * Enriches a page of recordings with user names and converts to DTOs.
+     * A {@link Page} input keeps its total in the returned page.
+     *
+     * @param page Page or slice of recordings
+     * @param opco OPCO code
+     * @return Page (or slice) of VpiMetadata DTOs
+     */
+    private Slice<VpiMetadata> enrichAndMap(Slice<? extends VpiCaptureSummary> page, String opco) {
+        Set<UUID> userIds = extractUserIds(page);
+        Map<UUID, String> userNameMap = fetchUserNames(opco, userIds);
+
+        return page.map(rec -> convertToMetadata(rec, opco, userNameMap.get(rec.getUserId())));
+    }
+
+    /**
+     * Extracts unique user IDs from a page of recordings.
+     *
+     * @param page Page of recordings
+     * @return Set of user UUIDs
+     */
+    private Set<UUID> extractUserIds(Slice<? extends VpiCaptureSummary> page) {
+        return page.getContent().stream()
+                .map(VpiCaptureSummary::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Converts a recording (entity or summary projection) to a VpiMetadata DTO.
+     * Package-private so tests build buffered pages exactly like the service does.
+     *
+     * @param rec The recording
+     * @param opco OPCO code
+     * @param username Full name of the recording's user (nullable)
+     * @return VpiMetadata DTO
+     */
+    static VpiMetadata convertToMetadata(
+            VpiCaptureSummary rec,
+            String opco,
+            String username) {
+
+        VpiMetadata dto = new VpiMetadata();
+
+        dto.setObjectId(rec.getObjectId());
+        dto.setDateAdded(toXmlStartTime(rec.getDateAdded()));
+        dto.setStartTime(toXmlStartTime(rec.getStartTime()));
+        dto.setDuration(rec.getDuration());
+        dto.setTags(rec.getTags());
+        dto.setChannelName(rec.getChannelName());
+        dto.setCallId(rec.getCallId());
+        dto.setUserId(rec.getUserId());
+        dto.setAgentId(rec.getAgentId());
+        dto.setExtensionNum(rec.getExtensionNum());
+        dto.setChannelNum(rec.getChannelNum());
+        dto.setAniAliDigits(rec.getAnialidigits());
+        dto.setUsername(username);
+        dto.setDirection(rec.getDirection());
+        dto.setOpco(opco);
+
+        return dto;
+    }
 }
\ No newline at end of file
@@ -1,14 +1,14 @@
-package com.avangrid.gui.avangrid_backend;
-
-import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
-
-@SpringBootTest
-class AvangridBackendApplicationTests {
-
-	@Test
-	void contextLoads() {
-		// TODO document why this method is empty
-	}
-
-}
+package com.avangrid.gui.avangrid_backend;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class AvangridBackendApplicationTests {
+
+	@Test
+	void contextLoads() {
+		// TODO document why this method is empty
+	}
+
+}
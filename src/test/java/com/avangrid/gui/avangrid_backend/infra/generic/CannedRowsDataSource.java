@@ -0,0 +1,87 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * JDBC data source whose every query returns the same number of generated rows, so
+ * Hibernate's hydration can be measured without a database. Each column of row {@code i}
+ * holds a value of the type Hibernate asks for; UUIDs are unique per row and column.
+ */
+final class CannedRowsDataSource {
+
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2026, 10, 16, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private CannedRowsDataSource() {
+    }
+
+    static DataSource of(int rows) {
+        Connection connection = proxy(Connection.class, (method, args) -> switch (method) {
+            case "prepareStatement" -> statement(rows);
+            case "getAutoCommit" -> true;
+            default -> null;
+        });
+        return proxy(DataSource.class, (method, args) -> "getConnection".equals(method) ? connection : null);
+    }
+
+    private static PreparedStatement statement(int rows) {
+        return proxy(PreparedStatement.class, (method, args) -> "executeQuery".equals(method) ? resultSet(rows) : null);
+    }
+
+    private static ResultSet resultSet(int rows) {
+        int[] row = {-1};
+        return proxy(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> ++row[0] < rows;
+            case "getString" -> "v" + row[0] % 97 + "-" + args[0];
+            case "getInt" -> 30 + row[0] % 600;
+            case "getLong" -> 30L + row[0] % 600;
+            case "getShort" -> (short) (row[0] % 48);
+            case "getBoolean" -> row[0] % 2 == 0;
+            case "getTimestamp" -> Timestamp.from(BASE.minusSeconds(row[0] * 37L).toInstant());
+            case "getObject" -> args.length > 1 && args[1] == OffsetDateTime.class
+                    ? BASE.minusSeconds(row[0] * 37L)
+                    : new UUID(row[0], (Integer) args[0]);
+            default -> null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        Object instance = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + "@" + System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object value = answer.answer(method.getName(), args == null ? new Object[0] : args);
+            if (value != null || !method.getReturnType().isPrimitive()) {
+                return value;
+            }
+            Class<?> returned = method.getReturnType();
+            if (returned == boolean.class) {
+                return false;
+            }
+            if (returned == void.class) {
+                return null;
+            }
+            return returned == long.class ? 0L : returned == short.class ? (short) 0 : 0;
+        });
+        return type.cast(instance);
+    }
+}
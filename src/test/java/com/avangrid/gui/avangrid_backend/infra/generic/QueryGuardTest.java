@@ -0,0 +1,71 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.QueryTimeoutException;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * A child guard cancels the statements of its own part of a request only, and is
+ * cancelled together with its parent.
+ */
+class QueryGuardTest {
+
+    @Test
+    void cancellingAChildCancelsItsStatementOnly() {
+        QueryGuard parent = new QueryGuard();
+        QueryGuard child = parent.child();
+        Session childSession = run(child);
+        Session parentSession = run(parent);
+
+        child.cancel();
+
+        verify(childSession).cancelQuery();
+        verify(parentSession, never()).cancelQuery();
+        assertThat(parent.isCancelled()).isFalse();
+        assertThatThrownBy(() -> run(child)).isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void cancellingTheParentCancelsItsChildren() {
+        QueryGuard parent = new QueryGuard();
+        QueryGuard child = parent.child();
+        Session childSession = run(child);
+
+        parent.cancel();
+
+        verify(childSession).cancelQuery();
+        assertThat(child.isCancelled()).isTrue();
+        assertThat(parent.child().isCancelled()).isTrue();
+    }
+
+    @Test
+    void childKeepsTheParentDeadline() {
+        Query query = QueryGuard.within(Duration.ofSeconds(3), () -> {
+            QueryGuard child = QueryGuard.current().child();
+            return QueryGuard.bind(child, () -> QueryGuard.apply(mock(Query.class), entityManager(mock(Session.class))));
+        });
+
+        verify(query).setHint(eq(HibernateHints.HINT_TIMEOUT), intThat(seconds -> seconds >= 1 && seconds <= 3));
+    }
+
+    private static Session run(QueryGuard guard) {
+        Session session = mock(Session.class);
+        QueryGuard.bind(guard, () -> QueryGuard.apply(mock(Query.class), entityManager(session)));
+        return session;
+    }
+
+    private static EntityManager entityManager(Session session) {
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        return entityManager;
+    }
+}
@@ -0,0 +1,104 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Reads marked with {@link ReplicaRoutingDataSource#read} are spread over the replicas,
+ * fall back to the primary when none is usable and skip lagging replicas for live reads.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    ReplicaRoutingDataSourceTest() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+    }
+
+    @Test
+    void unmarkedWorkUsesThePrimary() throws SQLException {
+        DataSource replica = replica(mock(Connection.class));
+        ReplicaRoutingDataSource routing = routing(replica);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void readsAlternateBetweenReplicas() throws SQLException {
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        ReplicaRoutingDataSource routing = routing(replica(first), replica(second));
+
+        assertThat(List.of(borrow(routing, false), borrow(routing, false), borrow(routing, false)))
+                .containsExactly(first, second, first);
+    }
+
+    @Test
+    void failedReplicaIsSkippedThenPrimaryIsUsed() throws SQLException {
+        DataSource broken = mock(DataSource.class);
+        when(broken.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaRoutingDataSource routing = routing(broken);
+
+        assertThat(borrow(routing, false)).isSameAs(primaryConnection);
+        assertThat(borrow(routing, false)).isSameAs(primaryConnection);
+        verify(broken, times(1)).getConnection();
+    }
+
+    @Test
+    void liveReadsSkipLaggingReplicas() throws SQLException {
+        Connection lagging = laggingConnection(60);
+        Connection current = laggingConnection(0);
+        ReplicaRoutingDataSource routing = routing(replica(lagging), replica(current));
+
+        assertThat(borrow(routing, true)).isSameAs(current);
+        assertThat(borrow(routing, true)).isSameAs(current);
+        assertThat(borrow(routing, false)).isSameAs(lagging);
+        verify(lagging, atLeastOnce()).close();
+    }
+
+    private ReplicaRoutingDataSource routing(DataSource... replicas) {
+        ReplicaSet set = new ReplicaSet("test", List.of(replicas),
+                Duration.ofSeconds(5), Duration.ofMinutes(1), Duration.ofMinutes(1));
+        return new ReplicaRoutingDataSource(primary, set);
+    }
+
+    private static Connection borrow(ReplicaRoutingDataSource routing, boolean live) {
+        return ReplicaRoutingDataSource.read(live, () -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static DataSource replica(Connection connection) throws SQLException {
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenReturn(connection);
+        return replica;
+    }
+
+    private static Connection laggingConnection(double lagSeconds) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble(1)).thenReturn(lagSeconds);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        return connection;
+    }
+}
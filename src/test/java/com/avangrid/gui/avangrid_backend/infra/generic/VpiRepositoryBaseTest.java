@@ -0,0 +1,164 @@
+package com.avangrid.gui.avangrid_backend.infra.generic;
+
+import com.avangrid.gui.avangrid_backend.infra.cmp.entity.VpiCaptureCmp;
+import com.avangrid.gui.avangrid_backend.infra.cmp.entity.VpiUsersCmp;
+import com.avangrid.gui.avangrid_backend.model.VpiCaptureBase;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmarks of the capture read paths: entities against summary rows for a search page,
+ * and export-sized reads with and without the read-only hint. Hibernate runs the real statements against a
+ * {@link CannedRowsDataSource}, so the numbers cover hydration and the persistence
+ * context, not the database or the network. Excluded from {@code mvn test} and run with
+ * {@code mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+class VpiRepositoryBaseTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VpiRepositoryBaseTest.class);
+
+    private static final int WARMUP = 200;
+    private static final int MEASURED = 500;
+    private static final Specification<VpiCaptureCmp> ALL = (root, query, cb) -> cb.conjunction();
+    private static final PageRequest NEWEST_500 = PageRequest.of(0, 500, Sort.by(Sort.Direction.DESC, "dateAdded"));
+    private static final int EXPORT_ROWS = 1_000;
+
+    @Test
+    void reportsHydrationOfEntitiesAndSummaryRows() {
+        try (SessionFactory sessionFactory = sessionFactory(NEWEST_500.getPageSize())) {
+            Measurement entities = measure(sessionFactory,
+                    session -> repository(session).findSlice(ALL, NEWEST_500).getContent());
+            Measurement summaries = measure(sessionFactory,
+                    session -> repository(session).findSummarySlice(ALL, NEWEST_500, null).getContent());
+
+            log(NEWEST_500.getPageSize() + " entities", entities);
+            log(NEWEST_500.getPageSize() + " summary rows", summaries);
+
+            assertThat(entities.rows()).isEqualTo(NEWEST_500.getPageSize());
+            assertThat(summaries.rows()).isEqualTo(NEWEST_500.getPageSize());
+            assertThat(summaries.managed()).isZero();
+            assertThat(summaries.allocated()).isLessThan(entities.allocated());
+        }
+    }
+
+    /**
+     * The capture entities are {@code @Immutable}, which already loads them read-only;
+     * {@link MutableCapture} maps the same table without it and shows what the hint saves.
+     * Hydration allocates the same either way; the hint decides whether the loaded state
+     * is kept as a dirty-checking snapshot for as long as the session lives.
+     */
+    @Test
+    void reportsPersistenceContextWithAndWithoutReadOnlyHint() {
+        try (SessionFactory sessionFactory = sessionFactory(EXPORT_ROWS)) {
+            Measurement mutable = measure(sessionFactory, session -> entities(session, MutableCapture.class, false));
+            Measurement mutableReadOnly = measure(sessionFactory, session -> entities(session, MutableCapture.class, true));
+            Measurement immutable = measure(sessionFactory, session -> entities(session, VpiCaptureCmp.class, false));
+            Measurement immutableReadOnly = measure(sessionFactory, session -> entities(session, VpiCaptureCmp.class, true));
+
+            log(EXPORT_ROWS + " mutable entities", mutable);
+            log(EXPORT_ROWS + " mutable entities, read-only hint", mutableReadOnly);
+            log(EXPORT_ROWS + " @Immutable entities", immutable);
+            log(EXPORT_ROWS + " @Immutable entities, read-only hint", immutableReadOnly);
+
+            assertThat(mutable.snapshots()).isEqualTo(EXPORT_ROWS);
+            assertThat(mutableReadOnly.managed()).isEqualTo(EXPORT_ROWS);
+            assertThat(mutableReadOnly.snapshots()).isZero();
+            assertThat(immutable.snapshots()).isZero();
+            assertThat(immutableReadOnly.snapshots()).isZero();
+        }
+    }
+
+    private static SessionFactory sessionFactory(int rows) {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(VpiCaptureCmp.class)
+                .addAnnotatedClass(VpiUsersCmp.class)
+                .addAnnotatedClass(MutableCapture.class);
+        configuration.getProperties().put(AvailableSettings.DIALECT, "org.hibernate.dialect.PostgreSQLDialect");
+        configuration.getProperties().put(AvailableSettings.ALLOW_METADATA_ON_BOOT, false);
+        configuration.getProperties().put(AvailableSettings.DATASOURCE, CannedRowsDataSource.of(rows));
+        return configuration.buildSessionFactory();
+    }
+
+    private static VpiRepositoryBase<VpiCaptureCmp, Object> repository(Session session) {
+        return new VpiRepositoryBase<>(
+                JpaEntityInformationSupport.getEntityInformation(VpiCaptureCmp.class, session), session);
+    }
+
+    private static <E extends VpiCaptureBase> List<E> entities(Session session, Class<E> entity, boolean readOnly) {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        CriteriaQuery<E> query = cb.createQuery(entity);
+        Root<E> root = query.from(entity);
+        TypedQuery<E> typed = session.createQuery(query.select(root).orderBy(cb.desc(root.get("dateAdded"))));
+        return typed.setHint(HibernateHints.HINT_READ_ONLY, readOnly).getResultList();
+    }
+
+    private static void log(String read, Measurement measurement) {
+        logger.info("{}: {} us, {} KiB allocated, {} managed, {} snapshots", read, measurement.micros(),
+                measurement.allocated() / 1024, measurement.managed(), measurement.snapshots());
+    }
+
+    private static Measurement measure(SessionFactory sessionFactory, Function<Session, List<?>> read) {
+        for (int i = 0; i < WARMUP; i++) {
+            run(sessionFactory, read);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        Measurement last = null;
+        for (int i = 0; i < MEASURED; i++) {
+            last = run(sessionFactory, read);
+        }
+        long micros = (System.nanoTime() - start) / MEASURED / 1000;
+        long allocated = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / MEASURED;
+
+        return new Measurement(last.rows(), last.managed(), last.snapshots(), micros, allocated);
+    }
+
+    private static Measurement run(SessionFactory sessionFactory, Function<Session, List<?>> read) {
+        try (Session session = sessionFactory.openSession()) {
+            int rows = read.apply(session).size();
+            PersistenceContext context = session.unwrap(SessionImplementor.class).getPersistenceContextInternal();
+            // Dirty checking keeps a copy of the loaded state; read-only entities drop it
+            long snapshots = Arrays.stream(context.reentrantSafeEntityEntries())
+                    .filter(entry -> entry.getValue().getLoadedState() != null)
+                    .count();
+            return new Measurement(rows, context.getNumberOfManagedEntities(), snapshots, 0, 0);
+        }
+    }
+
+    private record Measurement(int rows, int managed, long snapshots, long micros, long allocated) {
+    }
+
+    @Entity
+    @Table(name = "vpvoiceobjects", schema = "vpicapturevoice")
+    static class MutableCapture extends VpiCaptureBase {
+    }
+}
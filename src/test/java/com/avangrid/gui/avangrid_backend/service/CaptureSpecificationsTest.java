@@ -0,0 +1,60 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.infra.generic.VpiFunctionContributor;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * UUID list filters must render the same SQL whatever the list size, otherwise every
+ * distinct size adds an entry to Hibernate's query plan cache and Postgres' statement cache.
+ */
+class CaptureSpecificationsTest {
+
+    @Test
+    void userIdsInBindsOneArrayWhateverTheListSize() {
+        assertSingleArrayParameter(size -> CaptureSpecifications.userIdsIn("userId", new HashSet<>(uuids(size))));
+    }
+
+    @Test
+    void objectIdsExactAnyBindsOneArrayWhateverTheListSize() {
+        assertSingleArrayParameter(size -> CaptureSpecifications.objectIdsExactAny("objectId", uuids(size)));
+    }
+
+    private void assertSingleArrayParameter(Function<Integer, Specification<Object>> specForSize) {
+        for (int size : new int[]{1, 2, 300}) {
+            HibernateCriteriaBuilder cb = mock(HibernateCriteriaBuilder.class);
+            @SuppressWarnings("unchecked")
+            Root<Object> root = mock(Root.class);
+
+            specForSize.apply(size).toPredicate(root, mock(CriteriaQuery.class), cb);
+
+            ArgumentCaptor<Object> bound = ArgumentCaptor.forClass(Object.class);
+            verify(cb, times(1)).value(bound.capture());
+            assertThat(bound.getValue()).isInstanceOf(UUID[].class);
+            assertThat((UUID[]) bound.getValue()).hasSize(size);
+
+            verify(cb).function(eq(VpiFunctionContributor.UUID_EQ_ANY), eq(Boolean.class), any(), any());
+            verify(cb, never()).in(any(Expression.class));
+        }
+    }
+
+    private static List<UUID> uuids(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> UUID.randomUUID())
+                .toList();
+    }
+}
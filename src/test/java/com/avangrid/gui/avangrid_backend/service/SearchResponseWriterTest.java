@@ -0,0 +1,194 @@
+package com.avangrid.gui.avangrid_backend.service;
+
+import com.avangrid.gui.avangrid_backend.model.PaginationResponse;
+import com.avangrid.gui.avangrid_backend.model.ResponseFormat;
+import com.avangrid.gui.avangrid_backend.model.TotalType;
+import com.avangrid.gui.avangrid_backend.model.VpiCaptureSummaryRow;
+import com.avangrid.gui.avangrid_backend.model.VpiSearchResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A streamed search page must decode to the same document Jackson writes from the DTOs,
+ * in every response format. The {@code benchmark} test reports payload size and write
+ * time of a 500-row page per format, the numbers behind offering CBOR and Smile next to
+ * JSON, and the bytes a buffered and a streamed write allocate per page. Benchmarks are
+ * excluded from {@code mvn test} and run with
+ * {@code mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark}.
+ */
+class SearchResponseWriterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchResponseWriterTest.class);
+
+    private static final int ROWS = 500;
+    private static final String OPCO = "CMP";
+
+    // Built like Boot's ObjectMapper and BinaryFormatConfig's converters
+    private static final ResponseMappers MAPPERS = new ResponseMappers(
+            Jackson2ObjectMapperBuilder.json().build(),
+            new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.cbor().build()),
+            new MappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder.smile().build()));
+
+    @ParameterizedTest
+    @EnumSource(ResponseFormat.class)
+    void streamedPageMatchesBufferedPage(ResponseFormat format) throws IOException {
+        List<VpiCaptureSummaryRow> rows = rows();
+        ObjectMapper mapper = MAPPERS.forFormat(format);
+
+        assertThat(mapper.readTree(streamed(format, rows))).isEqualTo(mapper.readTree(buffered(format, rows)));
+    }
+
+    @Test
+    void binaryPagesAreSmallerThanJson() throws IOException {
+        List<VpiCaptureSummaryRow> rows = rows();
+        int json = buffered(ResponseFormat.JSON, rows).length;
+
+        assertThat(buffered(ResponseFormat.CBOR, rows).length).isLessThan(json);
+        assertThat(buffered(ResponseFormat.SMILE, rows).length).isLessThan(json);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void reportsPayloadSizeAndWriteTimePerFormat() throws IOException {
+        List<VpiCaptureSummaryRow> rows = rows();
+        int warmup = 200;
+        int measured = 500;
+
+        for (ResponseFormat format : ResponseFormat.values()) {
+            for (int i = 0; i < warmup; i++) {
+                buffered(format, rows);
+            }
+
+            int size = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < measured; i++) {
+                size = buffered(format, rows).length;
+            }
+            long micros = (System.nanoTime() - start) / measured / 1000;
+
+            logger.info("{}-row page as {}: {} bytes, {} us per write", ROWS, format, size, micros);
+            assertThat(size).isPositive();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void reportsAllocationOfBufferedAndStreamedWritesPerFormat() throws IOException {
+        List<VpiCaptureSummaryRow> rows = rows();
+        int warmup = 200;
+        int measured = 500;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (ResponseFormat format : ResponseFormat.values()) {
+            long[] allocated = new long[2];
+            for (int streamed = 0; streamed < 2; streamed++) {
+                for (int i = 0; i < warmup; i++) {
+                    write(format, rows, streamed == 1, OutputStream.nullOutputStream());
+                }
+
+                long before = threads.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < measured; i++) {
+                    write(format, rows, streamed == 1, OutputStream.nullOutputStream());
+                }
+                allocated[streamed] = (threads.getCurrentThreadAllocatedBytes() - before) / measured;
+            }
+
+            logger.info("{}-row page as {}: {} KiB allocated buffered, {} KiB streamed",
+                    ROWS, format, allocated[0] / 1024, allocated[1] / 1024);
+            assertThat(allocated[1]).isLessThan(allocated[0]);
+        }
+    }
+
+    private static byte[] buffered(ResponseFormat format, List<VpiCaptureSummaryRow> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(format, rows, false, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] streamed(ResponseFormat format, List<VpiCaptureSummaryRow> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(format, rows, true, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the page the way the service does: buffered pages are converted to
+     * {@code VpiMetadata} first, streamed pages are written row by row.
+     */
+    private static void write(ResponseFormat format, List<VpiCaptureSummaryRow> rows, boolean streamed,
+                              OutputStream out) throws IOException {
+        SearchResponseWriter writer = SearchResponseWriter.of(MAPPERS.forFormat(format), out);
+        if (!streamed) {
+            VpiSearchResponse response = response();
+            response.setData(rows.stream()
+                    .map(row -> VpiRecordingService.convertToMetadata(row, OPCO, row.getUserName()))
+                    .toList());
+            writer.write(response);
+            return;
+        }
+
+        writer.startData();
+        for (VpiCaptureSummaryRow row : rows) {
+            writer.writeRow(row, OPCO, row.getUserName());
+        }
+        writer.endData(response());
+    }
+
+    private static VpiSearchResponse response() {
+        PaginationResponse pagination = new PaginationResponse();
+        pagination.setPageNumber(1);
+        pagination.setPageSize(ROWS);
+        pagination.setTotalRecords(12_345L);
+        pagination.setTotalPages(25);
+        pagination.setTotalType(TotalType.EXACT);
+        pagination.setHasNext(true);
+        pagination.setNextCursor("MjAyNi0xMC0xNlQxMjowMDowMFp8MDAwMDAwMDAtMDAwMC0wMDAwLTAwMDAtMDAwMDAwMDAwMDAw");
+
+        VpiSearchResponse response = new VpiSearchResponse();
+        response.setPagination(pagination);
+        response.setStatus("200");
+        response.setMessage("Success");
+        return response;
+    }
+
+    private static List<VpiCaptureSummaryRow> rows() {
+        OffsetDateTime base = OffsetDateTime.of(2026, 10, 16, 12, 0, 0, 0, ZoneOffset.UTC);
+        return IntStream.range(0, ROWS)
+                .mapToObj(i -> new VpiCaptureSummaryRow(
+                        UUID.randomUUID(),
+                        base.minusSeconds(i * 37L),
+                        base.minusSeconds(i * 37L + 5),
+                        30 + i % 600,
+                        i % 3 == 0 ? "escalated" : null,
+                        "Channel " + i % 48,
+                        "CALL-" + (1_000_000 + i),
+                        UUID.randomUUID(),
+                        "A" + (4000 + i % 120),
+                        "55" + (100 + i % 300),
+                        (short) (i % 48),
+                        "58555501" + (10 + i % 90),
+                        i % 2 == 0,
+                        "Agent " + i % 120))
+                .toList();
+    }
+}